@@ -0,0 +1,98 @@
+package com.familytree.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fuzzy name search over synthetic three-word names built from random syllables.
+ * Each query drops the first letter of a known word, so it is one edit away.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FuzzyNameIndexBenchmark {
+
+	private static final String CONSONANTS = "bcdfghjklmnprstvwz";
+	private static final String VOWELS = "aeiou";
+	private static final int QUERIES = 256;
+
+	@Param({"100000", "500000"})
+	private int names;
+
+	private final Random random = new Random(42);
+	private FuzzyNameIndex index;
+	private String[] singleWordQueries;
+	private String[] twoWordQueries;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void buildIndex() {
+		String[] given = words(20_000);
+		String[] middle = words(50_000);
+		String[] family = words(5_000);
+
+		index = new FuzzyNameIndex();
+		String[][] indexed = new String[names][];
+		for (int slot = 0; slot < names; slot++) {
+			indexed[slot] = new String[]{pick(given), pick(middle), pick(family)};
+			index.put(slot, String.join(" ", indexed[slot]));
+		}
+
+		singleWordQueries = new String[QUERIES];
+		twoWordQueries = new String[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			String[] name = indexed[random.nextInt(names)];
+			singleWordQueries[i] = name[2].substring(1);
+			twoWordQueries[i] = name[0].substring(1) + " " + name[2];
+		}
+	}
+
+	@Benchmark
+	public List<FuzzyNameIndex.Match> singleWord() {
+		return index.search(singleWordQueries[next++ % QUERIES], 2);
+	}
+
+	@Benchmark
+	public List<FuzzyNameIndex.Match> twoWords() {
+		return index.search(twoWordQueries[next++ % QUERIES], 2);
+	}
+
+	private String[] words(int count) {
+		String[] words = new String[count];
+		for (int i = 0; i < count; i++) {
+			StringBuilder word = new StringBuilder();
+			int syllables = 3 + random.nextInt(2);
+			for (int s = 0; s < syllables; s++) {
+				word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+				word.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+				if (random.nextBoolean()) {
+					word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+				}
+			}
+			words[i] = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+		}
+		return words;
+	}
+
+	private String pick(String[] words) {
+		return words[random.nextInt(words.length)];
+	}
+}
@@ -0,0 +1,105 @@
+package com.familytree.util;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the original recursive TreeMapper with the iterative mapper,
+ * sequential and fanned out over the ForkJoinPool.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeMapperBenchmark {
+
+	/**
+	 * Shape of the synthetic tree: fan-out per generation and number of generations
+	 */
+	@Param({"8x5", "3x10", "1x3000"})
+	private String shape;
+
+	private Person root;
+
+	@Setup(Level.Trial)
+	public void buildTree() {
+		String[] parts = shape.split("x");
+		int fanOut = Integer.parseInt(parts[0]);
+		int generations = Integer.parseInt(parts[1]);
+
+		root = person("root", 1);
+		List<Person> level = List.of(root);
+		for (int generation = 2; generation <= generations; generation++) {
+			List<Person> next = new ArrayList<>();
+			for (Person parent : level) {
+				for (int i = 0; i < fanOut; i++) {
+					Person child = person(parent.getId() + "-" + i, generation);
+					parent.addChild(child);
+					next.add(child);
+				}
+			}
+			level = next;
+		}
+	}
+
+	@Benchmark
+	public PersonResponse recursive() {
+		return recursiveToResponse(root);
+	}
+
+	@Benchmark
+	public PersonResponse iterative() {
+		return TreeWalker.map(root, TreeMapper::toResponse, Person::getChildren,
+				TreeMapperBenchmark::link, Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public PersonResponse iterativeParallel() {
+		return TreeMapper.toResponseWithChildren(root);
+	}
+
+	private static void link(PersonResponse parent, PersonResponse child, int index, int childCount) {
+		if (index == 0) {
+			parent.setChilds(new ArrayList<>(childCount));
+		}
+		parent.getChilds().add(child);
+	}
+
+	private static Person person(String id, int level) {
+		return new Person(id, "Person " + id, "avatar.jpeg", "Dhaka", level, "α++++", "Spouse of " + id);
+	}
+
+	/**
+	 * The recursive mapping TreeMapper used before it became iterative
+	 */
+	private static PersonResponse recursiveToResponse(Person person) {
+		PersonResponse response = TreeMapper.toResponse(person);
+		if (person.getChildren() != null && !person.getChildren().isEmpty()) {
+			List<PersonResponse> childResponses = person.getChildren().stream()
+					.map(TreeMapperBenchmark::recursiveToResponse)
+					.collect(Collectors.toList());
+			response.setChilds(childResponses);
+		}
+		return response;
+	}
+}
@@ -0,0 +1,77 @@
+package com.familytree.util;
+
+import com.familytree.dto.ApiResponse;
+import com.familytree.dto.PersonResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON with CBOR and Smile for the full-tree response built from
+ * the bundled data_full.json: encoded size (printed at setup) and
+ * encode/decode time.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+	private static final TypeReference<ApiResponse<PersonResponse>> RESPONSE_TYPE = new TypeReference<>() {
+	};
+
+	@Param({"json", "cbor", "smile"})
+	private String format;
+
+	private ObjectMapper mapper;
+	private ApiResponse<PersonResponse> response;
+	private byte[] encoded;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		JsonTreeNode root;
+		try (InputStream in = WireFormatBenchmark.class.getResourceAsStream("/data/data_full.json")) {
+			root = new ObjectMapper().readValue(in, JsonTreeNode.class);
+		}
+		PersonResponse tree = TreeMapper.toResponseWithChildren(TreeMapper.fromJsonNodeWithChildren(root));
+		response = ApiResponse.success("Family tree retrieved successfully", tree);
+
+		mapper = switch (format) {
+			case "cbor" -> new CBORMapper();
+			case "smile" -> new SmileMapper();
+			default -> new ObjectMapper();
+		};
+		encoded = mapper.writeValueAsBytes(response);
+		System.out.printf("%n%s: %d bytes%n", format, encoded.length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return mapper.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public ApiResponse<PersonResponse> decode() throws IOException {
+		return mapper.readValue(encoded, RESPONSE_TYPE);
+	}
+}
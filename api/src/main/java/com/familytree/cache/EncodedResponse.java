@@ -0,0 +1,64 @@
+package com.familytree.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A serialized response body with pre-compressed variants
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedResponse {
+
+	public static final String GZIP = "gzip";
+	public static final String DEFLATE = "deflate";
+
+	private final long version;
+	private final String etag;
+	private final byte[] identity;
+	private final byte[] gzip;
+	private final byte[] deflate;
+
+	/**
+	 * Pick the best content coding allowed by an Accept-Encoding header:
+	 * gzip, then deflate, otherwise null for identity
+	 */
+	public static String negotiate(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		boolean deflateAccepted = false;
+		for (String part : acceptEncoding.split(",")) {
+			String[] tokens = part.trim().split(";");
+			String coding = tokens[0].trim().toLowerCase();
+			boolean rejected = Arrays.stream(tokens).skip(1)
+					.map(String::trim)
+					.anyMatch(param -> param.matches("q=0(\\.0*)?"));
+			if (rejected) {
+				continue;
+			}
+			if (coding.equals(GZIP) || coding.equals("*")) {
+				return GZIP;
+			}
+			if (coding.equals(DEFLATE)) {
+				deflateAccepted = true;
+			}
+		}
+		return deflateAccepted ? DEFLATE : null;
+	}
+
+	/**
+	 * Body bytes for a content coding returned by {@link #negotiate(String)}
+	 */
+	public byte[] body(String coding) {
+		if (GZIP.equals(coding)) {
+			return gzip;
+		}
+		if (DEFLATE.equals(coding)) {
+			return deflate;
+		}
+		return identity;
+	}
+}
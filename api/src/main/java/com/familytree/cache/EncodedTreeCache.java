@@ -0,0 +1,108 @@
+package com.familytree.cache;
+
+import com.familytree.dto.ApiResponse;
+import com.familytree.dto.PersonResponse;
+import com.familytree.exception.PersonNotFoundException;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.model.Person;
+import com.familytree.repository.PersonRepository;
+import com.familytree.util.FieldProjection;
+import com.familytree.util.TreeAssembler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the full-tree API response already serialized to JSON, plus gzip and
+ * deflate variants, for the current tree version. Cache hits are written to
+ * the socket as-is, with no serialization or compression work.
+ *
+ * The tree is read from the snapshot or the database, never through the
+ * FAMILY_TREE_FULL cache: that cache is evicted before a write commits, so a
+ * read in between could refill it with the old tree under the new version.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EncodedTreeCache {
+
+	private final TreeSnapshot treeSnapshot;
+	private final PersonRepository personRepository;
+	private final TreeVersion treeVersion;
+	private final ObjectMapper objectMapper;
+
+	private final AtomicReference<EncodedResponse> current = new AtomicReference<>();
+
+	/**
+	 * Get the encoded full tree for the current version, building it on a miss
+	 */
+	public EncodedResponse getFullTree() {
+		// Read before the tree: a write updates the snapshot and commits before it publishes
+		// its version, so the tree read below is never older than the version it is tagged with
+		long version = treeVersion.current();
+		EncodedResponse cached = current.get();
+		if (cached != null && cached.getVersion() == version) {
+			return cached;
+		}
+
+		synchronized (this) {
+			cached = current.get();
+			if (cached != null && cached.getVersion() == version) {
+				return cached;
+			}
+			EncodedResponse encoded = encode(version, readFullTree());
+			current.set(encoded);
+			return encoded;
+		}
+	}
+
+	private PersonResponse readFullTree() {
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getFullTree(FieldProjection.ALL)
+					.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+		}
+
+		Person root = personRepository.findFirstByLevel(1)
+				.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+		return TreeAssembler.assemble(personRepository.findDescendantRows(root.getId()), root.getId(), FieldProjection.ALL)
+				.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+	}
+
+	private EncodedResponse encode(long version, PersonResponse tree) {
+		long start = System.currentTimeMillis();
+		try {
+			byte[] identity = objectMapper.writer()
+					.without(SerializationFeature.INDENT_OUTPUT)
+					.writeValueAsBytes(ApiResponse.success("Family tree retrieved successfully", tree));
+			byte[] gzip = compress(identity, true);
+			byte[] deflate = compress(identity, false);
+
+			log.info("Encoded full tree for version {} in {} ms (identity={} B, gzip={} B, deflate={} B)",
+					version, System.currentTimeMillis() - start, identity.length, gzip.length, deflate.length);
+			return new EncodedResponse(version, TreeVersion.etag(version), identity, gzip, deflate);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] compress(byte[] data, boolean gzip) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+		try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+			out.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return buffer.toByteArray();
+	}
+}
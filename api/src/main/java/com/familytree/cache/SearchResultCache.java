@@ -0,0 +1,220 @@
+package com.familytree.cache;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.util.FieldProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static com.familytree.config.CacheConfig.SEARCH_RESULTS;
+
+/**
+ * Name search results in the SEARCH_RESULTS cache, keyed by the query with
+ * case and whitespace normalized.
+ *
+ * Besides each page, the cache keeps the IDs and names of every match of a
+ * query, so any page of it is served without searching again. Every name
+ * containing a query contains each of its substrings too, so on a miss the
+ * matches of the longest cached substring are filtered instead; a broad query
+ * covers narrower ones however many pages it has. Lookups are counted in the
+ * search.cache.lookups metric by source: exact, derived or miss.
+ */
+@Component
+@Slf4j
+public class SearchResultCache {
+
+	/**
+	 * Most matches kept for one query; broader queries are searched again
+	 */
+	static final int MAX_CACHED_MATCHES = 5000;
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final CacheManager cacheManager;
+	private final Counter exactHits;
+	private final Counter derivedHits;
+	private final Counter misses;
+
+	public SearchResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+		this.cacheManager = cacheManager;
+		this.exactHits = lookups(meterRegistry, "exact");
+		this.derivedHits = lookups(meterRegistry, "derived");
+		this.misses = lookups(meterRegistry, "miss");
+	}
+
+	/**
+	 * Trim, collapse inner whitespace and lowercase a search term, so spellings
+	 * that match the same names share one cache entry
+	 */
+	public static String normalize(String query) {
+		return WHITESPACE.matcher(query.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Get a page of results for a normalized query, running the search on a miss.
+	 * For searches whose results cannot be derived from another query's, such as ranked ones.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<PersonResponse> get(String query, int offset, int limit, FieldProjection fields,
+									Supplier<List<PersonResponse>> search) {
+		Cache cache = cacheManager.getCache(SEARCH_RESULTS);
+		PageKey key = new PageKey(query, offset, limit, fields.getKey());
+
+		List<PersonResponse> cached = cache.get(key, List.class);
+		if (cached != null) {
+			exactHits.increment();
+			return cached;
+		}
+
+		List<PersonResponse> results = search.get();
+		misses.increment();
+		cache.put(key, results);
+		return results;
+	}
+
+	/**
+	 * Get a page of name matches for a normalized query, paging the cached
+	 * matches of the query or of a substring of it, or finding them on a miss
+	 *
+	 * @param findMatches finds every person whose name contains the query, ordered
+	 *                    by name then ID, as rows holding at least ID and name
+	 * @param load        gets the persons with the given IDs, in that order
+	 */
+	@SuppressWarnings("unchecked")
+	public List<PersonResponse> get(String query, int offset, int limit, FieldProjection fields,
+									Function<String, List<PersonTreeRow>> findMatches,
+									Function<List<String>, List<PersonResponse>> load) {
+		Cache cache = cacheManager.getCache(SEARCH_RESULTS);
+		PageKey key = new PageKey(query, offset, limit, fields.getKey());
+
+		List<PersonResponse> cached = cache.get(key, List.class);
+		if (cached != null) {
+			exactHits.increment();
+			return cached;
+		}
+
+		MatchesKey matchesKey = new MatchesKey(query);
+		Matches matches = cache.get(matchesKey, Matches.class);
+		if (matches == null) {
+			Matches covering = findCovering(cache, query);
+			if (covering != null) {
+				matches = covering.filter(query);
+				log.debug("Derived {} matches for '{}' from {} cached matches of a substring",
+						matches.size(), query, covering.size());
+			} else {
+				matches = Matches.of(findMatches.apply(query));
+			}
+			if (matches.size() <= MAX_CACHED_MATCHES) {
+				cache.put(matchesKey, matches);
+			}
+			(covering != null ? derivedHits : misses).increment();
+		} else {
+			log.debug("Paging {} cached matches for '{}'", matches.size(), query);
+			derivedHits.increment();
+		}
+
+		List<String> page = matches.page(offset, limit);
+		List<PersonResponse> results = page.isEmpty() ? List.of() : load.apply(page);
+		cache.put(key, results);
+		return results;
+	}
+
+	/**
+	 * Find the cached matches of the longest substring of the query. Scans the
+	 * cached keys, which the cache size bounds, rather than probing every
+	 * substring; the scan bypasses the cache statistics.
+	 */
+	private static Matches findCovering(Cache cache, String query) {
+		if (!(cache instanceof CaffeineCache caffeineCache)) {
+			return null;
+		}
+
+		String longest = null;
+		for (Object key : caffeineCache.getNativeCache().asMap().keySet()) {
+			if (key instanceof MatchesKey matchesKey && query.contains(matchesKey.query())
+					&& (longest == null || matchesKey.query().length() > longest.length())) {
+				longest = matchesKey.query();
+			}
+		}
+		// The entry may have expired since the scan
+		return longest == null ? null : cache.get(new MatchesKey(longest), Matches.class);
+	}
+
+	private static Counter lookups(MeterRegistry meterRegistry, String source) {
+		return Counter.builder("search.cache.lookups")
+				.description("Name search lookups by where the result came from")
+				.tag("source", source)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Key of one page of results; records never equal another cache's keys
+	 */
+	private record PageKey(String query, int offset, int limit, String fields) {
+	}
+
+	/**
+	 * Key of every match of a query
+	 */
+	private record MatchesKey(String query) {
+	}
+
+	/**
+	 * IDs and lowercased names of every match of a query, in result order
+	 */
+	private record Matches(String[] ids, String[] names) {
+
+		static Matches of(List<PersonTreeRow> rows) {
+			String[] ids = new String[rows.size()];
+			String[] names = new String[rows.size()];
+			for (int i = 0; i < rows.size(); i++) {
+				ids[i] = rows.get(i).getId();
+				names[i] = rows.get(i).getName() != null ? rows.get(i).getName().toLowerCase(Locale.ROOT) : "";
+			}
+			return new Matches(ids, names);
+		}
+
+		/**
+		 * Keep the matches whose name contains the query, in the same order
+		 */
+		Matches filter(String query) {
+			int[] kept = new int[ids.length];
+			int count = 0;
+			for (int i = 0; i < ids.length; i++) {
+				if (names[i].contains(query)) {
+					kept[count++] = i;
+				}
+			}
+			String[] keptIds = new String[count];
+			String[] keptNames = new String[count];
+			for (int i = 0; i < count; i++) {
+				keptIds[i] = ids[kept[i]];
+				keptNames[i] = names[kept[i]];
+			}
+			return new Matches(keptIds, keptNames);
+		}
+
+		List<String> page(int offset, int limit) {
+			if (offset >= ids.length) {
+				return List.of();
+			}
+			return List.copyOf(Arrays.asList(ids).subList(offset, (int) Math.min(ids.length, (long) offset + limit)));
+		}
+
+		int size() {
+			return ids.length;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.familytree.cache;
+
+import com.familytree.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monotonic version of the family tree, persisted on a TreeMeta node and
+ * incremented by every mutation. Each person also carries the tree version of
+ * its last change (or of a change anywhere in its subtree, which alters its
+ * children or subtree aggregates) in its version property. Versions are
+ * published to readers once the writing transaction commits, so an ETag never
+ * runs ahead of the data it describes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TreeVersion {
+
+	// Writing the lock property first takes the node's write lock, so concurrent increments
+	// read the version one after another instead of both reading the same value
+	private static final String INCREMENT_QUERY =
+			"MERGE (m:TreeMeta {id: 'tree'}) " +
+			"SET m._lock = true " +
+			"WITH m " +
+			"SET m.version = CASE WHEN coalesce(m.version, 0) > $known THEN m.version ELSE $known END + 1 " +
+			"REMOVE m._lock " +
+			"RETURN m.version AS version";
+
+	// Also makes concurrent first MERGEs create a single TreeMeta node
+	private static final String CONSTRAINT_QUERY =
+			"CREATE CONSTRAINT tree_meta_id IF NOT EXISTS FOR (m:TreeMeta) REQUIRE m.id IS UNIQUE";
+
+	private static final String TOUCH_PERSONS_QUERY =
+			"UNWIND $ids AS id " +
+			"MATCH (p:Person {id: id}) " +
+			"OPTIONAL MATCH (ancestor:Person)-[:PARENT_OF*]->(p) " +
+			"WITH p, collect(ancestor) AS ancestors " +
+			"UNWIND [p] + ancestors AS touched " +
+			"WITH DISTINCT touched WHERE touched IS NOT NULL " +
+			"SET touched.version = $version " +
+			"RETURN touched.id AS id";
+
+	private static final String TOUCH_ALL_QUERY =
+			"MATCH (p:Person) SET p.version = $version";
+
+	private static final String LOAD_QUERY =
+			"OPTIONAL MATCH (m:TreeMeta {id: 'tree'}) RETURN coalesce(m.version, 0) AS version";
+
+	private static final String LOAD_PERSONS_QUERY =
+			"MATCH (p:Person) WHERE p.version IS NOT NULL RETURN p.id AS id, p.version AS version";
+
+	private final Neo4jClient neo4jClient;
+
+	private final Map<String, Long> personVersions = new ConcurrentHashMap<>();
+
+	// Version of persons without a recorded change, i.e. loaded in bulk
+	private volatile long baseline;
+	private volatile long version;
+	private volatile boolean loaded;
+
+	/**
+	 * Get the current (committed) tree version
+	 */
+	public long current() {
+		ensureLoaded();
+		return version;
+	}
+
+	/**
+	 * Get the version of a person's own data and its immediate children
+	 */
+	public long personVersion(String id) {
+		ensureLoaded();
+		return personVersions.getOrDefault(id, baseline);
+	}
+
+	/**
+	 * Increment the tree version within the current transaction and stamp the
+	 * given persons and their ancestors with it
+	 *
+	 * @return the new version, visible to readers after commit
+	 */
+	public long increment(String... personIds) {
+		long next = next();
+		Collection<String> touched = personIds.length == 0 ? List.of() :
+				neo4jClient.query(TOUCH_PERSONS_QUERY)
+						.bind(List.of(personIds)).to("ids")
+						.bind(next).to("version")
+						.fetchAs(String.class)
+						.mappedBy((typeSystem, record) -> record.get("id").asString())
+						.all();
+
+		TransactionHooks.afterCommit(() -> {
+			touched.forEach(id -> personVersions.merge(id, next, Math::max));
+			publish(next);
+		});
+		return next;
+	}
+
+	/**
+	 * Increment the tree version within the current transaction and stamp
+	 * every person with it
+	 *
+	 * @return the new version, visible to readers after commit
+	 */
+	public long incrementAll() {
+		long next = next();
+		neo4jClient.query(TOUCH_ALL_QUERY)
+				.bind(next).to("version")
+				.run();
+
+		TransactionHooks.afterCommit(() -> {
+			personVersions.clear();
+			baseline = next;
+			publish(next);
+		});
+		return next;
+	}
+
+	/**
+	 * Create the uniqueness constraint on the TreeMeta node unless it exists
+	 */
+	public void createConstraint() {
+		neo4jClient.query(CONSTRAINT_QUERY).run();
+	}
+
+	/**
+	 * ETag for a version. Weak, since every content type and coding of a
+	 * response at one version shares it.
+	 */
+	public static String etag(long version) {
+		return "W/\"" + version + "\"";
+	}
+
+	private long next() {
+		ensureLoaded();
+		return neo4jClient.query(INCREMENT_QUERY)
+				.bind(version).to("known")
+				.fetchAs(Long.class)
+				.mappedBy((typeSystem, record) -> record.get("version").asLong())
+				.one()
+				.orElseThrow();
+	}
+
+	private synchronized void publish(long next) {
+		if (next > version) {
+			version = next;
+			log.debug("Tree version is now {}", next);
+		}
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		synchronized (this) {
+			if (loaded) {
+				return;
+			}
+			long stored = neo4jClient.query(LOAD_QUERY)
+					.fetchAs(Long.class)
+					.mappedBy((typeSystem, record) -> record.get("version").asLong())
+					.one()
+					.orElse(0L);
+			neo4jClient.query(LOAD_PERSONS_QUERY)
+					.fetch()
+					.all()
+					.forEach(row -> personVersions.put((String) row.get("id"), ((Number) row.get("version")).longValue()));
+
+			version = Math.max(version, stored);
+			baseline = version;
+			loaded = true;
+			log.info("Loaded tree version {} ({} persons with recorded changes)", version, personVersions.size());
+		}
+	}
+}
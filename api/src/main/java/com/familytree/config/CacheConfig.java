@@ -21,8 +21,10 @@ public class CacheConfig {
 	public static final String FAMILY_TREE_FULL = "familyTreeFull";
 	public static final String PERSON_BY_ID = "personById";
 	public static final String PERSON_DESCENDANTS = "personDescendants";
+	public static final String PERSON_DESCENDANTS_BY_DEPTH = "personDescendantsByDepth";
 	public static final String SEARCH_RESULTS = "searchResults";
 	public static final String PERSONS_BY_LEVEL = "personsByLevel";
+	public static final String TREE_OVERVIEW = "treeOverview";
 
 	@Bean
 	public CacheManager cacheManager() {
@@ -32,8 +34,10 @@ public class CacheConfig {
 				FAMILY_TREE_FULL,
 				PERSON_BY_ID,
 				PERSON_DESCENDANTS,
+				PERSON_DESCENDANTS_BY_DEPTH,
 				SEARCH_RESULTS,
-				PERSONS_BY_LEVEL
+				PERSONS_BY_LEVEL,
+				TREE_OVERVIEW
 		);
 
 		// Set default cache configuration
@@ -104,6 +108,20 @@ public class CacheConfig {
 				.recordStats();
 	}
 
+	/**
+	 * Cache configuration for depth-limited descendants
+	 * - 5 minutes TTL
+	 * - 500 entries max (keyed by id and depth)
+	 * - High hit rate expected for progressive loading
+	 */
+	@Bean
+	public Caffeine<Object, Object> personDescendantsByDepthCache() {
+		return Caffeine.newBuilder()
+				.expireAfterWrite(5, TimeUnit.MINUTES)
+				.maximumSize(500)
+				.recordStats();
+	}
+
 	/**
 	 * Cache configuration for search results
 	 * - 2 minutes TTL (search results can be more volatile)
@@ -131,4 +149,18 @@ public class CacheConfig {
 				.maximumSize(50)
 				.recordStats();
 	}
+
+	/**
+	 * Cache configuration for the collapsed overview tree
+	 * - 10 minutes TTL
+	 * - 20 entries max (keyed by tree version and collapse limits, so older versions age out)
+	 * - High hit rate expected while zoomed out
+	 */
+	@Bean
+	public Caffeine<Object, Object> treeOverviewCache() {
+		return Caffeine.newBuilder()
+				.expireAfterWrite(10, TimeUnit.MINUTES)
+				.maximumSize(20)
+				.recordStats();
+	}
 }
@@ -31,6 +31,8 @@ public class CorsConfig {
 				"Origin",
 				"Content-Type",
 				"Accept",
+				"Accept-Encoding",
+				"If-None-Match",
 				"Authorization",
 				"Access-Control-Request-Method",
 				"Access-Control-Request-Headers"
@@ -49,7 +51,8 @@ public class CorsConfig {
 		// Expose headers
 		config.setExposedHeaders(Arrays.asList(
 				"Access-Control-Allow-Origin",
-				"Access-Control-Allow-Credentials"
+				"Access-Control-Allow-Credentials",
+				"ETag"
 		));
 
 		source.registerCorsConfiguration("/**", config);
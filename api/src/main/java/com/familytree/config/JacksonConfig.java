@@ -2,10 +2,14 @@ package com.familytree.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 /**
  * Jackson configuration for JSON serialization/deserialization
@@ -13,6 +17,8 @@ import org.springframework.context.annotation.Primary;
 @Configuration
 public class JacksonConfig {
 
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
 	@Bean
 	@Primary
 	public ObjectMapper objectMapper() {
@@ -29,4 +35,26 @@ public class JacksonConfig {
 
 		return mapper;
 	}
+
+	/**
+	 * Binary CBOR (application/cbor) for internal consumers, same DTO mapping as JSON
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+		CBORMapper mapper = new CBORMapper();
+		mapper.registerModule(new JavaTimeModule());
+		mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		return new MappingJackson2CborHttpMessageConverter(mapper);
+	}
+
+	/**
+	 * Binary Smile (application/x-jackson-smile) for internal consumers, same DTO mapping as JSON
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+		SmileMapper mapper = new SmileMapper();
+		mapper.registerModule(new JavaTimeModule());
+		mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		return new MappingJackson2SmileHttpMessageConverter(mapper);
+	}
 }
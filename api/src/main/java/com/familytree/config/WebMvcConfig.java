@@ -1,5 +1,6 @@
 package com.familytree.config;
 
+import com.familytree.interceptor.ConditionalGetInterceptor;
 import com.familytree.interceptor.RequestTimingInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -14,11 +15,16 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebMvcConfig implements WebMvcConfigurer {
 
 	private final RequestTimingInterceptor requestTimingInterceptor;
+	private final ConditionalGetInterceptor conditionalGetInterceptor;
 
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		// Register timing interceptor for all API endpoints
 		registry.addInterceptor(requestTimingInterceptor)
 				.addPathPatterns("/api/**");
+
+		// Answer If-None-Match on tree reads from the tree version
+		registry.addInterceptor(conditionalGetInterceptor)
+				.addPathPatterns("/api/family-tree/**");
 	}
 }
@@ -1,12 +1,35 @@
 package com.familytree.controller;
 
+import com.familytree.cache.EncodedResponse;
+import com.familytree.cache.EncodedTreeCache;
+import com.familytree.config.JacksonConfig;
 import com.familytree.dto.ApiResponse;
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.FacetSearchResponse;
+import com.familytree.dto.FlatTreeResponse;
+import com.familytree.dto.NameSuggestion;
 import com.familytree.dto.PersonDetailsRequest;
 import com.familytree.dto.PersonDetailsResponse;
 import com.familytree.dto.PersonPatchRequest;
 import com.familytree.dto.PersonRequest;
 import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.dto.TimelineResponse;
+import com.familytree.dto.TreeLayoutResponse;
+import com.familytree.dto.TreeOverviewResponse;
+import com.familytree.dto.ViewportResponse;
+import com.familytree.layout.TreeLayoutEngine;
+import com.familytree.layout.ViewportIndex;
+import com.familytree.model.Facet;
 import com.familytree.service.FamilyTreeService;
+import com.familytree.sync.ChangeBroadcaster;
+import com.familytree.util.FieldProjection;
+import com.familytree.util.FlatTreeEncoder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,11 +39,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for Family Tree API
@@ -36,26 +66,193 @@ import java.util.List;
 @Tag(name = "Family Tree", description = "Family Tree Management API")
 public class FamilyTreeController {
 
+	private static final int NDJSON_EARLY_FLUSH = 64;
+
 	private final FamilyTreeService familyTreeService;
+	private final ObjectMapper objectMapper;
+	private final EncodedTreeCache encodedTreeCache;
+	private final ChangeBroadcaster changeBroadcaster;
+	private final TreeLayoutEngine treeLayoutEngine;
+	private final ViewportIndex viewportIndex;
 
 	@GetMapping
 	@Operation(
 			summary = "Get complete family tree",
-			description = "Retrieves the entire family tree structure starting from the root node"
+			description = "Retrieves the entire family tree structure starting from the root node. " +
+					"The response is served pre-serialized (gzip/deflate per Accept-Encoding) with an ETag. " +
+					"With fields, only those fields are returned and nodes without childs have no children."
 	)
 	@ApiResponses(value = {
 			@io.swagger.v3.oas.annotations.responses.ApiResponse(
 					responseCode = "200",
 					description = "Successfully retrieved family tree",
 					content = @Content(schema = @Schema(implementation = PersonResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "304",
+					description = "Family tree not modified since the ETag in If-None-Match"
+			)
+	})
+	public ResponseEntity<?> getFullTree(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree?fields={} - Get full tree", fields);
+		FieldProjection projection = FieldProjection.parse(fields);
+		if (!projection.isAll()) {
+			PersonResponse tree = familyTreeService.getFullTree(projection);
+			return ResponseEntity.ok(ApiResponse.success("Family tree retrieved successfully", tree));
+		}
+
+		EncodedResponse encoded = encodedTreeCache.getFullTree();
+
+		// Pre-serialized and pre-compressed bytes are written as-is
+		String coding = EncodedResponse.negotiate(acceptEncoding);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(encoded.getEtag())
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (coding != null) {
+			response.header(HttpHeaders.CONTENT_ENCODING, coding);
+		}
+		return response.body(encoded.body(coding));
+	}
+
+	@GetMapping(produces = {MediaType.APPLICATION_CBOR_VALUE, JacksonConfig.APPLICATION_SMILE_VALUE})
+	@Operation(
+			summary = "Get complete family tree (binary)",
+			description = "Retrieves the entire family tree encoded as CBOR or Smile, selected with the Accept header. " +
+					"Same structure as the JSON response, for internal consumers."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved family tree",
+					content = {
+							@Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+									schema = @Schema(implementation = PersonResponse.class)),
+							@Content(mediaType = JacksonConfig.APPLICATION_SMILE_VALUE,
+									schema = @Schema(implementation = PersonResponse.class))
+					}
 			)
 	})
-	public ResponseEntity<ApiResponse<PersonResponse>> getFullTree() {
-		log.info("GET /api/family-tree - Get full tree");
-		PersonResponse tree = familyTreeService.getFullTree();
+	public ResponseEntity<ApiResponse<PersonResponse>> getFullTreeBinary(
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree (binary) - Get full tree");
+		PersonResponse tree = familyTreeService.getFullTree(FieldProjection.parse(fields));
 		return ResponseEntity.ok(ApiResponse.success("Family tree retrieved successfully", tree));
 	}
 
+	@GetMapping(params = "format=flat")
+	@Operation(
+			summary = "Get complete family tree (flat)",
+			description = "Retrieves the entire family tree as parallel arrays in pre-order with parentIndex " +
+					"links and dictionary-encoded repeated strings, a fraction of the nested payload"
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved family tree",
+					content = @Content(schema = @Schema(implementation = FlatTreeResponse.class))
+			)
+	})
+	public ResponseEntity<ApiResponse<FlatTreeResponse>> getFullTreeFlat() {
+		log.info("GET /api/family-tree?format=flat - Get full tree (flat)");
+		FlatTreeResponse tree = familyTreeService.getFullTreeFlat();
+		return ResponseEntity.ok(ApiResponse.success("Family tree retrieved successfully", tree));
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@Operation(
+			summary = "Stream complete family tree",
+			description = "Streams the entire family tree as newline-delimited JSON, one flat record " +
+					"(person with parentId) per line in pre-order. Selected with Accept: application/x-ndjson."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Streaming family tree",
+					content = @Content(
+							mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+							schema = @Schema(implementation = PersonTreeRow.class))
+			)
+	})
+	public ResponseEntity<StreamingResponseBody> streamFullTree() {
+		log.info("GET /api/family-tree (NDJSON) - Stream full tree");
+		Stream<PersonTreeRow> rows = familyTreeService.streamFullTree();
+		ObjectWriter writer = objectMapper.writerFor(PersonTreeRow.class)
+				.without(SerializationFeature.INDENT_OUTPUT)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+		StreamingResponseBody body = outputStream -> {
+			try (rows) {
+				int written = 0;
+				for (PersonTreeRow row : (Iterable<PersonTreeRow>) rows::iterator) {
+					writer.writeValue(outputStream, row);
+					outputStream.write('\n');
+					// Flush the first records early to keep time-to-first-byte low
+					if (++written == NDJSON_EARLY_FLUSH) {
+						outputStream.flush();
+					}
+				}
+				outputStream.flush();
+			}
+		};
+
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
+	@GetMapping("/batch")
+	@Operation(
+			summary = "Get several persons by ID",
+			description = "Retrieves up to 500 persons with their immediate children in one request, " +
+					"in the order of the IDs given. Unknown IDs are left out."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved persons"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "No IDs or too many IDs given"
+			)
+	})
+	public ResponseEntity<ApiResponse<List<PersonResponse>>> getPersonsByIds(
+			@Parameter(description = "Comma-separated person IDs", example = "gen5-001,gen5-002")
+			@RequestParam List<String> ids) {
+		log.info("GET /api/family-tree/batch - Get {} persons by ID", ids.size());
+		List<PersonResponse> persons = familyTreeService.getPersonsByIds(ids);
+		return ResponseEntity.ok(ApiResponse.success("Persons retrieved successfully", persons));
+	}
+
+	@PostMapping("/batch")
+	@Operation(
+			summary = "Get several persons by ID (POST)",
+			description = "Same as GET /batch with the IDs as a JSON array in the request body, " +
+					"for ID lists too long for a URL"
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved persons"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "No IDs or too many IDs given"
+			)
+	})
+	public ResponseEntity<ApiResponse<List<PersonResponse>>> postPersonsByIds(
+			@RequestBody List<String> ids) {
+		log.info("POST /api/family-tree/batch - Get {} persons by ID", ids.size());
+		List<PersonResponse> persons = familyTreeService.getPersonsByIds(ids);
+		return ResponseEntity.ok(ApiResponse.success("Persons retrieved successfully", persons));
+	}
+
 	@GetMapping("/{id}")
 	@Operation(
 			summary = "Get person by ID",
@@ -83,7 +280,10 @@ public class FamilyTreeController {
 	@GetMapping("/{id}/descendants")
 	@Operation(
 			summary = "Get person with all descendants",
-			description = "Retrieves a person with their complete subtree of descendants"
+			description = "Retrieves a person with their subtree of descendants. " +
+					"When depth is given, only that many generations are returned and nodes at the cutoff " +
+					"carry hasMoreChildren and childCount. When maxNodes is given, the subtree is expanded " +
+					"breadth-first up to that many nodes and unexpanded nodes carry a continuationToken."
 	)
 	@ApiResponses(value = {
 			@io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -98,12 +298,83 @@ public class FamilyTreeController {
 	})
 	public ResponseEntity<ApiResponse<PersonResponse>> getPersonWithDescendants(
 			@Parameter(description = "Person ID", example = "gen5-001")
-			@PathVariable String id) {
-		log.info("GET /api/family-tree/{}/descendants - Get person with descendants", id);
-		PersonResponse person = familyTreeService.getPersonWithAllDescendants(id);
+			@PathVariable String id,
+			@Parameter(description = "Maximum number of generations below the person", example = "3")
+			@RequestParam(required = false) Integer depth,
+			@Parameter(description = "Maximum number of nodes in the response", example = "2000")
+			@RequestParam(required = false) Integer maxNodes,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/{}/descendants?depth={}&maxNodes={} - Get person with descendants", id, depth, maxNodes);
+		PersonResponse person = loadDescendants(id, depth, maxNodes, FieldProjection.parse(fields));
 		return ResponseEntity.ok(ApiResponse.success("Person with descendants retrieved successfully", person));
 	}
 
+	@GetMapping(value = "/{id}/descendants", params = "format=flat")
+	@Operation(
+			summary = "Get person with descendants (flat)",
+			description = "Same as the descendants endpoint, encoded as parallel arrays in pre-order " +
+					"with parentIndex links and dictionary-encoded repeated strings"
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved person with descendants",
+					content = @Content(schema = @Schema(implementation = FlatTreeResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "404",
+					description = "Person not found"
+			)
+	})
+	public ResponseEntity<ApiResponse<FlatTreeResponse>> getPersonWithDescendantsFlat(
+			@Parameter(description = "Person ID", example = "gen5-001")
+			@PathVariable String id,
+			@Parameter(description = "Maximum number of generations below the person", example = "3")
+			@RequestParam(required = false) Integer depth,
+			@Parameter(description = "Maximum number of nodes in the response", example = "2000")
+			@RequestParam(required = false) Integer maxNodes) {
+		log.info("GET /api/family-tree/{}/descendants?format=flat - Get person with descendants (flat)", id);
+		FlatTreeResponse tree = FlatTreeEncoder.encode(loadDescendants(id, depth, maxNodes, FieldProjection.ALL));
+		return ResponseEntity.ok(ApiResponse.success("Person with descendants retrieved successfully", tree));
+	}
+
+	@GetMapping("/descendants/continue")
+	@Operation(
+			summary = "Continue a paged subtree",
+			description = "Returns the remaining children of a node from a continuationToken, " +
+					"expanded breadth-first up to maxNodes nodes"
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved next page of descendants",
+					content = @Content(schema = @Schema(implementation = PersonResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid continuation token"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "404",
+					description = "Person not found"
+			)
+	})
+	public ResponseEntity<ApiResponse<PersonResponse>> continueDescendants(
+			@Parameter(description = "Continuation token from a previous page")
+			@RequestParam String token,
+			@Parameter(description = "Maximum number of nodes in the response", example = "2000")
+			@RequestParam(defaultValue = "2000") int maxNodes,
+			@Parameter(description = "Maximum number of generations below the continued node", example = "3")
+			@RequestParam(required = false) Integer depth,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/descendants/continue?maxNodes={} - Continue paged descendants", maxNodes);
+		PersonResponse person = familyTreeService.continueDescendantsPage(token, maxNodes, depth,
+				FieldProjection.parse(fields));
+		return ResponseEntity.ok(ApiResponse.success("Next page of descendants retrieved successfully", person));
+	}
+
 	@PostMapping
 	@Operation(
 			summary = "Create new person",
@@ -188,22 +459,211 @@ public class FamilyTreeController {
 	@GetMapping("/search")
 	@Operation(
 			summary = "Search persons by name",
-			description = "Searches for persons whose name contains the search term (case-insensitive)"
+			description = "Searches for persons whose name contains the search term (case-insensitive), " +
+					"ordered by name. With full-text search enabled, matches whole words or word prefixes in " +
+					"names and details (full name, nickname, profession, place of birth), most relevant first. " +
+					"Results are paged with offset and limit. " +
+					"Also served as CBOR or Smile when requested in the Accept header."
 	)
 	@ApiResponses(value = {
 			@io.swagger.v3.oas.annotations.responses.ApiResponse(
 					responseCode = "200",
 					description = "Search completed successfully"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid offset, limit or field name"
 			)
 	})
 	public ResponseEntity<ApiResponse<List<PersonResponse>>> searchByName(
 			@Parameter(description = "Search term", example = "Muhammad")
-			@RequestParam String name) {
-		log.info("GET /api/family-tree/search?name={} - Search by name", name);
-		List<PersonResponse> persons = familyTreeService.searchByName(name);
+			@RequestParam String name,
+			@Parameter(description = "Number of results to skip", example = "0")
+			@RequestParam(defaultValue = "0") int offset,
+			@Parameter(description = "Maximum number of results (at most 1000)", example = "100")
+			@RequestParam(defaultValue = "${app.search.default-limit:100}") int limit,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/search?name={}&offset={}&limit={} - Search by name", name, offset, limit);
+		List<PersonResponse> persons = familyTreeService.searchByName(name, offset, limit, FieldProjection.parse(fields));
 		return ResponseEntity.ok(ApiResponse.success("Search completed successfully", persons));
 	}
 
+	@GetMapping("/search/fuzzy")
+	@Operation(
+			summary = "Search persons by name, tolerating spelling variants",
+			description = "Matches names whose words are within a few edits of every word of the search term after " +
+					"folding common romanization variants (Chowdhury, Chowdhuri and Choudhury match exactly). " +
+					"Ordered by edit distance, then name. Results are paged with offset and limit. " +
+					"Needs the tree snapshot. " +
+					"Also served as CBOR or Smile when requested in the Accept header."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Search completed successfully"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid maxDistance, offset, limit or field name"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "503",
+					description = "Tree snapshot disabled"
+			)
+	})
+	public ResponseEntity<ApiResponse<List<PersonResponse>>> searchFuzzy(
+			@Parameter(description = "Search term", example = "Choudhury")
+			@RequestParam String name,
+			@Parameter(description = "Edits allowed per word (0-3); words up to four letters allow at most one", example = "2")
+			@RequestParam(defaultValue = "2") int maxDistance,
+			@Parameter(description = "Number of results to skip", example = "0")
+			@RequestParam(defaultValue = "0") int offset,
+			@Parameter(description = "Maximum number of results (at most 1000)", example = "100")
+			@RequestParam(defaultValue = "${app.search.default-limit:100}") int limit,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/search/fuzzy?name={}&maxDistance={} - Fuzzy search by name", name, maxDistance);
+		List<PersonResponse> persons = familyTreeService.searchFuzzy(name, maxDistance, offset, limit,
+				FieldProjection.parse(fields));
+		return ResponseEntity.ok(ApiResponse.success("Search completed successfully", persons));
+	}
+
+	@GetMapping("/suggest")
+	@Operation(
+			summary = "Suggest name completions",
+			description = "Completes the last word of a typed name prefix from the words of all names, most " +
+					"frequent first. Served from an index kept up to date on every write, so it is cheap " +
+					"enough to call on each keystroke. Needs the tree snapshot."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Suggestions retrieved successfully"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid limit"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "503",
+					description = "Tree snapshot disabled"
+			)
+	})
+	public ResponseEntity<ApiResponse<List<NameSuggestion>>> suggest(
+			@Parameter(description = "Typed text; its last word is completed", example = "Abdul Ka")
+			@RequestParam String prefix,
+			@Parameter(description = "Maximum number of suggestions (at most 10)", example = "10")
+			@RequestParam(defaultValue = "10") int limit) {
+		log.debug("GET /api/family-tree/suggest?prefix={} - Suggest names", prefix);
+		List<NameSuggestion> suggestions = familyTreeService.suggest(prefix, limit);
+		return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved successfully", suggestions));
+	}
+
+	@GetMapping("/facets")
+	@Operation(
+			summary = "Search persons by attributes with facet counts",
+			description = "Filters persons by address, place of birth, place of death, profession and institution " +
+					"(ignoring case) and returns, in one response, the number of matches, the most frequent " +
+					"values of every facet among them and one page of matching persons ordered by name. " +
+					"Filters on different attributes must all match; a repeated parameter matches any of its values. " +
+					"Without filters the counts cover everyone. Needs the tree snapshot."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Search completed successfully"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid offset, limit, facetLimit or field name"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "503",
+					description = "Tree snapshot disabled"
+			)
+	})
+	public ResponseEntity<ApiResponse<FacetSearchResponse>> searchFacets(
+			@Parameter(description = "Address values to match", example = "Amtoli")
+			@RequestParam(required = false) List<String> address,
+			@Parameter(description = "Place of birth values to match", example = "Foridpur")
+			@RequestParam(required = false) List<String> placeOfBirth,
+			@Parameter(description = "Place of death values to match")
+			@RequestParam(required = false) List<String> placeOfDeath,
+			@Parameter(description = "Profession values to match", example = "Doctor")
+			@RequestParam(required = false) List<String> profession,
+			@Parameter(description = "Institution values to match")
+			@RequestParam(required = false) List<String> institution,
+			@Parameter(description = "Number of persons to skip", example = "0")
+			@RequestParam(defaultValue = "0") int offset,
+			@Parameter(description = "Maximum number of persons (at most 1000)", example = "100")
+			@RequestParam(defaultValue = "${app.search.default-limit:100}") int limit,
+			@Parameter(description = "Number of values reported per facet (at most 100)", example = "20")
+			@RequestParam(defaultValue = "20") int facetLimit,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name")
+			@RequestParam(required = false) String fields) {
+		Map<Facet, List<String>> filters = new EnumMap<>(Facet.class);
+		putFilter(filters, Facet.ADDRESS, address);
+		putFilter(filters, Facet.PLACE_OF_BIRTH, placeOfBirth);
+		putFilter(filters, Facet.PLACE_OF_DEATH, placeOfDeath);
+		putFilter(filters, Facet.PROFESSION, profession);
+		putFilter(filters, Facet.INSTITUTION, institution);
+		log.info("GET /api/family-tree/facets {} - Faceted search", filters);
+		FacetSearchResponse response = familyTreeService.searchFacets(filters, offset, limit, facetLimit,
+				FieldProjection.parse(fields));
+		return ResponseEntity.ok(ApiResponse.success("Search completed successfully", response));
+	}
+
+	@GetMapping("/timeline")
+	@Operation(
+			summary = "Get persons born or died within a date range",
+			description = "Returns persons whose date of birth and date of death fall within the given inclusive " +
+					"bounds, ordered by date of birth (by date of death when only death bounds are given). " +
+					"Bounds are a year (1900) or a date (1900-05-01); at least one is required. " +
+					"Optionally limited to the subtree of rootId. Served from sorted date indexes in the tree snapshot."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Timeline retrieved successfully"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Missing or invalid date bounds, offset, limit or field name"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "404",
+					description = "Subtree root not found"
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "503",
+					description = "Tree snapshot disabled"
+			)
+	})
+	public ResponseEntity<ApiResponse<TimelineResponse>> getTimeline(
+			@Parameter(description = "Earliest date of birth", example = "1900")
+			@RequestParam(required = false) String bornFrom,
+			@Parameter(description = "Latest date of birth", example = "1950")
+			@RequestParam(required = false) String bornTo,
+			@Parameter(description = "Earliest date of death")
+			@RequestParam(required = false) String diedFrom,
+			@Parameter(description = "Latest date of death")
+			@RequestParam(required = false) String diedTo,
+			@Parameter(description = "Limit to this person and its descendants", example = "gen5-001")
+			@RequestParam(required = false) String rootId,
+			@Parameter(description = "Number of persons to skip", example = "0")
+			@RequestParam(defaultValue = "0") int offset,
+			@Parameter(description = "Maximum number of persons (at most 1000)", example = "100")
+			@RequestParam(defaultValue = "${app.search.default-limit:100}") int limit,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/timeline?bornFrom={}&bornTo={}&diedFrom={}&diedTo={}&rootId={} - Get timeline",
+				bornFrom, bornTo, diedFrom, diedTo, rootId);
+		TimelineResponse timeline = familyTreeService.getTimeline(bornFrom, bornTo, diedFrom, diedTo, rootId,
+				offset, limit, FieldProjection.parse(fields));
+		return ResponseEntity.ok(ApiResponse.success("Timeline retrieved successfully", timeline));
+	}
+
 	@GetMapping("/level/{level}")
 	@Operation(
 			summary = "Get persons by generation level",
@@ -217,12 +677,105 @@ public class FamilyTreeController {
 	})
 	public ResponseEntity<ApiResponse<List<PersonResponse>>> getPersonsByLevel(
 			@Parameter(description = "Generation level", example = "5")
-			@PathVariable Integer level) {
+			@PathVariable Integer level,
+			@Parameter(description = "Comma-separated response fields; id is always included", example = "id,name,childs")
+			@RequestParam(required = false) String fields) {
 		log.info("GET /api/family-tree/level/{} - Get persons by level", level);
-		List<PersonResponse> persons = familyTreeService.getPersonsByLevel(level);
+		List<PersonResponse> persons = familyTreeService.getPersonsByLevel(level, FieldProjection.parse(fields));
 		return ResponseEntity.ok(ApiResponse.success("Persons at level " + level + " retrieved successfully", persons));
 	}
 
+	@GetMapping("/layout")
+	@Operation(
+			summary = "Get tree layout",
+			description = "Returns canvas positions for every node of the tree, computed on the server with " +
+					"a Reingold-Tilford layout for the current tree version. Stored positions are kept and " +
+					"computed descendants move along with them. Only the part of the tree affected by a " +
+					"change is laid out again."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully computed tree layout",
+					content = @Content(schema = @Schema(implementation = TreeLayoutResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "304",
+					description = "Layout not modified since the ETag in If-None-Match"
+			)
+	})
+	public ResponseEntity<ApiResponse<TreeLayoutResponse>> getLayout() {
+		log.info("GET /api/family-tree/layout - Get tree layout");
+		TreeLayoutResponse layout = treeLayoutEngine.getLayout();
+		return ResponseEntity.ok(ApiResponse.success("Tree layout computed successfully", layout));
+	}
+
+	@GetMapping("/overview")
+	@Operation(
+			summary = "Get collapsed overview tree",
+			description = "Returns the tree for zoomed-out views with small or deep branches collapsed into " +
+					"summary nodes carrying their descendant count, generation span and the name of the branch " +
+					"head. The largest branches are expanded first and the result never exceeds maxNodes nodes. " +
+					"Overviews are cached per tree version."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully built overview",
+					content = @Content(schema = @Schema(implementation = TreeOverviewResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid collapse limits"
+			)
+	})
+	public ResponseEntity<ApiResponse<TreeOverviewResponse>> getOverview(
+			@Parameter(description = "Branches with fewer persons are collapsed", example = "50")
+			@RequestParam(defaultValue = "${app.tree.overview.min-branch-size:50}") int minBranchSize,
+			@Parameter(description = "Branches starting this many generations below the root are collapsed", example = "6")
+			@RequestParam(defaultValue = "${app.tree.overview.max-depth:6}") int maxDepth,
+			@Parameter(description = "Maximum number of nodes in the overview", example = "500")
+			@RequestParam(defaultValue = "${app.tree.overview.max-nodes:500}") int maxNodes) {
+		log.info("GET /api/family-tree/overview?minBranchSize={}&maxDepth={}&maxNodes={} - Get overview tree",
+				minBranchSize, maxDepth, maxNodes);
+		TreeOverviewResponse overview = familyTreeService.getOverview(minBranchSize, maxDepth, maxNodes);
+		return ResponseEntity.ok(ApiResponse.success("Overview tree retrieved successfully", overview));
+	}
+
+	@GetMapping("/viewport")
+	@Operation(
+			summary = "Get persons in a viewport",
+			description = "Returns only the persons whose layout positions fall inside the given canvas " +
+					"rectangle, plus the parent-child edges with at least one end inside it. Positions come " +
+					"from the server layout and are looked up in a grid index kept current with the tree version."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved viewport",
+					content = @Content(schema = @Schema(implementation = ViewportResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "400",
+					description = "Invalid rectangle or field name"
+			)
+	})
+	public ResponseEntity<ApiResponse<ViewportResponse>> getViewport(
+			@Parameter(description = "Left edge of the rectangle", example = "0")
+			@RequestParam double minX,
+			@Parameter(description = "Top edge of the rectangle", example = "0")
+			@RequestParam double minY,
+			@Parameter(description = "Right edge of the rectangle", example = "1920")
+			@RequestParam double maxX,
+			@Parameter(description = "Bottom edge of the rectangle", example = "1080")
+			@RequestParam double maxY,
+			@Parameter(description = "Comma-separated person fields; id is always included", example = "id,name,gender")
+			@RequestParam(required = false) String fields) {
+		log.info("GET /api/family-tree/viewport - Get persons in [{}, {}] - [{}, {}]", minX, minY, maxX, maxY);
+		ViewportResponse viewport = viewportIndex.query(minX, minY, maxX, maxY, FieldProjection.parse(fields));
+		return ResponseEntity.ok(ApiResponse.success("Viewport retrieved successfully", viewport));
+	}
+
 	@GetMapping("/count")
 	@Operation(
 			summary = "Get total count",
@@ -240,6 +793,73 @@ public class FamilyTreeController {
 		return ResponseEntity.ok(ApiResponse.success("Total count retrieved successfully", count));
 	}
 
+	@GetMapping("/{id}/stats")
+	@Operation(
+			summary = "Get subtree aggregates",
+			description = "Returns the number of children and descendants, the subtree depth and the " +
+					"descendants per gender of a person, to decide whether to expand a node"
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved subtree aggregates",
+					content = @Content(schema = @Schema(implementation = SubtreeStatsResponse.class))
+			),
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "404",
+					description = "Person not found"
+			)
+	})
+	public ResponseEntity<ApiResponse<SubtreeStatsResponse>> getSubtreeStats(
+			@Parameter(description = "Person ID", example = "gen5-001")
+			@PathVariable String id) {
+		log.info("GET /api/family-tree/{}/stats - Get subtree aggregates", id);
+		SubtreeStatsResponse stats = familyTreeService.getSubtreeStats(id);
+		return ResponseEntity.ok(ApiResponse.success("Subtree aggregates retrieved successfully", stats));
+	}
+
+	@GetMapping("/changes")
+	@Operation(
+			summary = "Get changes since a version",
+			description = "Returns the persons created, updated, moved or deleted after the given tree version. " +
+					"The current version is the ETag of GET /api/family-tree. When the change log no longer " +
+					"reaches back to that version, resyncRequired is set and the full tree must be refetched."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Successfully retrieved changes",
+					content = @Content(schema = @Schema(implementation = ChangesResponse.class))
+			)
+	})
+	public ResponseEntity<ApiResponse<ChangesResponse>> getChangesSince(
+			@Parameter(description = "Tree version the client already has", example = "42")
+			@RequestParam long since) {
+		log.info("GET /api/family-tree/changes?since={} - Get changes", since);
+		ChangesResponse changes = familyTreeService.getChangesSince(since);
+		return ResponseEntity.ok(ApiResponse.success("Changes retrieved successfully", changes));
+	}
+
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(
+			summary = "Subscribe to tree changes",
+			description = "Server-Sent Events stream of committed changes. Each \"changes\" event carries a batch " +
+					"of changes and has the tree version as its id; reconnecting with Last-Event-ID replays what was " +
+					"missed. A \"resync\" event means the client must refetch the full tree."
+	)
+	@ApiResponses(value = {
+			@io.swagger.v3.oas.annotations.responses.ApiResponse(
+					responseCode = "200",
+					description = "Event stream opened"
+			)
+	})
+	public SseEmitter subscribeToChanges(
+			@Parameter(description = "Version of the last event received, sent by EventSource on reconnect")
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		log.info("GET /api/family-tree/events - Subscribe (Last-Event-ID={})", lastEventId);
+		return changeBroadcaster.subscribe(lastEventId);
+	}
+
 	@PostMapping("/reload-data")
 	@Operation(
 			summary = "Reload data from JSON",
@@ -350,4 +970,26 @@ public class FamilyTreeController {
 		familyTreeService.deletePersonDetails(personId);
 		return ResponseEntity.ok(ApiResponse.success("Person details deleted successfully", null));
 	}
+
+	/**
+	 * Add the values of one facet to the filters unless the parameter is absent
+	 */
+	private static void putFilter(Map<Facet, List<String>> filters, Facet facet, List<String> values) {
+		if (values != null && !values.isEmpty()) {
+			filters.put(facet, values);
+		}
+	}
+
+	/**
+	 * Load a subtree as paged, depth-limited or complete depending on the parameters
+	 */
+	private PersonResponse loadDescendants(String id, Integer depth, Integer maxNodes, FieldProjection fields) {
+		if (maxNodes != null) {
+			return familyTreeService.getPersonWithDescendantsPage(id, maxNodes, depth, fields);
+		}
+		if (depth != null) {
+			return familyTreeService.getPersonWithDescendants(id, depth, fields);
+		}
+		return familyTreeService.getPersonWithAllDescendants(id, fields);
+	}
 }
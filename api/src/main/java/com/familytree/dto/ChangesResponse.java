@@ -0,0 +1,33 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes to the family tree after a given version
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Changes to the family tree after a given version")
+public class ChangesResponse {
+
+	@Schema(description = "Version the changes were requested since", example = "40")
+	private long since;
+
+	@Schema(description = "Version the client is at after applying the changes", example = "42")
+	private long version;
+
+	@Schema(description = "True when the change log no longer reaches back to 'since' and the full tree must be refetched",
+			example = "false")
+	private boolean resyncRequired;
+
+	@Schema(description = "Changes in commit order")
+	private List<PersonChange> changes;
+}
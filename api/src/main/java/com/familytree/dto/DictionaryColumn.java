@@ -0,0 +1,26 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A dictionary-encoded string column: each distinct value is sent once
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Dictionary-encoded string column")
+public class DictionaryColumn {
+
+	@Schema(description = "Distinct values")
+	private List<String> values;
+
+	@Schema(description = "Per-node index into values, -1 for null")
+	private int[] codes;
+}
@@ -0,0 +1,24 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A facet value and the number of matching persons holding it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A facet value and the number of matching persons holding it")
+public class FacetCount {
+
+	@Schema(description = "Facet value as first spelled", example = "Foridpur")
+	private String value;
+
+	@Schema(description = "Number of matching persons with this value", example = "42")
+	private int count;
+}
@@ -0,0 +1,31 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persons matching facet filters, one page of them, with the value counts of every facet
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Persons matching facet filters with the value counts of every facet")
+public class FacetSearchResponse {
+
+	@Schema(description = "Number of matching persons", example = "128")
+	private int total;
+
+	@Schema(description = "Most frequent values per facet among the matching persons",
+			example = "{\"profession\": [{\"value\": \"Doctor\", \"count\": 12}]}")
+	private Map<String, List<FacetCount>> facets;
+
+	@Schema(description = "One page of matching persons, ordered by name (without children)")
+	private List<PersonResponse> persons;
+}
@@ -0,0 +1,72 @@
+package com.familytree.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Columnar representation of a tree: one entry per node in every array,
+ * nodes in pre-order so a parent always precedes its children
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Columnar tree: parallel arrays indexed by node, in pre-order")
+public class FlatTreeResponse {
+
+	@Schema(description = "Number of nodes", example = "3")
+	private int size;
+
+	@Schema(description = "Person IDs")
+	private String[] ids;
+
+	@Schema(description = "Index of each node's parent, -1 for the root")
+	private int[] parentIndex;
+
+	@Schema(description = "Names")
+	private String[] names;
+
+	@Schema(description = "Generation levels")
+	private Integer[] levels;
+
+	@Schema(description = "Genders")
+	private DictionaryColumn genders;
+
+	@Schema(description = "Canvas X positions")
+	private Double[] positionX;
+
+	@Schema(description = "Canvas Y positions")
+	private Double[] positionY;
+
+	@Schema(description = "Position lock flags")
+	private Boolean[] positionLocked;
+
+	@Schema(description = "Addresses")
+	private DictionaryColumn addresses;
+
+	@Schema(description = "Avatar filenames")
+	private DictionaryColumn avatars;
+
+	@Schema(description = "Family signatures")
+	private DictionaryColumn signatures;
+
+	@Schema(description = "Signature IDs")
+	private String[] signatureIds;
+
+	@Schema(description = "Spouses")
+	private String[] spouses;
+
+	@Schema(description = "Contributor IDs")
+	private DictionaryColumn contributorIds;
+
+	@Schema(description = "Direct child counts of nodes whose children were cut off; absent when none were")
+	private Integer[] childCounts;
+
+	@Schema(description = "Continuation tokens of paged nodes; absent when none are paged")
+	private String[] continuationTokens;
+}
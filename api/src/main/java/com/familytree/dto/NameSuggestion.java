@@ -0,0 +1,24 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A completion of the name prefix typed into the search box
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A completion of a typed name prefix")
+public class NameSuggestion {
+
+	@Schema(description = "Typed text with its last word completed", example = "Muhammad Golap")
+	private String text;
+
+	@Schema(description = "Number of persons whose name contains the completed word", example = "12")
+	private int count;
+}
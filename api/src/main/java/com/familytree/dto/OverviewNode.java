@@ -0,0 +1,43 @@
+package com.familytree.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A person in the overview tree, or a summary of a collapsed branch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "A person in the overview tree, or a summary of a collapsed branch")
+public class OverviewNode {
+
+	@Schema(description = "ID of the person, or of the head of the collapsed branch", example = "gen5-001")
+	private String id;
+
+	@Schema(description = "Name of the person, or a representative name for the collapsed branch", example = "Nguyễn Văn A")
+	private String name;
+
+	@Schema(description = "Generation level of the person or branch head", example = "5")
+	private Integer level;
+
+	@Schema(description = "Whether this node summarizes a whole branch")
+	private boolean collapsed;
+
+	@Schema(description = "Number of descendants below this node", example = "120")
+	private int descendantCount;
+
+	@Schema(description = "Deepest generation level in this node's subtree", example = "9")
+	private Integer maxLevel;
+
+	@Schema(description = "Expanded children; absent for collapsed branches and leaves")
+	private List<OverviewNode> childs;
+}
@@ -0,0 +1,43 @@
+package com.familytree.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single committed mutation of the family tree
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "A committed change to the family tree")
+public class PersonChange {
+
+	public enum Type {
+		CREATED,
+		UPDATED,
+		POSITION_CHANGED,
+		MOVED,
+		DELETED,
+		DETAILS_CHANGED,
+		POSITIONS_RESET
+	}
+
+	@Schema(description = "Tree version produced by this change", example = "42")
+	private long version;
+
+	@Schema(description = "Kind of change", example = "UPDATED")
+	private Type type;
+
+	@Schema(description = "ID of the affected person; absent for tree-wide changes", example = "gen9-001")
+	private String personId;
+
+	@Schema(description = "Person state after the change; parentId is set for CREATED and MOVED, " +
+			"and POSITION_CHANGED carries only the position")
+	private PersonTreeRow person;
+}
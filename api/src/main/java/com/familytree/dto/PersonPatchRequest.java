@@ -33,6 +33,9 @@ public class PersonPatchRequest {
 	@Schema(description = "Updated spouse information", example = "Mrs Fatima Begum (Updated)")
 	private String spouse;
 
+	@Schema(description = "New parent ID; moves the person and its subtree under that parent", example = "gen8-002")
+	private String parentId;
+
 	@Schema(description = "Updated canvas X position", example = "650.0")
 	private Double positionX;
 
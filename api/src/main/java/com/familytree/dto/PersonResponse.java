@@ -61,6 +61,21 @@ public class PersonResponse {
 	@Schema(description = "Canvas Y position", example = "300.0")
 	private Double positionY;
 
+	@Schema(description = "Whether children exist beyond the requested depth", example = "true")
+	private Boolean hasMoreChildren;
+
+	@Schema(description = "Number of direct children (set on nodes at the depth cutoff)", example = "3")
+	private Integer childCount;
+
+	@Schema(description = "Opaque token to fetch the remaining children of this node", example = "MTI6Z2VuNS0wMDE")
+	private String continuationToken;
+
+	@Schema(description = "Number of descendants, the person excluded (served from the tree snapshot; omitted when it is disabled)", example = "42")
+	private Integer descendantCount;
+
+	@Schema(description = "Number of generations below the person (served from the tree snapshot; omitted when it is disabled)", example = "4")
+	private Integer subtreeDepth;
+
 	@Schema(description = "List of children (recursive structure)")
 	@Builder.Default
 	private List<PersonResponse> childs = new ArrayList<>();
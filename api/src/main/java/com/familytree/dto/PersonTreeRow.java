@@ -0,0 +1,66 @@
+package com.familytree.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flat tree row: one person with its scalar properties and the ID of its parent.
+ * Returned once per person by the flat tree queries and assembled in Java.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Flat person record with parent reference")
+public class PersonTreeRow {
+
+	@Schema(description = "Unique identifier", example = "gen5-001")
+	private String id;
+
+	@Schema(description = "Parent ID (null for the root of the result)", example = "gen4-001")
+	private String parentId;
+
+	@Schema(description = "Full name", example = "Muhammad Golap Khan")
+	private String name;
+
+	@Schema(description = "Gender of the person", example = "Male")
+	private String gender;
+
+	@Schema(description = "Avatar filename", example = "io.jpeg")
+	private String avatar;
+
+	@Schema(description = "Address/location", example = "Amtoli")
+	private String address;
+
+	@Schema(description = "Generation level", example = "5")
+	private Integer level;
+
+	@Schema(description = "Family signature/marker", example = "α")
+	private String signature;
+
+	@Schema(description = "Signature ID", example = "i")
+	private String signatureId;
+
+	@Schema(description = "Spouse information", example = "Mrs Example")
+	private String spouse;
+
+	@Schema(description = "Contributor ID", example = "001")
+	private String contributorId;
+
+	@Schema(description = "Whether position is locked", example = "true")
+	private Boolean isPositionLocked;
+
+	@Schema(description = "Canvas X position", example = "500.0")
+	private Double positionX;
+
+	@Schema(description = "Canvas Y position", example = "300.0")
+	private Double positionY;
+
+	@Schema(description = "Number of direct children (only for rows at a depth cutoff)", example = "3")
+	private Integer childCount;
+}
@@ -0,0 +1,35 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Aggregates over the subtree below a person
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Aggregates over the subtree below a person")
+public class SubtreeStatsResponse {
+
+	@Schema(description = "Person ID", example = "gen5-001")
+	private String id;
+
+	@Schema(description = "Number of direct children", example = "3")
+	private int childCount;
+
+	@Schema(description = "Number of descendants, the person excluded", example = "42")
+	private int descendantCount;
+
+	@Schema(description = "Number of generations below the person (0 for a leaf)", example = "4")
+	private int subtreeDepth;
+
+	@Schema(description = "Number of descendants per gender", example = "{\"Male\": 20, \"Female\": 19}")
+	private Map<String, Integer> descendantsByGender;
+}
@@ -0,0 +1,29 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A person on the timeline with its dates of birth and death
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A person on the timeline with its dates of birth and death")
+public class TimelineEntry {
+
+	@Schema(description = "Date of birth", example = "1925-03-14")
+	private LocalDate dateOfBirth;
+
+	@Schema(description = "Date of death", example = "1998-11-02")
+	private LocalDate dateOfDeath;
+
+	@Schema(description = "The person (without children)")
+	private PersonResponse person;
+}
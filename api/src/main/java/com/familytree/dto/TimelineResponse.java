@@ -0,0 +1,26 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Persons born or died within a date range, one page of them in date order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Persons born or died within a date range, in date order")
+public class TimelineResponse {
+
+	@Schema(description = "Number of persons in range", example = "57")
+	private int total;
+
+	@Schema(description = "One page of persons in range, by date of birth, or of death when only death bounds are given")
+	private List<TimelineEntry> entries;
+}
@@ -0,0 +1,43 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Canvas positions of every node of the tree for one tree version,
+ * as parallel arrays in pre-order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Tree layout: parallel arrays indexed by node, in pre-order")
+public class TreeLayoutResponse {
+
+	@Schema(description = "Tree version the layout was computed for", example = "42")
+	private long version;
+
+	@Schema(description = "Number of nodes", example = "3")
+	private int size;
+
+	@Schema(description = "Person IDs")
+	private String[] ids;
+
+	@Schema(description = "Index of each node's parent, -1 for the root")
+	private int[] parentIndex;
+
+	@Schema(description = "Canvas X positions")
+	private double[] x;
+
+	@Schema(description = "Canvas Y positions")
+	private double[] y;
+
+	@Schema(description = "Whether the position was placed by hand (stored) rather than computed")
+	private boolean[] manual;
+
+	@Schema(description = "Position lock flags")
+	private boolean[] locked;
+}
@@ -0,0 +1,30 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Collapsed overview of the whole tree for zoomed-out views
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Collapsed overview of the whole tree for zoomed-out views")
+public class TreeOverviewResponse {
+
+	@Schema(description = "Tree version the overview was computed for", example = "42")
+	private long version;
+
+	@Schema(description = "Number of persons in the tree", example = "30000")
+	private int totalCount;
+
+	@Schema(description = "Number of nodes in this overview", example = "480")
+	private int nodeCount;
+
+	@Schema(description = "Root of the overview tree")
+	private OverviewNode root;
+}
@@ -0,0 +1,36 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A parent-child edge with the canvas positions of both ends
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A parent-child edge with the canvas positions of both ends")
+public class ViewportEdge {
+
+	@Schema(description = "Parent ID", example = "gen4-001")
+	private String parentId;
+
+	@Schema(description = "Child ID", example = "gen5-001")
+	private String childId;
+
+	@Schema(description = "Parent X position", example = "500.0")
+	private double parentX;
+
+	@Schema(description = "Parent Y position", example = "100.0")
+	private double parentY;
+
+	@Schema(description = "Child X position", example = "500.0")
+	private double childX;
+
+	@Schema(description = "Child Y position", example = "300.0")
+	private double childY;
+}
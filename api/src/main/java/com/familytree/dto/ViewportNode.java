@@ -0,0 +1,27 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A person with its position on the canvas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A person with its position on the canvas")
+public class ViewportNode {
+
+	@Schema(description = "Canvas X position", example = "500.0")
+	private double x;
+
+	@Schema(description = "Canvas Y position", example = "300.0")
+	private double y;
+
+	@Schema(description = "Person data, without children")
+	private PersonResponse person;
+}
@@ -0,0 +1,29 @@
+package com.familytree.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Persons positioned inside a canvas rectangle and the edges reaching them
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Persons inside a canvas rectangle and the edges reaching them")
+public class ViewportResponse {
+
+	@Schema(description = "Tree version the positions belong to", example = "42")
+	private long version;
+
+	@Schema(description = "Persons inside the rectangle with their canvas positions")
+	private List<ViewportNode> nodes;
+
+	@Schema(description = "Parent-child edges with at least one end inside the rectangle")
+	private List<ViewportEdge> edges;
+}
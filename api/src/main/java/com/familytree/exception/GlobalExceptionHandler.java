@@ -71,6 +71,23 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
 	}
 
+	@ExceptionHandler(SnapshotDisabledException.class)
+	public ResponseEntity<ErrorResponse> handleSnapshotDisabledException(
+			SnapshotDisabledException ex, HttpServletRequest request) {
+		log.error("Snapshot disabled: {}", ex.getMessage());
+
+		Long responseTime = calculateResponseTime(request);
+		ErrorResponse errorResponse = ErrorResponse.of(
+				HttpStatus.SERVICE_UNAVAILABLE.value(),
+				"Service Unavailable",
+				ex.getMessage(),
+				request.getRequestURI(),
+				responseTime
+		);
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<Map<String, Object>> handleValidationExceptions(
 			MethodArgumentNotValidException ex, HttpServletRequest request) {
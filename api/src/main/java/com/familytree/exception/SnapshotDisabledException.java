@@ -0,0 +1,11 @@
+package com.familytree.exception;
+
+/**
+ * Exception thrown when a search needs the in-memory tree snapshot while it is disabled
+ */
+public class SnapshotDisabledException extends RuntimeException {
+
+	public SnapshotDisabledException(String search) {
+		super(String.format("%s needs the tree snapshot; enable app.tree.snapshot.enabled", search));
+	}
+}
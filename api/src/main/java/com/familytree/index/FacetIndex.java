@@ -0,0 +1,215 @@
+package com.familytree.index;
+
+import com.familytree.model.Facet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from facet values to the slots holding them.
+ *
+ * Every distinct value of a facet owns a compressed slot bitmap. Values are
+ * matched ignoring case and surrounding or repeated whitespace, and reported
+ * with the first spelling seen. A filter ANDs the facets it names and ORs the
+ * values given for one facet; facet counts are then taken over the filtered
+ * slots, either by intersecting each value's bitmap or, when fewer slots
+ * remain than the facet has postings, by looking up each slot's value.
+ *
+ * Not thread-safe; TreeSnapshot guards it with its read-write lock.
+ */
+public final class FacetIndex {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Comparator<ValueCount> BY_COUNT =
+			Comparator.comparingInt(ValueCount::count).reversed()
+					.thenComparing(ValueCount::value, String.CASE_INSENSITIVE_ORDER);
+
+	private final Map<Facet, Map<String, Value>> values = new EnumMap<>(Facet.class);
+	private final Map<Facet, String[]> keysBySlot = new EnumMap<>(Facet.class);
+	private SlotBitmap indexed = new SlotBitmap();
+
+	/**
+	 * A facet value and the number of slots holding it
+	 */
+	public record ValueCount(String value, int count) {
+	}
+
+	/**
+	 * Slots passing a filter in ascending order, with the most frequent values
+	 * of every facet among them
+	 */
+	public record Result(int[] slots, Map<Facet, List<ValueCount>> counts) {
+	}
+
+	public FacetIndex() {
+		for (Facet facet : Facet.values()) {
+			values.put(facet, new HashMap<>());
+			keysBySlot.put(facet, new String[0]);
+		}
+	}
+
+	/**
+	 * Set a slot's value of one facet, replacing the previous one.
+	 * A null or blank value leaves the slot without a value for that facet.
+	 */
+	public void put(int slot, Facet facet, String value) {
+		indexed.add(slot);
+		String[] keys = keysBySlot.get(facet);
+		String key = key(value);
+		String old = slot < keys.length ? keys[slot] : null;
+		if (key == null ? old == null : key.equals(old)) {
+			return;
+		}
+		Map<String, Value> byKey = values.get(facet);
+		if (old != null) {
+			Value oldValue = byKey.get(old);
+			oldValue.slots.remove(slot);
+			if (oldValue.slots.isEmpty()) {
+				byKey.remove(old);
+			}
+		}
+		if (key != null) {
+			if (slot >= keys.length) {
+				keys = Arrays.copyOf(keys, Math.max(slot + 1, keys.length * 2));
+				keysBySlot.put(facet, keys);
+			}
+			byKey.computeIfAbsent(key, k -> new Value(WHITESPACE.matcher(value.strip()).replaceAll(" ")))
+					.slots.add(slot);
+		}
+		if (slot < keys.length) {
+			keys[slot] = key;
+		}
+	}
+
+	/**
+	 * Drop a slot from every facet
+	 */
+	public void remove(int slot) {
+		for (Facet facet : Facet.values()) {
+			put(slot, facet, null);
+		}
+		indexed.remove(slot);
+	}
+
+	public void clear() {
+		for (Facet facet : Facet.values()) {
+			values.get(facet).clear();
+			keysBySlot.put(facet, new String[0]);
+		}
+		indexed = new SlotBitmap();
+	}
+
+	/**
+	 * Find the slots matching every filtered facet and count the values of all
+	 * facets among them
+	 *
+	 * @param filters accepted values per facet; a slot matches a facet holding any of them
+	 * @param countLimit number of values reported per facet, most frequent first
+	 */
+	public Result search(Map<Facet, ? extends Collection<String>> filters, int countLimit) {
+		SlotBitmap selection = indexed;
+		for (Map.Entry<Facet, ? extends Collection<String>> filter : filters.entrySet()) {
+			if (filter.getValue() == null || filter.getValue().isEmpty()) {
+				continue;
+			}
+			SlotBitmap matching = new SlotBitmap();
+			for (String value : filter.getValue()) {
+				Value indexedValue = values.get(filter.getKey()).get(key(value));
+				if (indexedValue != null) {
+					matching = matching.or(indexedValue.slots);
+				}
+			}
+			selection = selection.and(matching);
+		}
+
+		Map<Facet, List<ValueCount>> counts = new LinkedHashMap<>();
+		for (Facet facet : Facet.values()) {
+			counts.put(facet, count(facet, selection, countLimit));
+		}
+		return new Result(selection.toArray(), counts);
+	}
+
+	/**
+	 * Select the first count slots in the given order without sorting them all
+	 */
+	public static List<Integer> top(int[] slots, Comparator<Integer> order, int count) {
+		PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, order.reversed());
+		for (int slot : slots) {
+			if (heap.size() < count) {
+				heap.add(slot);
+			} else if (order.compare(slot, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(slot);
+			}
+		}
+		List<Integer> top = new ArrayList<>(heap);
+		top.sort(order);
+		return top;
+	}
+
+	private List<ValueCount> count(Facet facet, SlotBitmap selection, int limit) {
+		Map<String, Value> byKey = values.get(facet);
+		List<ValueCount> counts = new ArrayList<>();
+		if (selection == indexed) {
+			byKey.values().forEach(value -> counts.add(new ValueCount(value.display, value.slots.cardinality())));
+		} else if (selection.cardinality() < postings(byKey)) {
+			String[] keys = keysBySlot.get(facet);
+			Map<String, int[]> tally = new HashMap<>();
+			selection.forEach(slot -> {
+				if (slot < keys.length && keys[slot] != null) {
+					tally.computeIfAbsent(keys[slot], key -> new int[1])[0]++;
+				}
+			});
+			tally.forEach((key, count) -> counts.add(new ValueCount(byKey.get(key).display, count[0])));
+		} else {
+			for (Value value : byKey.values()) {
+				int count = value.slots.andCardinality(selection);
+				if (count > 0) {
+					counts.add(new ValueCount(value.display, count));
+				}
+			}
+		}
+		counts.sort(BY_COUNT);
+		return counts.size() > limit ? List.copyOf(counts.subList(0, limit)) : counts;
+	}
+
+	/**
+	 * Number of slots holding a value, the work of intersecting every value's bitmap
+	 */
+	private static long postings(Map<String, Value> byKey) {
+		long postings = 0;
+		for (Value value : byKey.values()) {
+			postings += value.slots.cardinality();
+		}
+		return postings;
+	}
+
+	private static String key(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		return WHITESPACE.matcher(value.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A distinct value, its first spelling and the slots holding it
+	 */
+	private static final class Value {
+		private final String display;
+		private final SlotBitmap slots = new SlotBitmap();
+
+		private Value(String display) {
+			this.display = display;
+		}
+	}
+}
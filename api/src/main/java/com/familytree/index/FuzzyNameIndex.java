@@ -0,0 +1,406 @@
+package com.familytree.index;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Spelling-tolerant name index over one text per slot.
+ *
+ * Every word of a name is reduced to a phonetic key that folds the usual
+ * variations of romanized Bengali (aspirated consonants, ou/ow/au, y/i,
+ * doubled letters), so "Chowdhury", "Chowdhuri" and "Choudhury" share one
+ * key. The distinct keys are kept in a trie. A query word walks the trie
+ * computing one Levenshtein row per node, which simulates a Levenshtein
+ * automaton: shared prefixes are compared once and a branch is abandoned as
+ * soon as every cell of its row is past the edit budget. Each key maps to the
+ * slots whose name contains it.
+ *
+ * Keys whose last slot is removed stay in the trie as empty entries until
+ * enough accumulate to rebuild it.
+ *
+ * Not thread-safe; TreeSnapshot guards it with its read-write lock.
+ */
+public final class FuzzyNameIndex {
+
+	private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{M}]+");
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final int REBUILD_THRESHOLD = 1024;
+
+	/**
+	 * Spelling variants folded together, applied in order
+	 */
+	private static final String[][] FOLDS = {
+			{"ph", "f"}, {"kh", "k"}, {"gh", "g"}, {"bh", "b"}, {"dh", "d"}, {"th", "t"}, {"jh", "j"},
+			{"sh", "s"}, {"ch", "c"}, {"ck", "k"}, {"q", "k"}, {"z", "j"}, {"v", "b"},
+			{"ee", "i"}, {"oo", "u"}, {"ou", "o"}, {"ow", "o"}, {"au", "o"}, {"y", "i"}
+	};
+
+	private final Map<String, Term> terms = new HashMap<>();
+	private Node root = new Node();
+	private int longestKey;
+	private int emptyTerms;
+	private String[][] keysBySlot = new String[0][];
+
+	/**
+	 * A slot whose name matched, with the summed edit distance of its words
+	 */
+	public record Match(int slot, int distance) {
+	}
+
+	/**
+	 * Index the text of a slot, replacing what was indexed for it before
+	 */
+	public void put(int slot, String text) {
+		remove(slot);
+		if (text == null) {
+			return;
+		}
+		if (slot >= keysBySlot.length) {
+			keysBySlot = Arrays.copyOf(keysBySlot, Math.max(slot + 1, keysBySlot.length * 2));
+		}
+		String[] keys = keys(text);
+		keysBySlot[slot] = keys;
+		for (String key : keys) {
+			Term term = terms.get(key);
+			if (term == null) {
+				term = new Term();
+				terms.put(key, term);
+				insert(key, term);
+			} else if (term.postings.size == 0) {
+				emptyTerms--;
+			}
+			term.postings.add(slot);
+		}
+	}
+
+	/**
+	 * Drop a slot from the index
+	 */
+	public void remove(int slot) {
+		if (slot >= keysBySlot.length || keysBySlot[slot] == null) {
+			return;
+		}
+		for (String key : keysBySlot[slot]) {
+			Term term = terms.get(key);
+			if (term.postings.remove(slot) && term.postings.size == 0) {
+				emptyTerms++;
+			}
+		}
+		keysBySlot[slot] = null;
+		if (emptyTerms > REBUILD_THRESHOLD && emptyTerms > terms.size() / 2) {
+			rebuild();
+		}
+	}
+
+	public void clear() {
+		terms.clear();
+		clearTrie();
+		keysBySlot = new String[0][];
+	}
+
+	/**
+	 * Find the slots whose name has, for every word of the query, a word within
+	 * the edit budget after phonetic folding. Words of up to two letters must
+	 * match exactly and words of up to four letters within one edit.
+	 *
+	 * @param maxDistance largest number of edits allowed per query word
+	 * @return matching slots in ascending order, each with its summed distance
+	 */
+	public List<Match> search(String query, int maxDistance) {
+		String[] keys = keys(query);
+		if (keys.length == 0) {
+			return List.of();
+		}
+
+		List<List<Hit>> hitsPerWord = new ArrayList<>(keys.length);
+		for (String key : keys) {
+			List<Hit> hits = lookup(key, budget(key, maxDistance));
+			if (hits.isEmpty()) {
+				return List.of();
+			}
+			hitsPerWord.add(hits);
+		}
+		hitsPerWord.sort(Comparator.comparingInt(FuzzyNameIndex::slotCount));
+
+		// Start from the rarest word and narrow down with each further word
+		long[] matched = closestPerSlot(hitsPerWord.get(0));
+		for (int w = 1; w < hitsPerWord.size() && matched.length > 0; w++) {
+			matched = intersect(matched, hitsPerWord.get(w));
+		}
+
+		List<Match> matches = new ArrayList<>(matched.length);
+		for (long pair : matched) {
+			matches.add(new Match(slotOf(pair), distanceOf(pair)));
+		}
+		return matches;
+	}
+
+	/**
+	 * Select the first count matches in the given order without sorting them all
+	 */
+	public static List<Match> top(List<Match> matches, Comparator<Match> order, int count) {
+		PriorityQueue<Match> heap = new PriorityQueue<>(count + 1, order.reversed());
+		for (Match match : matches) {
+			if (heap.size() < count) {
+				heap.add(match);
+			} else if (order.compare(match, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(match);
+			}
+		}
+		List<Match> top = new ArrayList<>(heap);
+		top.sort(order);
+		return top;
+	}
+
+	/**
+	 * Reduce a word to its phonetic key: accents dropped, spelling variants
+	 * folded and doubled letters collapsed
+	 */
+	static String phoneticKey(String word) {
+		String key = MARKS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		for (String[] fold : FOLDS) {
+			key = key.replace(fold[0], fold[1]);
+		}
+		StringBuilder collapsed = new StringBuilder(key.length());
+		for (int i = 0; i < key.length(); i++) {
+			if (i == 0 || key.charAt(i) != key.charAt(i - 1)) {
+				collapsed.append(key.charAt(i));
+			}
+		}
+		return collapsed.toString();
+	}
+
+	private static String[] keys(String text) {
+		Set<String> keys = new LinkedHashSet<>();
+		for (String word : WORD_SEPARATOR.split(text)) {
+			String key = phoneticKey(word);
+			if (!key.isEmpty()) {
+				keys.add(key);
+			}
+		}
+		return keys.toArray(new String[0]);
+	}
+
+	private static int budget(String key, int maxDistance) {
+		if (key.length() <= 2) {
+			return 0;
+		}
+		return key.length() <= 4 ? Math.min(1, maxDistance) : maxDistance;
+	}
+
+	// === Combining words ===
+
+	/**
+	 * The slots of all hits, each with the distance of its closest hit, as
+	 * slot-ordered (slot, distance) pairs
+	 */
+	private static long[] closestPerSlot(List<Hit> hits) {
+		long[] pairs = new long[slotCount(hits)];
+		int count = 0;
+		for (Hit hit : hits) {
+			for (int i = 0; i < hit.term.postings.size; i++) {
+				pairs[count++] = pair(hit.term.postings.slots[i], hit.distance);
+			}
+		}
+		Arrays.sort(pairs);
+
+		// Sorted by slot then distance, so the first pair of a slot is its closest hit
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (kept == 0 || slotOf(pairs[kept - 1]) != slotOf(pairs[i])) {
+				pairs[kept++] = pairs[i];
+			}
+		}
+		return Arrays.copyOf(pairs, kept);
+	}
+
+	/**
+	 * Keep the matched slots that also have a hit for another word, adding its
+	 * distance. Few candidates are probed in the postings by binary search;
+	 * otherwise the hits are flattened and merged.
+	 */
+	private static long[] intersect(long[] matched, List<Hit> hits) {
+		long[] result = new long[matched.length];
+		int count = 0;
+		if ((long) matched.length * hits.size() < slotCount(hits)) {
+			for (long pair : matched) {
+				int best = closest(hits, slotOf(pair));
+				if (best >= 0) {
+					result[count++] = pair + best;
+				}
+			}
+			return Arrays.copyOf(result, count);
+		}
+
+		long[] other = closestPerSlot(hits);
+		for (int i = 0, j = 0; i < matched.length && j < other.length; ) {
+			int slot = slotOf(matched[i]);
+			int otherSlot = slotOf(other[j]);
+			if (slot < otherSlot) {
+				i++;
+			} else if (slot > otherSlot) {
+				j++;
+			} else {
+				result[count++] = matched[i++] + distanceOf(other[j++]);
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static int closest(List<Hit> hits, int slot) {
+		int best = -1;
+		for (Hit hit : hits) {
+			if ((best < 0 || hit.distance < best) && hit.term.postings.contains(slot)) {
+				best = hit.distance;
+			}
+		}
+		return best;
+	}
+
+	private static int slotCount(List<Hit> hits) {
+		int count = 0;
+		for (Hit hit : hits) {
+			count += hit.term.postings.size;
+		}
+		return count;
+	}
+
+	private static long pair(int slot, int distance) {
+		return ((long) slot << 32) | distance;
+	}
+
+	private static int slotOf(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	private static int distanceOf(long pair) {
+		return (int) pair;
+	}
+
+	// === Trie ===
+
+	private void insert(String key, Term term) {
+		Node node = root;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.childOrCreate(key.charAt(i));
+		}
+		node.term = term;
+		longestKey = Math.max(longestKey, key.length());
+	}
+
+	/**
+	 * Collect the non-empty terms within radius of the key. Walks the trie
+	 * depth-first; rows[d] holds the Levenshtein row of the current trie prefix
+	 * of length d against the key, so a node only extends its parent's row.
+	 */
+	private List<Hit> lookup(String key, int radius) {
+		List<Hit> hits = new ArrayList<>();
+		int[][] rows = new int[longestKey + 1][key.length() + 1];
+		for (int j = 0; j <= key.length(); j++) {
+			rows[0][j] = j;
+		}
+
+		Deque<Node> nodes = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		pushChildren(root, 1, nodes, depths);
+		while (!nodes.isEmpty()) {
+			Node node = nodes.pop();
+			int depth = depths.pop();
+			int[] previous = rows[depth - 1];
+			int[] current = rows[depth];
+
+			current[0] = depth;
+			int rowMin = depth;
+			for (int j = 1; j <= key.length(); j++) {
+				int substitution = previous[j - 1] + (node.label == key.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+
+			int distance = current[key.length()];
+			if (node.term != null && distance <= radius && node.term.postings.size > 0) {
+				hits.add(new Hit(node.term, distance));
+			}
+			// Cells never shrink further down, so no longer key can come back within the radius
+			if (rowMin <= radius) {
+				pushChildren(node, depth + 1, nodes, depths);
+			}
+		}
+		return hits;
+	}
+
+	private static void pushChildren(Node node, int depth, Deque<Node> nodes, Deque<Integer> depths) {
+		for (Node child : node.children) {
+			nodes.push(child);
+			depths.push(depth);
+		}
+	}
+
+	private void rebuild() {
+		terms.values().removeIf(term -> term.postings.size == 0);
+		clearTrie();
+		terms.forEach(this::insert);
+	}
+
+	private void clearTrie() {
+		root = new Node();
+		longestKey = 0;
+		emptyTerms = 0;
+	}
+
+	private record Hit(Term term, int distance) {
+	}
+
+	/**
+	 * One phonetic key and the slots whose name contains it
+	 */
+	private static final class Term {
+		private final Postings postings = new Postings();
+	}
+
+	/**
+	 * Trie node: one character of a key, and the term of the key ending here if any
+	 */
+	private static final class Node {
+
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private final char label;
+		private Node[] children = NO_CHILDREN;
+		private Term term;
+
+		private Node() {
+			this('\0');
+		}
+
+		private Node(char label) {
+			this.label = label;
+		}
+
+		private Node childOrCreate(char label) {
+			for (Node child : children) {
+				if (child.label == label) {
+					return child;
+				}
+			}
+			Node child = new Node(label);
+			children = Arrays.copyOf(children, children.length + 1);
+			children[children.length - 1] = child;
+			return child;
+		}
+	}
+}
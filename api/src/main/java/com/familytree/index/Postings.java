@@ -0,0 +1,41 @@
+package com.familytree.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of snapshot slots, the posting list of one
+ * index key. Kept as a growable int array so lookups are binary searches.
+ */
+final class Postings {
+
+	int[] slots = new int[4];
+	int size;
+
+	void add(int slot) {
+		int index = Arrays.binarySearch(slots, 0, size, slot);
+		if (index >= 0) {
+			return;
+		}
+		index = -index - 1;
+		if (size == slots.length) {
+			slots = Arrays.copyOf(slots, size * 2);
+		}
+		System.arraycopy(slots, index, slots, index + 1, size - index);
+		slots[index] = slot;
+		size++;
+	}
+
+	boolean remove(int slot) {
+		int index = Arrays.binarySearch(slots, 0, size, slot);
+		if (index < 0) {
+			return false;
+		}
+		System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+		size--;
+		return true;
+	}
+
+	boolean contains(int slot) {
+		return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+	}
+}
@@ -0,0 +1,395 @@
+package com.familytree.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of snapshot slots in the style of a Roaring bitmap.
+ *
+ * Slots are split by their high 16 bits into chunks. A chunk holding at most
+ * ARRAY_MAX slots stores their low 16 bits as a sorted char array; a denser
+ * chunk switches to a fixed 8 KB bitmap. Sparse values (one institution) stay
+ * small while dense ones (a common profession) intersect word by word.
+ */
+final class SlotBitmap {
+
+	private static final int ARRAY_MAX = 4096;
+	private static final int WORDS = 1 << 10;
+	// Beyond this size ratio two arrays intersect by binary search instead of merging
+	private static final int GALLOP_RATIO = 16;
+
+	private char[] keys = new char[0];
+	private Chunk[] chunks = new Chunk[0];
+	private int chunkCount;
+	private int cardinality;
+
+	boolean add(int slot) {
+		char key = (char) (slot >>> 16);
+		int index = Arrays.binarySearch(keys, 0, chunkCount, key);
+		if (index < 0) {
+			index = -index - 1;
+			insertChunk(index, key, new Chunk());
+		}
+		if (chunks[index].add((char) slot)) {
+			cardinality++;
+			return true;
+		}
+		return false;
+	}
+
+	boolean remove(int slot) {
+		int index = Arrays.binarySearch(keys, 0, chunkCount, (char) (slot >>> 16));
+		if (index < 0 || !chunks[index].remove((char) slot)) {
+			return false;
+		}
+		cardinality--;
+		if (chunks[index].cardinality == 0) {
+			System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+			System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+			chunks[--chunkCount] = null;
+		}
+		return true;
+	}
+
+	boolean contains(int slot) {
+		int index = Arrays.binarySearch(keys, 0, chunkCount, (char) (slot >>> 16));
+		return index >= 0 && chunks[index].contains((char) slot);
+	}
+
+	int cardinality() {
+		return cardinality;
+	}
+
+	boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	/**
+	 * Slots in both sets
+	 */
+	SlotBitmap and(SlotBitmap other) {
+		SlotBitmap result = new SlotBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < chunkCount && j < other.chunkCount) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				Chunk chunk = chunks[i].and(other.chunks[j]);
+				if (chunk.cardinality > 0) {
+					result.appendChunk(keys[i], chunk);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Slots in either set
+	 */
+	SlotBitmap or(SlotBitmap other) {
+		SlotBitmap result = new SlotBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < chunkCount || j < other.chunkCount) {
+			if (j == other.chunkCount || i < chunkCount && keys[i] < other.keys[j]) {
+				result.appendChunk(keys[i], chunks[i].copy());
+				i++;
+			} else if (i == chunkCount || keys[i] > other.keys[j]) {
+				result.appendChunk(other.keys[j], other.chunks[j].copy());
+				j++;
+			} else {
+				result.appendChunk(keys[i], chunks[i].or(other.chunks[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Number of slots in both sets, without building the intersection
+	 */
+	int andCardinality(SlotBitmap other) {
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < chunkCount && j < other.chunkCount) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				count += chunks[i].andCardinality(other.chunks[j]);
+				i++;
+				j++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Visit the slots in ascending order
+	 */
+	void forEach(IntConsumer action) {
+		for (int i = 0; i < chunkCount; i++) {
+			chunks[i].forEach(keys[i] << 16, action);
+		}
+	}
+
+	int[] toArray() {
+		int[] slots = new int[cardinality];
+		int[] next = {0};
+		forEach(slot -> slots[next[0]++] = slot);
+		return slots;
+	}
+
+	private void insertChunk(int index, char key, Chunk chunk) {
+		if (chunkCount == keys.length) {
+			int capacity = Math.max(4, chunkCount * 2);
+			keys = Arrays.copyOf(keys, capacity);
+			chunks = Arrays.copyOf(chunks, capacity);
+		}
+		System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+		System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+		keys[index] = key;
+		chunks[index] = chunk;
+		chunkCount++;
+	}
+
+	private void appendChunk(char key, Chunk chunk) {
+		insertChunk(chunkCount, key, chunk);
+		cardinality += chunk.cardinality;
+	}
+
+	/**
+	 * The low 16 bits of the slots sharing one high half: a sorted array while
+	 * sparse, a bitmap once it holds more than ARRAY_MAX of them
+	 */
+	private static final class Chunk {
+
+		private char[] values = new char[4];
+		private long[] words;
+		private int cardinality;
+
+		private boolean add(char low) {
+			if (words != null) {
+				long bit = 1L << low;
+				if ((words[low >>> 6] & bit) != 0) {
+					return false;
+				}
+				words[low >>> 6] |= bit;
+				cardinality++;
+				return true;
+			}
+			int index = Arrays.binarySearch(values, 0, cardinality, low);
+			if (index >= 0) {
+				return false;
+			}
+			if (cardinality == ARRAY_MAX) {
+				toBitmap();
+				return add(low);
+			}
+			index = -index - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+			}
+			System.arraycopy(values, index, values, index + 1, cardinality - index);
+			values[index] = low;
+			cardinality++;
+			return true;
+		}
+
+		private boolean remove(char low) {
+			if (words != null) {
+				long bit = 1L << low;
+				if ((words[low >>> 6] & bit) == 0) {
+					return false;
+				}
+				words[low >>> 6] &= ~bit;
+				cardinality--;
+				if (cardinality <= ARRAY_MAX / 2) {
+					toArray();
+				}
+				return true;
+			}
+			int index = Arrays.binarySearch(values, 0, cardinality, low);
+			if (index < 0) {
+				return false;
+			}
+			System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+			cardinality--;
+			return true;
+		}
+
+		private boolean contains(char low) {
+			if (words != null) {
+				return (words[low >>> 6] & (1L << low)) != 0;
+			}
+			return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+		}
+
+		private Chunk and(Chunk other) {
+			Chunk result = new Chunk();
+			if (words != null && other.words != null) {
+				result.words = new long[WORDS];
+				for (int w = 0; w < WORDS; w++) {
+					result.words[w] = words[w] & other.words[w];
+					result.cardinality += Long.bitCount(result.words[w]);
+				}
+				if (result.cardinality <= ARRAY_MAX) {
+					result.toArray();
+				}
+				return result;
+			}
+			Chunk sparse = sparser(other);
+			Chunk dense = sparse == this ? other : this;
+			result.values = new char[Math.max(4, sparse.cardinality)];
+			if (dense.words != null || dense.cardinality > GALLOP_RATIO * sparse.cardinality) {
+				for (int i = 0; i < sparse.cardinality; i++) {
+					if (dense.contains(sparse.values[i])) {
+						result.values[result.cardinality++] = sparse.values[i];
+					}
+				}
+				return result;
+			}
+			int i = 0;
+			int j = 0;
+			while (i < cardinality && j < other.cardinality) {
+				if (values[i] < other.values[j]) {
+					i++;
+				} else if (values[i] > other.values[j]) {
+					j++;
+				} else {
+					result.values[result.cardinality++] = values[i];
+					i++;
+					j++;
+				}
+			}
+			return result;
+		}
+
+		private Chunk or(Chunk other) {
+			Chunk result;
+			Chunk added;
+			if (words != null) {
+				result = copy();
+				added = other;
+			} else {
+				result = other.copy();
+				added = this;
+			}
+			if (result.words != null && added.words != null) {
+				result.cardinality = 0;
+				for (int w = 0; w < WORDS; w++) {
+					result.words[w] |= added.words[w];
+					result.cardinality += Long.bitCount(result.words[w]);
+				}
+				return result;
+			}
+			for (int i = 0; i < added.cardinality; i++) {
+				result.add(added.values[i]);
+			}
+			return result;
+		}
+
+		private int andCardinality(Chunk other) {
+			if (words != null && other.words != null) {
+				int count = 0;
+				for (int w = 0; w < WORDS; w++) {
+					count += Long.bitCount(words[w] & other.words[w]);
+				}
+				return count;
+			}
+			Chunk sparse = sparser(other);
+			Chunk dense = sparse == this ? other : this;
+			int count = 0;
+			if (dense.words != null || dense.cardinality > GALLOP_RATIO * sparse.cardinality) {
+				for (int i = 0; i < sparse.cardinality; i++) {
+					if (dense.contains(sparse.values[i])) {
+						count++;
+					}
+				}
+				return count;
+			}
+			int i = 0;
+			int j = 0;
+			while (i < cardinality && j < other.cardinality) {
+				if (values[i] < other.values[j]) {
+					i++;
+				} else if (values[i] > other.values[j]) {
+					j++;
+				} else {
+					count++;
+					i++;
+					j++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * The chunk to iterate when intersecting: an array rather than a bitmap,
+		 * and the shorter of two arrays
+		 */
+		private Chunk sparser(Chunk other) {
+			if (words != null || other.words != null) {
+				return words == null ? this : other;
+			}
+			return cardinality <= other.cardinality ? this : other;
+		}
+
+		private void forEach(int high, IntConsumer action) {
+			if (words == null) {
+				for (int i = 0; i < cardinality; i++) {
+					action.accept(high | values[i]);
+				}
+				return;
+			}
+			for (int w = 0; w < WORDS; w++) {
+				long word = words[w];
+				while (word != 0) {
+					action.accept(high | w << 6 | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		private Chunk copy() {
+			Chunk copy = new Chunk();
+			copy.cardinality = cardinality;
+			if (words != null) {
+				copy.words = words.clone();
+				copy.values = null;
+			} else {
+				copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+			}
+			return copy;
+		}
+
+		private void toBitmap() {
+			words = new long[WORDS];
+			for (int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			values = null;
+		}
+
+		private void toArray() {
+			values = new char[Math.max(4, cardinality)];
+			int next = 0;
+			for (int w = 0; w < WORDS; w++) {
+				long word = words[w];
+				while (word != 0) {
+					values[next++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+			words = null;
+		}
+	}
+}
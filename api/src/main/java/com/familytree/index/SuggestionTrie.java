@@ -0,0 +1,367 @@
+package com.familytree.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix completion over the words of one text per slot.
+ *
+ * The distinct lower-cased words live in a compressed (radix) trie whose
+ * edges carry whole runs of characters. Every node keeps the TOP_K most
+ * frequent words below it, so completing a prefix is a walk down the prefix
+ * followed by reading one precomputed list, however many words share it.
+ * A write changes the count of a few words and touches the lists only along
+ * their paths: a word whose count grows can only move up, so it is promoted
+ * in place, while lists holding a shrinking word are recomputed from the children.
+ *
+ * Not thread-safe; TreeSnapshot guards it with its read-write lock.
+ */
+public final class SuggestionTrie {
+
+	public static final int TOP_K = 10;
+
+	private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{M}\\p{N}'-]+");
+	private static final Pattern LAST_WORD = Pattern.compile("[\\p{L}\\p{M}\\p{N}'-]+$");
+	private static final Word[] NO_WORDS = new Word[0];
+	private static final Comparator<Word> BY_FREQUENCY =
+			Comparator.comparingInt((Word word) -> word.count).reversed().thenComparing(word -> word.key);
+
+	private final Map<String, Word> words = new HashMap<>();
+	private Node root = new Node("");
+	private String[][] keysBySlot = new String[0][];
+
+	/**
+	 * Typed text with its last word completed, and the number of slots whose
+	 * text contains the completed word
+	 */
+	public record Completion(String text, int count) {
+	}
+
+	/**
+	 * Index the words of a slot's text, replacing what was indexed for it before
+	 */
+	public void put(int slot, String text) {
+		remove(slot);
+		if (text == null) {
+			return;
+		}
+		if (slot >= keysBySlot.length) {
+			keysBySlot = Arrays.copyOf(keysBySlot, Math.max(slot + 1, keysBySlot.length * 2));
+		}
+		Map<String, String> tokens = tokens(text);
+		keysBySlot[slot] = tokens.keySet().toArray(new String[0]);
+		tokens.forEach((key, display) -> {
+			Word word = words.get(key);
+			if (word == null) {
+				word = new Word(key, display);
+				words.put(key, word);
+				insert(word);
+			}
+			word.count++;
+			for (Node node : path(key)) {
+				node.promote(word);
+			}
+		});
+	}
+
+	/**
+	 * Drop a slot from the index
+	 */
+	public void remove(int slot) {
+		if (slot >= keysBySlot.length || keysBySlot[slot] == null) {
+			return;
+		}
+		for (String key : keysBySlot[slot]) {
+			Word word = words.get(key);
+			if (--word.count == 0) {
+				words.remove(key);
+				delete(key);
+			}
+			demote(word);
+		}
+		keysBySlot[slot] = null;
+	}
+
+	public void clear() {
+		words.clear();
+		root = new Node("");
+		keysBySlot = new String[0][];
+	}
+
+	/**
+	 * Complete the last word of typed text, keeping the words before it as typed.
+	 * Most frequent words come first, ties in alphabetical order; text ending in
+	 * a separator has nothing to complete.
+	 *
+	 * @param limit at most TOP_K
+	 */
+	public List<Completion> complete(String typed, int limit) {
+		Matcher last = LAST_WORD.matcher(typed);
+		if (!last.find()) {
+			return List.of();
+		}
+		String head = typed.substring(0, last.start());
+		String key = last.group().toLowerCase(Locale.ROOT);
+		Node node = root;
+		int i = 0;
+		while (i < key.length()) {
+			Node child = node.child(key.charAt(i));
+			if (child == null) {
+				return List.of();
+			}
+			int common = commonPrefix(child.edge, key, i);
+			if (i + common == key.length()) {
+				// The prefix ends on this edge, possibly part way along it
+				node = child;
+				break;
+			}
+			if (common < child.edge.length()) {
+				return List.of();
+			}
+			node = child;
+			i += common;
+		}
+
+		int count = Math.min(limit, node.top.length);
+		List<Completion> completions = new ArrayList<>(count);
+		for (int w = 0; w < count; w++) {
+			completions.add(new Completion(head + node.top[w].display, node.top[w].count));
+		}
+		return completions;
+	}
+
+	/**
+	 * Split a text into its distinct lower-cased words, each with its first spelling
+	 */
+	static Map<String, String> tokens(String text) {
+		Map<String, String> tokens = new LinkedHashMap<>();
+		for (String token : WORD_SEPARATOR.split(text)) {
+			if (!token.isEmpty()) {
+				tokens.putIfAbsent(token.toLowerCase(Locale.ROOT), token);
+			}
+		}
+		return tokens;
+	}
+
+	// === Radix trie ===
+
+	private void insert(Word word) {
+		String key = word.key;
+		Node node = root;
+		int i = 0;
+		while (i < key.length()) {
+			Node child = node.child(key.charAt(i));
+			if (child == null) {
+				Node leaf = new Node(key.substring(i));
+				leaf.word = word;
+				node.addChild(leaf);
+				return;
+			}
+			int common = commonPrefix(child.edge, key, i);
+			if (common < child.edge.length()) {
+				// Split the edge where the new word branches off
+				Node middle = new Node(child.edge.substring(0, common));
+				node.replaceChild(middle);
+				child.edge = child.edge.substring(common);
+				middle.addChild(child);
+				middle.top = child.top.clone();
+				child = middle;
+			}
+			node = child;
+			i += common;
+		}
+		node.word = word;
+	}
+
+	private void delete(String key) {
+		List<Node> path = path(key);
+		Node node = path.get(path.size() - 1);
+		if (node == root || depth(path) != key.length()) {
+			return;
+		}
+		node.word = null;
+		Node parent = path.get(path.size() - 2);
+		if (node.children.length == 0) {
+			parent.removeChild(node);
+			// A parent left with one child and no word of its own folds into that child
+			if (parent != root && parent.word == null && parent.children.length == 1) {
+				path.get(path.size() - 3).replaceChild(merge(parent));
+			}
+		} else if (node.children.length == 1) {
+			parent.replaceChild(merge(node));
+		}
+	}
+
+	/**
+	 * Recompute, deepest first, the top lists along a word's path that hold the
+	 * word whose count shrank. A list without it keeps the same best words.
+	 */
+	private void demote(Word shrunk) {
+		List<Node> path = path(shrunk.key);
+		for (int n = path.size() - 1; n >= 0; n--) {
+			Node node = path.get(n);
+			if (Arrays.asList(node.top).contains(shrunk)) {
+				node.recomputeTop();
+			}
+		}
+	}
+
+	/**
+	 * Nodes from the root down to the deepest node whose edges the key fully covers
+	 */
+	private List<Node> path(String key) {
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int i = 0;
+		while (i < key.length()) {
+			Node child = node.child(key.charAt(i));
+			if (child == null || commonPrefix(child.edge, key, i) < child.edge.length()) {
+				break;
+			}
+			node = child;
+			path.add(node);
+			i += child.edge.length();
+		}
+		return path;
+	}
+
+	private static int depth(List<Node> path) {
+		int depth = 0;
+		for (Node node : path) {
+			depth += node.edge.length();
+		}
+		return depth;
+	}
+
+	/**
+	 * Fold a node without a word into its only child
+	 */
+	private static Node merge(Node node) {
+		Node child = node.children[0];
+		child.edge = node.edge + child.edge;
+		return child;
+	}
+
+	private static int commonPrefix(String edge, String key, int offset) {
+		int max = Math.min(edge.length(), key.length() - offset);
+		int i = 0;
+		while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * A distinct word, its first spelling and the number of slots containing it
+	 */
+	private static final class Word {
+		private final String key;
+		private final String display;
+		private int count;
+
+		private Word(String key, String display) {
+			this.key = key;
+			this.display = display;
+		}
+	}
+
+	/**
+	 * Radix trie node: the characters on the edge from its parent, the word
+	 * ending here if any and the most frequent words of its subtree
+	 */
+	private static final class Node {
+
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private String edge;
+		private Node[] children = NO_CHILDREN;
+		private Word word;
+		private Word[] top = NO_WORDS;
+
+		private Node(String edge) {
+			this.edge = edge;
+		}
+
+		private Node child(char first) {
+			for (Node child : children) {
+				if (child.edge.charAt(0) == first) {
+					return child;
+				}
+			}
+			return null;
+		}
+
+		private void addChild(Node child) {
+			children = Arrays.copyOf(children, children.length + 1);
+			children[children.length - 1] = child;
+		}
+
+		private void replaceChild(Node child) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i].edge.charAt(0) == child.edge.charAt(0)) {
+					children[i] = child;
+					return;
+				}
+			}
+		}
+
+		private void removeChild(Node child) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] == child) {
+					Node[] remaining = new Node[children.length - 1];
+					System.arraycopy(children, 0, remaining, 0, i);
+					System.arraycopy(children, i + 1, remaining, i, children.length - i - 1);
+					children = remaining;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Move a word whose count grew to its place in the top list, entering
+		 * the list if it now beats the last entry
+		 */
+		private void promote(Word grown) {
+			int at = Arrays.asList(top).indexOf(grown);
+			if (at < 0) {
+				if (top.length < TOP_K) {
+					top = Arrays.copyOf(top, top.length + 1);
+				} else if (BY_FREQUENCY.compare(grown, top[TOP_K - 1]) >= 0) {
+					return;
+				}
+				at = top.length - 1;
+				top[at] = grown;
+			}
+			while (at > 0 && BY_FREQUENCY.compare(top[at], top[at - 1]) < 0) {
+				Word swap = top[at - 1];
+				top[at - 1] = top[at];
+				top[at] = swap;
+				at--;
+			}
+		}
+
+		/**
+		 * Merge the own word with the children's top lists, which are already current
+		 */
+		private void recomputeTop() {
+			List<Word> candidates = new ArrayList<>();
+			if (word != null) {
+				candidates.add(word);
+			}
+			for (Node child : children) {
+				candidates.addAll(Arrays.asList(child.top));
+			}
+			candidates.sort(BY_FREQUENCY);
+			top = candidates.subList(0, Math.min(TOP_K, candidates.size())).toArray(NO_WORDS);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.familytree.index;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Birth and death dates of slots, each kept as a sorted array of packed
+ * (epoch day, slot) keys so a date range is two binary searches followed by
+ * a scan of the k slots inside it, in date order.
+ *
+ * Dates added after {@link #clear} are appended unordered and {@link #sort}
+ * orders them once; from then on every write keeps the arrays ordered by
+ * inserting in place.
+ *
+ * Not thread-safe; TreeSnapshot guards it with its read-write lock.
+ */
+public final class TimelineIndex {
+
+	private final Dates births = new Dates();
+	private final Dates deaths = new Dates();
+
+	/**
+	 * Set the dates of a slot, replacing the previous ones; null leaves a date out
+	 */
+	public void put(int slot, LocalDate birth, LocalDate death) {
+		births.put(slot, birth);
+		deaths.put(slot, death);
+	}
+
+	public void remove(int slot) {
+		put(slot, null, null);
+	}
+
+	public void clear() {
+		births.clear();
+		deaths.clear();
+	}
+
+	/**
+	 * Order the dates appended since the last clear
+	 */
+	public void sort() {
+		births.sort();
+		deaths.sort();
+	}
+
+	public LocalDate birth(int slot) {
+		return births.get(slot);
+	}
+
+	public LocalDate death(int slot) {
+		return deaths.get(slot);
+	}
+
+	/**
+	 * Find the slots born and died within the given inclusive ranges, ordered by
+	 * date of birth when a birth bound is given, otherwise by date of death.
+	 * A null bound leaves that side open; a slot without a date is outside every
+	 * range on it.
+	 *
+	 * @param accept further condition on each slot in range
+	 */
+	public int[] search(LocalDate bornFrom, LocalDate bornTo, LocalDate diedFrom, LocalDate diedTo,
+						IntPredicate accept) {
+		boolean byBirth = bornFrom != null || bornTo != null;
+		boolean byDeath = diedFrom != null || diedTo != null;
+		if (!byBirth && !byDeath) {
+			return new int[0];
+		}
+		int[] slots = byBirth ? births.range(bornFrom, bornTo) : deaths.range(diedFrom, diedTo);
+		IntPredicate filter = byBirth && byDeath ? accept.and(slot -> deaths.within(slot, diedFrom, diedTo)) : accept;
+		return Arrays.stream(slots).filter(filter).toArray();
+	}
+
+	/**
+	 * One date per slot, sorted by packed key: the epoch day in the high half,
+	 * the slot in the low half, so keys order by date and then by slot
+	 */
+	private static final class Dates {
+
+		private static final long NONE = Long.MIN_VALUE;
+
+		private long[] keys = new long[16];
+		private int size;
+		private boolean sorted;
+		private long[] daysBySlot = new long[0];
+
+		private void put(int slot, LocalDate date) {
+			long day = date != null ? date.toEpochDay() : NONE;
+			long oldDay = slot < daysBySlot.length ? daysBySlot[slot] : NONE;
+			if (day == oldDay) {
+				return;
+			}
+			if (oldDay != NONE) {
+				delete(key(oldDay, slot));
+			}
+			if (slot >= daysBySlot.length) {
+				int oldLength = daysBySlot.length;
+				daysBySlot = Arrays.copyOf(daysBySlot, Math.max(slot + 1, oldLength * 2));
+				Arrays.fill(daysBySlot, oldLength, daysBySlot.length, NONE);
+			}
+			daysBySlot[slot] = day;
+			if (day != NONE) {
+				insert(key(day, slot));
+			}
+		}
+
+		private LocalDate get(int slot) {
+			long day = slot < daysBySlot.length ? daysBySlot[slot] : NONE;
+			return day != NONE ? LocalDate.ofEpochDay(day) : null;
+		}
+
+		private boolean within(int slot, LocalDate from, LocalDate to) {
+			long day = slot < daysBySlot.length ? daysBySlot[slot] : NONE;
+			return day != NONE && (from == null || day >= from.toEpochDay()) && (to == null || day <= to.toEpochDay());
+		}
+
+		private int[] range(LocalDate from, LocalDate to) {
+			int start = from != null ? lowerBound(key(from.toEpochDay(), 0)) : 0;
+			int end = to != null ? lowerBound(key(to.toEpochDay() + 1, 0)) : size;
+			int[] slots = new int[Math.max(0, end - start)];
+			for (int i = start; i < end; i++) {
+				slots[i - start] = (int) keys[i];
+			}
+			return slots;
+		}
+
+		private void clear() {
+			keys = new long[16];
+			size = 0;
+			sorted = false;
+			daysBySlot = new long[0];
+		}
+
+		private void sort() {
+			Arrays.sort(keys, 0, size);
+			sorted = true;
+		}
+
+		private void insert(long key) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+			}
+			int index = sorted ? lowerBound(key) : size;
+			System.arraycopy(keys, index, keys, index + 1, size - index);
+			keys[index] = key;
+			size++;
+		}
+
+		private void delete(long key) {
+			int index = sorted ? Arrays.binarySearch(keys, 0, size, key) : indexOf(key);
+			System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+			size--;
+		}
+
+		private int indexOf(long key) {
+			for (int i = 0; i < size; i++) {
+				if (keys[i] == key) {
+					return i;
+				}
+			}
+			throw new IllegalStateException("Date not indexed: " + key);
+		}
+
+		/**
+		 * Index of the first key not below the given one
+		 */
+		private int lowerBound(long key) {
+			int index = Arrays.binarySearch(keys, 0, size, key);
+			return index >= 0 ? index : -index - 1;
+		}
+
+		private static long key(long day, int slot) {
+			return day << 32 | slot;
+		}
+	}
+}
@@ -0,0 +1,1232 @@
+package com.familytree.index;
+
+import com.familytree.dto.FacetSearchResponse;
+import com.familytree.dto.NameSuggestion;
+import com.familytree.dto.PersonDetailsResponse;
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.dto.TimelineEntry;
+import com.familytree.dto.TimelineResponse;
+import com.familytree.model.Facet;
+import com.familytree.model.Gender;
+import com.familytree.model.Person;
+import com.familytree.model.PersonDetails;
+import com.familytree.repository.PersonRepository;
+import com.familytree.util.FieldProjection;
+import com.familytree.util.FieldProjection.Field;
+import com.familytree.util.TreeMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-memory read model of the PARENT_OF graph.
+ * Every person occupies an int slot. The tree structure is kept in primitive
+ * parent / firstChild / nextSibling arrays, siblings ordered by ID like the
+ * child queries, and the scalar properties in parallel columns, so tree reads
+ * never touch Neo4j.
+ *
+ * The snapshot is built lazily from PersonRepository on first read and kept
+ * up to date by the write methods of FamilyTreeServiceImpl once their
+ * transaction commits, so it never shows a write that was rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TreeSnapshot {
+
+	private static final int NONE = -1;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int NO_LEVEL = Integer.MIN_VALUE;
+
+	private final PersonRepository personRepository;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	@Value("${app.tree.snapshot.enabled:true}")
+	private boolean enabled;
+
+	private volatile boolean loaded;
+
+	// === Structure ===
+
+	private int highWater;
+	private int liveCount;
+	private int rootSlot = NONE;
+	private int[] parent;
+	private int[] firstChild;
+	private int[] lastChild;
+	private int[] nextSibling;
+	private int[] freeSlots;
+	private int freeCount;
+	private final Map<String, Integer> slotById = new HashMap<>();
+
+	// === Columns ===
+
+	private String[] ids;
+	private String[] names;
+	private int[] levels;
+	private byte[] genders;
+	private double[] positionX;
+	private double[] positionY;
+	private String[] avatars;
+	private String[] addresses;
+	private String[] signatures;
+	private String[] signatureIds;
+	private String[] spouses;
+	private String[] contributorIds;
+	private byte[] positionLocked;
+	private PersonDetailsResponse[] details;
+
+	// === Subtree aggregates, maintained up the ancestor chain on every structural change ===
+
+	private int[] descendantCounts;
+	private int[] subtreeDepths;
+	private int[][] descendantsByGender;
+
+	// === Secondary indexes, keyed by slot ===
+
+	private final TrigramIndex nameIndex = new TrigramIndex();
+	private final FuzzyNameIndex fuzzyNameIndex = new FuzzyNameIndex();
+	private final SuggestionTrie suggestionTrie = new SuggestionTrie();
+	private final FacetIndex facetIndex = new FacetIndex();
+	private final TimelineIndex timelineIndex = new TimelineIndex();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	// === Reads ===
+
+	/**
+	 * Check whether a person exists
+	 */
+	public boolean contains(String id) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			return slotById.containsKey(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the complete tree starting from the root (level 1) person
+	 */
+	public Optional<PersonResponse> getFullTree(FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			return rootSlot == NONE ? Optional.empty() : Optional.of(buildSubtree(rootSlot, Integer.MAX_VALUE, fields));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a person with the full subtree of descendants
+	 */
+	public Optional<PersonResponse> getSubtree(String id, FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Integer slot = slotById.get(id);
+			return slot == null ? Optional.empty() : Optional.of(buildSubtree(slot, Integer.MAX_VALUE, fields));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a person with descendants down to the given depth.
+	 * Nodes at the cutoff carry hasMoreChildren and childCount instead of children.
+	 */
+	public Optional<PersonResponse> getSubtree(String id, int depth, FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Integer slot = slotById.get(id);
+			return slot == null ? Optional.empty() : Optional.of(buildSubtree(slot, depth, fields));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a person with immediate children only
+	 */
+	public Optional<PersonResponse> getWithChildren(String id) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Integer slot = slotById.get(id);
+			if (slot == null) {
+				return Optional.empty();
+			}
+			PersonResponse response = toResponse(slot);
+			for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+				response.getChilds().add(toResponse(child));
+			}
+			return Optional.of(response);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the flat row of a person, including its child count
+	 */
+	public Optional<PersonTreeRow> getRow(String id) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Integer slot = slotById.get(id);
+			return slot == null ? Optional.empty() : Optional.of(toRowWithChildCount(slot));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get several persons as flat rows, each with its parent ID; unknown IDs are skipped
+	 */
+	public List<PersonTreeRow> getRows(Collection<String> ids) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			List<PersonTreeRow> rows = new ArrayList<>(ids.size());
+			for (String id : ids) {
+				Integer slot = slotById.get(id);
+				if (slot != null) {
+					rows.add(toRow(slot));
+				}
+			}
+			return rows;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the children of several parents as flat rows, in parent order.
+	 * Same contract as PersonRepository.findChildRows.
+	 */
+	public List<PersonTreeRow> getChildRows(List<String> parentIds, int skip, int limit) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			List<PersonTreeRow> rows = new ArrayList<>();
+			int skipped = 0;
+			for (String parentId : parentIds) {
+				Integer slot = slotById.get(parentId);
+				if (slot == null) {
+					continue;
+				}
+				for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+					if (skipped < skip) {
+						skipped++;
+						continue;
+					}
+					if (rows.size() == limit) {
+						return rows;
+					}
+					rows.add(toRowWithChildCount(child));
+				}
+			}
+			return rows;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stream the complete tree as flat rows in pre-order.
+	 * Rows are produced in small chunks, each under a short read lock, so a slow
+	 * consumer never blocks writers and heap use does not grow with the tree.
+	 */
+	public Optional<Stream<PersonTreeRow>> streamFullTree() {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			if (rootSlot == NONE) {
+				return Optional.empty();
+			}
+			return Optional.of(StreamSupport.stream(new PreOrderCursor(rootSlot), false));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find every person whose name contains the query, ignoring case, as rows
+	 * holding only ID and name. Matches the CONTAINS query of
+	 * PersonRepository.findNameMatches, ordered by name then ID.
+	 */
+	public List<PersonTreeRow> findNameMatches(String query) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			return IntStream.of(nameIndex.search(query))
+					.boxed()
+					.sorted(Comparator.<Integer, String>comparing(slot -> names[slot]).thenComparing(slot -> ids[slot]))
+					.map(slot -> PersonTreeRow.builder().id(ids[slot]).name(names[slot]).build())
+					.toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get several persons (without children) in the given order; unknown IDs are skipped
+	 */
+	public List<PersonResponse> getPersons(List<String> personIds, FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			List<PersonResponse> persons = new ArrayList<>(personIds.size());
+			for (String id : personIds) {
+				Integer slot = slotById.get(id);
+				if (slot != null) {
+					persons.add(toResponse(slot, fields));
+				}
+			}
+			return persons;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find persons whose name matches the query despite spelling variants (without children).
+	 * Ordered by edit distance, then name, then ID.
+	 *
+	 * @param maxDistance largest number of edits allowed per query word
+	 */
+	public List<PersonResponse> searchFuzzy(String query, int maxDistance, int offset, int limit,
+											FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Comparator<FuzzyNameIndex.Match> order = Comparator.comparingInt(FuzzyNameIndex.Match::distance)
+					.thenComparing(match -> names[match.slot()])
+					.thenComparing(match -> ids[match.slot()]);
+			return FuzzyNameIndex.top(fuzzyNameIndex.search(query, maxDistance), order, offset + limit).stream()
+					.skip(offset)
+					.map(match -> toResponse(match.slot(), fields))
+					.toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Complete the last word of a typed name prefix from the words of all names,
+	 * most frequent first
+	 *
+	 * @param limit at most SuggestionTrie.TOP_K
+	 */
+	public List<NameSuggestion> suggest(String prefix, int limit) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			return suggestionTrie.complete(prefix, limit).stream()
+					.map(completion -> new NameSuggestion(completion.text(), completion.count()))
+					.toList();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find persons matching facet filters and count the facet values among them.
+	 * Persons are ordered by name then ID (without children).
+	 *
+	 * @param filters accepted values per facet, matched ignoring case
+	 * @param facetLimit number of values reported per facet, most frequent first
+	 */
+	public FacetSearchResponse searchFacets(Map<Facet, List<String>> filters, int offset, int limit, int facetLimit,
+											FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			FacetIndex.Result result = facetIndex.search(filters, facetLimit);
+			Comparator<Integer> order = Comparator.<Integer, String>comparing(slot -> names[slot])
+					.thenComparing(slot -> ids[slot]);
+			List<PersonResponse> persons = FacetIndex.top(result.slots(), order, offset + limit).stream()
+					.skip(offset)
+					.map(slot -> toResponse(slot, fields))
+					.toList();
+			return TreeMapper.toFacetResponse(result, persons);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find persons born and died within inclusive date ranges, in date order.
+	 * Empty if a subtree root is given but does not exist.
+	 *
+	 * @param rootId limits the result to this person and its descendants; null for everyone
+	 */
+	public Optional<TimelineResponse> getTimeline(LocalDate bornFrom, LocalDate bornTo, LocalDate diedFrom,
+												  LocalDate diedTo, String rootId, int offset, int limit,
+												  FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			IntPredicate accept = slot -> true;
+			if (rootId != null) {
+				Integer root = slotById.get(rootId);
+				if (root == null) {
+					return Optional.empty();
+				}
+				accept = slot -> isInSubtree(slot, root);
+			}
+			int[] slots = timelineIndex.search(bornFrom, bornTo, diedFrom, diedTo, accept);
+			List<TimelineEntry> entries = Arrays.stream(slots, Math.min(offset, slots.length),
+							(int) Math.min((long) offset + limit, slots.length))
+					.mapToObj(slot -> new TimelineEntry(timelineIndex.birth(slot), timelineIndex.death(slot),
+							toResponse(slot, fields)))
+					.toList();
+			return Optional.of(new TimelineResponse(slots.length, entries));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get all persons at a generation level with their details (without children),
+	 * like PersonRepository.findByLevel
+	 */
+	public List<PersonResponse> getByLevel(int level, FieldProjection fields) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			List<PersonResponse> result = new ArrayList<>();
+			for (int slot = 0; slot < highWater; slot++) {
+				if (ids[slot] != null && levels[slot] == level) {
+					PersonResponse response = toResponse(slot, fields);
+					if (fields.includes(Field.DETAILS)) {
+						response.setDetails(details[slot]);
+					}
+					result.add(response);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the subtree aggregates of a person in constant time
+	 */
+	public Optional<SubtreeStatsResponse> getStats(String id) {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			Integer slot = slotById.get(id);
+			if (slot == null) {
+				return Optional.empty();
+			}
+			Map<String, Integer> byGender = new LinkedHashMap<>();
+			for (Gender gender : Gender.values()) {
+				byGender.put(gender.getDisplayName(), descendantsByGender[gender.ordinal()][slot]);
+			}
+			return Optional.of(SubtreeStatsResponse.builder()
+					.id(id)
+					.childCount(countChildren(slot))
+					.descendantCount(descendantCounts[slot])
+					.subtreeDepth(subtreeDepths[slot])
+					.descendantsByGender(byGender)
+					.build());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of persons in the snapshot
+	 */
+	public long count() {
+		ensureLoaded();
+		lock.readLock().lock();
+		try {
+			return liveCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// === Writes ===
+
+	/**
+	 * Insert or replace the scalar properties of a person.
+	 * Structure (parent and children) is left untouched.
+	 */
+	public void upsert(Person person) {
+		apply(() -> {
+			Integer slot = slotById.get(person.getId());
+			if (slot == null) {
+				writeColumns(allocate(person.getId()), person);
+				return;
+			}
+			byte oldGender = genders[slot];
+			writeColumns(slot, person);
+			if (genders[slot] != oldGender) {
+				moveGenderCount(slot, oldGender, genders[slot]);
+			}
+		});
+	}
+
+	/**
+	 * Insert or replace the details of a person and their indexed attributes
+	 */
+	public void upsertDetails(String personId, PersonDetails details) {
+		apply(() -> {
+			Integer slot = slotById.get(personId);
+			if (slot != null) {
+				writeDetails(slot, details);
+			}
+		});
+	}
+
+	/**
+	 * Drop the details of a person and their indexed attributes
+	 */
+	public void removeDetails(String personId) {
+		upsertDetails(personId, null);
+	}
+
+	/**
+	 * Record a PARENT_OF relationship. Idempotent.
+	 */
+	public void link(String parentId, String childId) {
+		apply(() -> {
+			Integer parentSlot = slotById.get(parentId);
+			Integer childSlot = slotById.get(childId);
+			if (parentSlot == null || childSlot == null) {
+				log.warn("Snapshot link skipped, unknown person: {} -> {}", parentId, childId);
+				return;
+			}
+			if (parent[childSlot] == parentSlot) {
+				return;
+			}
+			int oldParent = parent[childSlot];
+			if (oldParent != NONE) {
+				detach(childSlot);
+				removeFromAncestors(oldParent, childSlot);
+			}
+			attach(parentSlot, childSlot);
+			addToAncestors(childSlot);
+		});
+	}
+
+	/**
+	 * Remove a person. Its children become detached, mirroring DETACH DELETE.
+	 */
+	public void remove(String id) {
+		apply(() -> {
+			Integer slot = slotById.remove(id);
+			if (slot == null) {
+				return;
+			}
+			int oldParent = parent[slot];
+			detach(slot);
+			if (oldParent != NONE) {
+				removeFromAncestors(oldParent, slot);
+			}
+			int child = firstChild[slot];
+			while (child != NONE) {
+				int next = nextSibling[child];
+				parent[child] = NONE;
+				nextSibling[child] = NONE;
+				child = next;
+			}
+			firstChild[slot] = NONE;
+			lastChild[slot] = NONE;
+			clearColumns(slot);
+			release(slot);
+			if (rootSlot == slot) {
+				rootSlot = findRoot();
+			}
+		});
+	}
+
+	/**
+	 * Reset all stored positions to null
+	 */
+	public void clearPositions() {
+		apply(() -> {
+			Arrays.fill(positionX, Double.NaN);
+			Arrays.fill(positionY, Double.NaN);
+		});
+	}
+
+	/**
+	 * Drop the snapshot; it is rebuilt from the repository on the next read
+	 */
+	public void invalidate() {
+		lock.writeLock().lock();
+		try {
+			loaded = false;
+			log.info("Tree snapshot invalidated");
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Apply an incremental write under the write lock. Writes arrive after their
+	 * transaction commits, so one that lands while a load is reading the rows
+	 * waits for the load and is applied on top of it; every write is idempotent,
+	 * so applying one the load already read is harmless. While nothing is loaded
+	 * the write is dropped, since the next load reads it from the repository.
+	 */
+	private void apply(Runnable write) {
+		if (!enabled) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (loaded) {
+				write.run();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// === Loading ===
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				load();
+				loaded = true;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void load() {
+		long start = System.currentTimeMillis();
+		reset(INITIAL_CAPACITY);
+
+		Collection<PersonTreeRow> rows = personRepository.findAllTreeRows();
+		for (PersonTreeRow row : rows) {
+			if (!slotById.containsKey(row.getId())) {
+				writeColumns(allocate(row.getId()), TreeMapper.toPerson(row));
+			}
+		}
+		// Attaching in ID order appends every child
+		List<PersonTreeRow> byId = new ArrayList<>(rows);
+		byId.sort(Comparator.comparing(PersonTreeRow::getId));
+		for (PersonTreeRow row : byId) {
+			if (row.getParentId() != null && slotById.containsKey(row.getParentId())) {
+				attach(slotById.get(row.getParentId()), slotById.get(row.getId()));
+			}
+		}
+		rebuildAggregates();
+		personRepository.findAllDetailsByPersonId().forEach((id, details) -> {
+			Integer slot = slotById.get(id);
+			if (slot != null) {
+				writeDetails(slot, details);
+			}
+		});
+		timelineIndex.sort();
+
+		log.info("Tree snapshot built with {} persons in {} ms", liveCount, System.currentTimeMillis() - start);
+	}
+
+	private void reset(int capacity) {
+		highWater = 0;
+		liveCount = 0;
+		freeCount = 0;
+		rootSlot = NONE;
+		slotById.clear();
+		nameIndex.clear();
+		fuzzyNameIndex.clear();
+		suggestionTrie.clear();
+		facetIndex.clear();
+		timelineIndex.clear();
+		parent = filled(capacity);
+		firstChild = filled(capacity);
+		lastChild = filled(capacity);
+		nextSibling = filled(capacity);
+		freeSlots = new int[16];
+		ids = new String[capacity];
+		names = new String[capacity];
+		levels = new int[capacity];
+		genders = new byte[capacity];
+		positionX = new double[capacity];
+		positionY = new double[capacity];
+		avatars = new String[capacity];
+		addresses = new String[capacity];
+		signatures = new String[capacity];
+		signatureIds = new String[capacity];
+		spouses = new String[capacity];
+		contributorIds = new String[capacity];
+		positionLocked = new byte[capacity];
+		details = new PersonDetailsResponse[capacity];
+		descendantCounts = new int[capacity];
+		subtreeDepths = new int[capacity];
+		descendantsByGender = new int[Gender.values().length][capacity];
+	}
+
+	// === Slot management ===
+
+	private int allocate(String id) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (highWater == ids.length) {
+				grow(ids.length * 2);
+			}
+			slot = highWater++;
+		}
+		parent[slot] = NONE;
+		firstChild[slot] = NONE;
+		lastChild[slot] = NONE;
+		nextSibling[slot] = NONE;
+		ids[slot] = id;
+		descendantCounts[slot] = 0;
+		subtreeDepths[slot] = 0;
+		for (int[] counts : descendantsByGender) {
+			counts[slot] = 0;
+		}
+		slotById.put(id, slot);
+		liveCount++;
+		return slot;
+	}
+
+	private void release(int slot) {
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+		liveCount--;
+	}
+
+	private void grow(int capacity) {
+		int oldCapacity = ids.length;
+		parent = Arrays.copyOf(parent, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		lastChild = Arrays.copyOf(lastChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+		Arrays.fill(parent, oldCapacity, capacity, NONE);
+		Arrays.fill(firstChild, oldCapacity, capacity, NONE);
+		Arrays.fill(lastChild, oldCapacity, capacity, NONE);
+		Arrays.fill(nextSibling, oldCapacity, capacity, NONE);
+		ids = Arrays.copyOf(ids, capacity);
+		names = Arrays.copyOf(names, capacity);
+		levels = Arrays.copyOf(levels, capacity);
+		genders = Arrays.copyOf(genders, capacity);
+		positionX = Arrays.copyOf(positionX, capacity);
+		positionY = Arrays.copyOf(positionY, capacity);
+		avatars = Arrays.copyOf(avatars, capacity);
+		addresses = Arrays.copyOf(addresses, capacity);
+		signatures = Arrays.copyOf(signatures, capacity);
+		signatureIds = Arrays.copyOf(signatureIds, capacity);
+		spouses = Arrays.copyOf(spouses, capacity);
+		contributorIds = Arrays.copyOf(contributorIds, capacity);
+		positionLocked = Arrays.copyOf(positionLocked, capacity);
+		details = Arrays.copyOf(details, capacity);
+		descendantCounts = Arrays.copyOf(descendantCounts, capacity);
+		subtreeDepths = Arrays.copyOf(subtreeDepths, capacity);
+		for (int i = 0; i < descendantsByGender.length; i++) {
+			descendantsByGender[i] = Arrays.copyOf(descendantsByGender[i], capacity);
+		}
+	}
+
+	private static int[] filled(int capacity) {
+		int[] array = new int[capacity];
+		Arrays.fill(array, NONE);
+		return array;
+	}
+
+	// === Structure helpers ===
+
+	private void attach(int parentSlot, int childSlot) {
+		if (parent[childSlot] == parentSlot) {
+			return;
+		}
+		detach(childSlot);
+		parent[childSlot] = parentSlot;
+
+		// Keep siblings ordered by ID, as the child queries return them, so child
+		// offsets in continuation tokens mean the same on both paths and after a reload
+		int last = lastChild[parentSlot];
+		if (last == NONE || ids[last].compareTo(ids[childSlot]) < 0) {
+			nextSibling[childSlot] = NONE;
+			if (last == NONE) {
+				firstChild[parentSlot] = childSlot;
+			} else {
+				nextSibling[last] = childSlot;
+			}
+			lastChild[parentSlot] = childSlot;
+			return;
+		}
+		int previous = NONE;
+		int next = firstChild[parentSlot];
+		while (ids[next].compareTo(ids[childSlot]) < 0) {
+			previous = next;
+			next = nextSibling[next];
+		}
+		nextSibling[childSlot] = next;
+		if (previous == NONE) {
+			firstChild[parentSlot] = childSlot;
+		} else {
+			nextSibling[previous] = childSlot;
+		}
+	}
+
+	private void detach(int slot) {
+		int parentSlot = parent[slot];
+		if (parentSlot == NONE) {
+			return;
+		}
+		int previous = NONE;
+		for (int child = firstChild[parentSlot]; child != NONE; child = nextSibling[child]) {
+			if (child == slot) {
+				if (previous == NONE) {
+					firstChild[parentSlot] = nextSibling[slot];
+				} else {
+					nextSibling[previous] = nextSibling[slot];
+				}
+				if (lastChild[parentSlot] == slot) {
+					lastChild[parentSlot] = previous;
+				}
+				break;
+			}
+			previous = child;
+		}
+		parent[slot] = NONE;
+		nextSibling[slot] = NONE;
+	}
+
+	private int findRoot() {
+		for (int slot = 0; slot < highWater; slot++) {
+			if (ids[slot] != null && levels[slot] == 1) {
+				return slot;
+			}
+		}
+		return NONE;
+	}
+
+	// === Aggregate helpers ===
+
+	/**
+	 * Add a newly attached subtree to the aggregates of all its ancestors
+	 */
+	private void addToAncestors(int slot) {
+		int size = descendantCounts[slot] + 1;
+		int distance = 1;
+		for (int ancestor = parent[slot]; ancestor != NONE; ancestor = parent[ancestor], distance++) {
+			descendantCounts[ancestor] += size;
+			subtreeDepths[ancestor] = Math.max(subtreeDepths[ancestor], subtreeDepths[slot] + distance);
+			addGenderCounts(ancestor, slot, 1);
+		}
+	}
+
+	/**
+	 * Subtract a detached subtree from the aggregates of its former ancestors.
+	 * Depths are recomputed from the remaining children until one no longer changes.
+	 */
+	private void removeFromAncestors(int oldParent, int slot) {
+		int size = descendantCounts[slot] + 1;
+		boolean depthSettled = false;
+		for (int ancestor = oldParent; ancestor != NONE; ancestor = parent[ancestor]) {
+			descendantCounts[ancestor] -= size;
+			addGenderCounts(ancestor, slot, -1);
+			if (!depthSettled) {
+				int depth = 0;
+				for (int child = firstChild[ancestor]; child != NONE; child = nextSibling[child]) {
+					depth = Math.max(depth, subtreeDepths[child] + 1);
+				}
+				depthSettled = depth == subtreeDepths[ancestor];
+				subtreeDepths[ancestor] = depth;
+			}
+		}
+	}
+
+	private void addGenderCounts(int ancestor, int slot, int sign) {
+		for (int[] counts : descendantsByGender) {
+			counts[ancestor] += sign * counts[slot];
+		}
+		if (genders[slot] != 0) {
+			descendantsByGender[genders[slot] - 1][ancestor] += sign;
+		}
+	}
+
+	private void moveGenderCount(int slot, byte oldGender, byte newGender) {
+		for (int ancestor = parent[slot]; ancestor != NONE; ancestor = parent[ancestor]) {
+			if (oldGender != 0) {
+				descendantsByGender[oldGender - 1][ancestor]--;
+			}
+			if (newGender != 0) {
+				descendantsByGender[newGender - 1][ancestor]++;
+			}
+		}
+	}
+
+	/**
+	 * Compute all aggregates bottom-up after a bulk load, in linear time
+	 */
+	private void rebuildAggregates() {
+		int[] order = new int[liveCount];
+		int[] stack = new int[liveCount];
+		int ordered = 0;
+		int top = 0;
+		for (int slot = 0; slot < highWater; slot++) {
+			if (ids[slot] == null || parent[slot] != NONE) {
+				continue;
+			}
+			stack[top++] = slot;
+			while (top > 0) {
+				int current = stack[--top];
+				order[ordered++] = current;
+				for (int child = firstChild[current]; child != NONE; child = nextSibling[child]) {
+					stack[top++] = child;
+				}
+			}
+		}
+
+		// Reverse pre-order visits every child before its parent
+		for (int i = ordered - 1; i >= 0; i--) {
+			int slot = order[i];
+			int parentSlot = parent[slot];
+			if (parentSlot != NONE) {
+				descendantCounts[parentSlot] += descendantCounts[slot] + 1;
+				subtreeDepths[parentSlot] = Math.max(subtreeDepths[parentSlot], subtreeDepths[slot] + 1);
+				addGenderCounts(parentSlot, slot, 1);
+			}
+		}
+	}
+
+	// === Column helpers ===
+
+	private void writeColumns(int slot, Person person) {
+		if (!Objects.equals(names[slot], person.getName())) {
+			nameIndex.put(slot, person.getName());
+			fuzzyNameIndex.put(slot, person.getName());
+			suggestionTrie.put(slot, person.getName());
+		}
+		names[slot] = person.getName();
+		levels[slot] = person.getLevel() != null ? person.getLevel() : NO_LEVEL;
+		genders[slot] = person.getGender() != null ? (byte) (person.getGender().ordinal() + 1) : 0;
+		positionX[slot] = person.getPositionX() != null ? person.getPositionX() : Double.NaN;
+		positionY[slot] = person.getPositionY() != null ? person.getPositionY() : Double.NaN;
+		avatars[slot] = person.getAvatar();
+		addresses[slot] = person.getAddress();
+		facetIndex.put(slot, Facet.ADDRESS, person.getAddress());
+		signatures[slot] = person.getSignature();
+		signatureIds[slot] = person.getSignatureId();
+		spouses[slot] = person.getSpouse();
+		contributorIds[slot] = person.getContributorId();
+		positionLocked[slot] = person.getIsPositionLocked() == null ? 0 : (byte) (person.getIsPositionLocked() ? 2 : 1);
+
+		if (levels[slot] == 1 && rootSlot == NONE) {
+			rootSlot = slot;
+		} else if (rootSlot == slot && levels[slot] != 1) {
+			rootSlot = findRoot();
+		}
+	}
+
+	private void clearColumns(int slot) {
+		ids[slot] = null;
+		names[slot] = null;
+		nameIndex.remove(slot);
+		fuzzyNameIndex.remove(slot);
+		suggestionTrie.remove(slot);
+		facetIndex.remove(slot);
+		timelineIndex.remove(slot);
+		levels[slot] = NO_LEVEL;
+		genders[slot] = 0;
+		positionX[slot] = Double.NaN;
+		positionY[slot] = Double.NaN;
+		avatars[slot] = null;
+		addresses[slot] = null;
+		signatures[slot] = null;
+		signatureIds[slot] = null;
+		spouses[slot] = null;
+		contributorIds[slot] = null;
+		positionLocked[slot] = 0;
+		details[slot] = null;
+	}
+
+	/**
+	 * Store a person's details and index their faceted attributes and dates, or clear them for null details
+	 */
+	private void writeDetails(int slot, PersonDetails personDetails) {
+		details[slot] = TreeMapper.toDetailsResponse(personDetails);
+		for (Facet facet : Facet.values()) {
+			if (facet != Facet.ADDRESS) {
+				facetIndex.put(slot, facet, personDetails != null ? facet.readFrom(personDetails) : null);
+			}
+		}
+		timelineIndex.put(slot, personDetails != null ? personDetails.getDateOfBirth() : null,
+				personDetails != null ? personDetails.getDateOfDeath() : null);
+	}
+
+	/**
+	 * Whether a slot is the given root or below it
+	 */
+	private boolean isInSubtree(int slot, int root) {
+		for (int current = slot; current != NONE; current = parent[current]) {
+			if (current == root) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// === Response mapping ===
+
+	/**
+	 * Build the response tree below a slot without recursion, down to maxDepth.
+	 * Without childs in the projection, only the root is mapped.
+	 */
+	private PersonResponse buildSubtree(int rootSlot, int maxDepth, FieldProjection fields) {
+		PersonResponse root = toResponse(rootSlot, fields);
+		if (!fields.includes(Field.CHILDS)) {
+			return root;
+		}
+		Deque<Integer> slots = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		Deque<PersonResponse> responses = new ArrayDeque<>();
+		slots.push(rootSlot);
+		depths.push(0);
+		responses.push(root);
+
+		while (!slots.isEmpty()) {
+			int slot = slots.pop();
+			int depth = depths.pop();
+			PersonResponse response = responses.pop();
+			if (depth == maxDepth) {
+				int childCount = countChildren(slot);
+				response.setChildCount(childCount);
+				response.setHasMoreChildren(childCount > 0);
+				continue;
+			}
+			for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+				PersonResponse childResponse = toResponse(child, fields);
+				response.getChilds().add(childResponse);
+				slots.push(child);
+				depths.push(depth + 1);
+				responses.push(childResponse);
+			}
+		}
+		return root;
+	}
+
+	private int countChildren(int slot) {
+		int count = 0;
+		for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Next slot in pre-order below root, or NONE when the subtree is exhausted
+	 */
+	private int nextPreOrder(int slot, int root) {
+		if (firstChild[slot] != NONE) {
+			return firstChild[slot];
+		}
+		while (slot != root && slot != NONE) {
+			if (nextSibling[slot] != NONE) {
+				return nextSibling[slot];
+			}
+			slot = parent[slot];
+		}
+		return NONE;
+	}
+
+	/**
+	 * Lazy pre-order traversal holding only the current position between chunks.
+	 * The stream ends early if the current person is removed while streaming.
+	 */
+	private final class PreOrderCursor extends Spliterators.AbstractSpliterator<PersonTreeRow> {
+
+		private static final int CHUNK_SIZE = 512;
+
+		private final int root;
+		private final Deque<PersonTreeRow> buffer = new ArrayDeque<>(CHUNK_SIZE);
+		private int cursor;
+		private String cursorId;
+
+		private PreOrderCursor(int root) {
+			super(Long.MAX_VALUE, ORDERED | NONNULL);
+			this.root = root;
+			this.cursor = root;
+			this.cursorId = ids[root];
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super PersonTreeRow> action) {
+			if (buffer.isEmpty()) {
+				fill();
+			}
+			PersonTreeRow row = buffer.poll();
+			if (row == null) {
+				return false;
+			}
+			action.accept(row);
+			return true;
+		}
+
+		private void fill() {
+			lock.readLock().lock();
+			try {
+				if (cursor == NONE || !cursorId.equals(ids[cursor])) {
+					return;
+				}
+				while (cursor != NONE && buffer.size() < CHUNK_SIZE) {
+					PersonTreeRow row = toRow(cursor);
+					if (cursor == root) {
+						row.setParentId(null);
+					}
+					buffer.add(row);
+					cursor = nextPreOrder(cursor, root);
+				}
+				cursorId = cursor != NONE ? ids[cursor] : null;
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	private PersonTreeRow toRow(int slot) {
+		return PersonTreeRow.builder()
+				.id(ids[slot])
+				.parentId(parent[slot] != NONE ? ids[parent[slot]] : null)
+				.name(names[slot])
+				.gender(genders[slot] != 0 ? Gender.values()[genders[slot] - 1].getDisplayName() : null)
+				.avatar(avatars[slot])
+				.address(addresses[slot])
+				.level(levels[slot] != NO_LEVEL ? levels[slot] : null)
+				.signature(signatures[slot])
+				.signatureId(signatureIds[slot])
+				.spouse(spouses[slot])
+				.contributorId(contributorIds[slot])
+				.isPositionLocked(positionLocked[slot] != 0 ? positionLocked[slot] == 2 : null)
+				.positionX(Double.isNaN(positionX[slot]) ? null : positionX[slot])
+				.positionY(Double.isNaN(positionY[slot]) ? null : positionY[slot])
+				.build();
+	}
+
+	private PersonTreeRow toRowWithChildCount(int slot) {
+		PersonTreeRow row = toRow(slot);
+		row.setChildCount(countChildren(slot));
+		return row;
+	}
+
+	private PersonResponse toResponse(int slot) {
+		return PersonResponse.builder()
+				.id(ids[slot])
+				.name(names[slot])
+				.gender(genders[slot] != 0 ? Gender.values()[genders[slot] - 1].getDisplayName() : null)
+				.avatar(avatars[slot])
+				.address(addresses[slot])
+				.level(levels[slot] != NO_LEVEL ? levels[slot] : null)
+				.signature(signatures[slot])
+				.signatureId(signatureIds[slot])
+				.spouse(spouses[slot])
+				.contributorId(contributorIds[slot])
+				.isPositionLocked(positionLocked[slot] != 0 ? positionLocked[slot] == 2 : null)
+				.positionX(Double.isNaN(positionX[slot]) ? null : positionX[slot])
+				.positionY(Double.isNaN(positionY[slot]) ? null : positionY[slot])
+				.descendantCount(descendantCounts[slot])
+				.subtreeDepth(subtreeDepths[slot])
+				.childs(new ArrayList<>())
+				.build();
+	}
+
+	/**
+	 * Map a slot with only the projected fields; reads no column that was not requested
+	 */
+	private PersonResponse toResponse(int slot, FieldProjection fields) {
+		if (fields.isAll()) {
+			return toResponse(slot);
+		}
+
+		PersonResponse response = new PersonResponse();
+		response.setId(ids[slot]);
+		if (fields.includes(Field.NAME)) {
+			response.setName(names[slot]);
+		}
+		if (fields.includes(Field.GENDER) && genders[slot] != 0) {
+			response.setGender(Gender.values()[genders[slot] - 1].getDisplayName());
+		}
+		if (fields.includes(Field.AVATAR)) {
+			response.setAvatar(avatars[slot]);
+		}
+		if (fields.includes(Field.ADDRESS)) {
+			response.setAddress(addresses[slot]);
+		}
+		if (fields.includes(Field.LEVEL) && levels[slot] != NO_LEVEL) {
+			response.setLevel(levels[slot]);
+		}
+		if (fields.includes(Field.SIGNATURE)) {
+			response.setSignature(signatures[slot]);
+		}
+		if (fields.includes(Field.SIGNATURE_ID)) {
+			response.setSignatureId(signatureIds[slot]);
+		}
+		if (fields.includes(Field.SPOUSE)) {
+			response.setSpouse(spouses[slot]);
+		}
+		if (fields.includes(Field.CONTRIBUTOR_ID)) {
+			response.setContributorId(contributorIds[slot]);
+		}
+		if (fields.includes(Field.IS_POSITION_LOCKED) && positionLocked[slot] != 0) {
+			response.setIsPositionLocked(positionLocked[slot] == 2);
+		}
+		if (fields.includes(Field.POSITION_X) && !Double.isNaN(positionX[slot])) {
+			response.setPositionX(positionX[slot]);
+		}
+		if (fields.includes(Field.POSITION_Y) && !Double.isNaN(positionY[slot])) {
+			response.setPositionY(positionY[slot]);
+		}
+		if (fields.includes(Field.DESCENDANT_COUNT)) {
+			response.setDescendantCount(descendantCounts[slot]);
+		}
+		if (fields.includes(Field.SUBTREE_DEPTH)) {
+			response.setSubtreeDepth(subtreeDepths[slot]);
+		}
+		response.setChilds(fields.includes(Field.CHILDS) ? new ArrayList<>() : null);
+		return response;
+	}
+}
@@ -0,0 +1,144 @@
+package com.familytree.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Case-insensitive substring index over one text per snapshot slot.
+ *
+ * Every lower-cased text is split into overlapping three-character grams,
+ * each mapping to a sorted int array of the slots containing it. A query is
+ * answered by intersecting the postings of its own trigrams, shortest first,
+ * and confirming each candidate with a plain contains check, so results match
+ * a CONTAINS scan exactly. Queries shorter than three characters have no
+ * trigram and fall back to scanning the indexed texts.
+ *
+ * Not thread-safe; TreeSnapshot guards it with its read-write lock.
+ */
+final class TrigramIndex {
+
+	private static final int GRAM = 3;
+	private static final int[] EMPTY = new int[0];
+
+	private final Map<Long, Postings> postings = new HashMap<>();
+	private String[] keys = new String[0];
+
+	/**
+	 * Index the text of a slot, replacing what was indexed for it before
+	 */
+	void put(int slot, String text) {
+		remove(slot);
+		if (text == null) {
+			return;
+		}
+		if (slot >= keys.length) {
+			keys = Arrays.copyOf(keys, Math.max(slot + 1, keys.length * 2));
+		}
+		String key = normalize(text);
+		keys[slot] = key;
+		for (int i = 0; i + GRAM <= key.length(); i++) {
+			postings.computeIfAbsent(trigram(key, i), gram -> new Postings()).add(slot);
+		}
+	}
+
+	/**
+	 * Drop a slot from the index
+	 */
+	void remove(int slot) {
+		if (slot >= keys.length || keys[slot] == null) {
+			return;
+		}
+		String key = keys[slot];
+		keys[slot] = null;
+		for (int i = 0; i + GRAM <= key.length(); i++) {
+			long gram = trigram(key, i);
+			Postings list = postings.get(gram);
+			if (list != null && list.remove(slot) && list.size == 0) {
+				postings.remove(gram);
+			}
+		}
+	}
+
+	void clear() {
+		postings.clear();
+		keys = new String[0];
+	}
+
+	/**
+	 * Find the slots whose text contains the query, ignoring case
+	 *
+	 * @return matching slots in ascending order
+	 */
+	int[] search(String query) {
+		String needle = normalize(query);
+		if (needle.length() < GRAM) {
+			return scan(needle);
+		}
+
+		Set<Long> grams = new LinkedHashSet<>();
+		for (int i = 0; i + GRAM <= needle.length(); i++) {
+			grams.add(trigram(needle, i));
+		}
+		List<Postings> lists = new ArrayList<>(grams.size());
+		for (long gram : grams) {
+			Postings list = postings.get(gram);
+			if (list == null) {
+				return EMPTY;
+			}
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(list -> list.size));
+
+		// Start from the rarest trigram and probe the longer lists by binary search
+		int[] candidates = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+		int count = candidates.length;
+		for (int l = 1; l < lists.size() && count > 0; l++) {
+			Postings list = lists.get(l);
+			int kept = 0;
+			for (int i = 0; i < count; i++) {
+				if (list.contains(candidates[i])) {
+					candidates[kept++] = candidates[i];
+				}
+			}
+			count = kept;
+		}
+
+		// Sharing every trigram does not guarantee they appear contiguously
+		int matched = 0;
+		for (int i = 0; i < count; i++) {
+			if (keys[candidates[i]].contains(needle)) {
+				candidates[matched++] = candidates[i];
+			}
+		}
+		return Arrays.copyOf(candidates, matched);
+	}
+
+	private int[] scan(String needle) {
+		int[] result = new int[16];
+		int count = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null && keys[slot].contains(needle)) {
+				if (count == result.length) {
+					result = Arrays.copyOf(result, count * 2);
+				}
+				result[count++] = slot;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	private static long trigram(String key, int start) {
+		return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+	}
+}
@@ -0,0 +1,113 @@
+package com.familytree.interceptor;
+
+import com.familytree.cache.TreeVersion;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.repository.PersonRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interceptor answering conditional GETs on tree read endpoints from the
+ * in-memory tree version, before any repository or cache lookup.
+ * Person reads use the person's version; everything else the global one.
+ * The ETag is weak since it is shared by every content type and coding.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+	private static final Set<String> PERSON_PATTERNS = Set.of(
+			"/api/family-tree/{id}",
+			"/api/family-tree/{id}/stats"
+	);
+
+	private static final Set<String> TREE_PATTERNS = Set.of(
+			"/api/family-tree",
+			"/api/family-tree/batch",
+			"/api/family-tree/layout",
+			"/api/family-tree/overview",
+			"/api/family-tree/viewport",
+			"/api/family-tree/{id}/descendants",
+			"/api/family-tree/level/{level}",
+			"/api/family-tree/search",
+			"/api/family-tree/search/fuzzy",
+			"/api/family-tree/suggest",
+			"/api/family-tree/facets",
+			"/api/family-tree/timeline",
+			"/api/family-tree/changes"
+	);
+
+	private final TreeVersion treeVersion;
+	private final TreeSnapshot treeSnapshot;
+	private final PersonRepository personRepository;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!HttpMethod.GET.matches(request.getMethod())) {
+			return true;
+		}
+
+		String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String etag;
+		String personId = null;
+		if (PERSON_PATTERNS.contains(pattern)) {
+			@SuppressWarnings("unchecked")
+			Map<String, String> variables = (Map<String, String>)
+					request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			personId = variables.get("id");
+			etag = TreeVersion.etag(treeVersion.personVersion(personId));
+		} else if (TREE_PATTERNS.contains(pattern)) {
+			etag = TreeVersion.etag(treeVersion.current());
+		} else {
+			return true;
+		}
+
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+
+		// Unknown persons share the baseline version, so they must reach the 404
+		if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag) && (personId == null || exists(personId))) {
+			log.debug("Not modified: {} (ETag {})", request.getRequestURI(), etag);
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return false;
+		}
+		return true;
+	}
+
+	private boolean exists(String id) {
+		return treeSnapshot.isEnabled() ? treeSnapshot.contains(id) : personRepository.existsById(id);
+	}
+
+	/**
+	 * Weak comparison, as If-None-Match requires
+	 */
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		String opaqueTag = opaqueTag(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String opaqueTag(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+}
@@ -0,0 +1,350 @@
+package com.familytree.layout;
+
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.PersonChange;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeLayoutResponse;
+import com.familytree.service.FamilyTreeService;
+import com.familytree.sync.ChangeLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Server-side Reingold-Tilford layout of the family tree.
+ *
+ * Every node keeps its x offset from its parent and the left and right
+ * contours of its subtree relative to itself. Children are packed left to
+ * right as close as their contours allow and the parent is centered over its
+ * outermost children. After a mutation only the nodes on the path from the
+ * change to the root are laid out again; all other subtrees keep their
+ * contours. Changes are replayed from the ChangeLog, so the layout follows
+ * the tree version without a full rebuild.
+ *
+ * Stored positions are honored: a node with positionX/positionY keeps them
+ * and its computed descendants move along with it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TreeLayoutEngine {
+
+	private static final double[] LEAF_CONTOUR = {0};
+
+	private final FamilyTreeService familyTreeService;
+	private final ChangeLog changeLog;
+
+	@Value("${app.tree.layout.horizontal-spacing:250}")
+	private double horizontalSpacing;
+
+	@Value("${app.tree.layout.vertical-spacing:200}")
+	private double verticalSpacing;
+
+	private final Map<String, LayoutNode> nodes = new HashMap<>();
+	private LayoutNode root;
+	private long version = -1;
+	private TreeLayoutResponse cached;
+
+	/**
+	 * Get the layout for the current tree version, laying out only what changed
+	 */
+	public synchronized TreeLayoutResponse getLayout() {
+		long head = changeLog.head();
+		if (cached != null && cached.getVersion() == head) {
+			return cached;
+		}
+
+		ChangesResponse changes = root != null ? changeLog.since(version) : null;
+		if (changes == null || changes.isResyncRequired()) {
+			rebuild();
+		} else {
+			changes.getChanges().forEach(this::apply);
+			version = changes.getVersion();
+			if (root == null || !nodes.containsKey(root.id)) {
+				rebuild();
+			}
+		}
+
+		long start = System.nanoTime();
+		int laidOut = relayout();
+		cached = materialize();
+		log.debug("Laid out {} of {} nodes for version {} in {} us",
+				laidOut, cached.getSize(), version, (System.nanoTime() - start) / 1000);
+		return cached;
+	}
+
+	// === Change replay ===
+
+	private void rebuild() {
+		long start = System.currentTimeMillis();
+		// Read the version first; changes racing the read are replayed idempotently later
+		long headVersion = changeLog.head();
+		nodes.clear();
+		root = null;
+
+		try (Stream<PersonTreeRow> rows = familyTreeService.streamFullTree()) {
+			rows.forEach(row -> {
+				LayoutNode node = upsert(row);
+				if (root == null) {
+					root = node;
+				} else {
+					attach(node, nodes.get(row.getParentId()));
+				}
+			});
+		}
+
+		version = headVersion;
+		log.info("Layout tree rebuilt with {} nodes in {} ms", nodes.size(), System.currentTimeMillis() - start);
+	}
+
+	private void apply(PersonChange change) {
+		PersonTreeRow row = change.getPerson();
+		LayoutNode node = nodes.get(change.getPersonId());
+		switch (change.getType()) {
+			case CREATED, MOVED -> {
+				node = upsert(row);
+				attach(node, nodes.get(row.getParentId()));
+			}
+			case UPDATED -> {
+				if (node != null) {
+					node.setStored(row);
+				}
+			}
+			case POSITION_CHANGED -> {
+				if (node != null) {
+					node.storedX = row.getPositionX();
+					node.storedY = row.getPositionY();
+				}
+			}
+			case DELETED -> {
+				if (node != null) {
+					detach(node);
+					// Children are detached along with the person, mirroring DETACH DELETE
+					node.children.forEach(child -> child.parent = null);
+					nodes.remove(node.id);
+				}
+			}
+			case POSITIONS_RESET -> nodes.values().forEach(each -> {
+				each.storedX = null;
+				each.storedY = null;
+			});
+			case DETAILS_CHANGED -> {
+				// Details do not affect the layout
+			}
+		}
+	}
+
+	private LayoutNode upsert(PersonTreeRow row) {
+		LayoutNode node = nodes.computeIfAbsent(row.getId(), LayoutNode::new);
+		node.setStored(row);
+		return node;
+	}
+
+	private void attach(LayoutNode node, LayoutNode parent) {
+		if (node.parent == parent) {
+			return;
+		}
+		detach(node);
+		if (parent != null) {
+			node.parent = parent;
+			parent.children.add(node);
+			markDirty(parent);
+		}
+	}
+
+	private void detach(LayoutNode node) {
+		if (node.parent != null) {
+			node.parent.children.remove(node);
+			markDirty(node.parent);
+			node.parent = null;
+		}
+	}
+
+	/**
+	 * Mark a node and its ancestors for re-layout. Ancestors of a dirty node
+	 * are always dirty, so the walk stops at the first one already marked.
+	 */
+	private static void markDirty(LayoutNode node) {
+		for (LayoutNode current = node; current != null && !current.dirty; current = current.parent) {
+			current.dirty = true;
+		}
+	}
+
+	// === Layout ===
+
+	/**
+	 * Lay out every dirty node, children before parents
+	 *
+	 * @return the number of nodes laid out
+	 */
+	private int relayout() {
+		if (!root.dirty) {
+			return 0;
+		}
+
+		List<LayoutNode> order = new ArrayList<>();
+		Deque<LayoutNode> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			LayoutNode node = stack.pop();
+			order.add(node);
+			for (LayoutNode child : node.children) {
+				if (child.dirty) {
+					stack.push(child);
+				}
+			}
+		}
+
+		for (int i = order.size() - 1; i >= 0; i--) {
+			layout(order.get(i));
+		}
+		return order.size();
+	}
+
+	/**
+	 * Place the children of a node side by side as close as their contours
+	 * allow, center the node over them and derive its own contours
+	 */
+	private void layout(LayoutNode node) {
+		node.dirty = false;
+		List<LayoutNode> children = node.children;
+		if (children.isEmpty()) {
+			node.left = LEAF_CONTOUR;
+			node.right = LEAF_CONTOUR;
+			return;
+		}
+
+		// Contours of the children placed so far, relative to the first child
+		double[] left = children.get(0).left.clone();
+		double[] right = children.get(0).right.clone();
+		double[] positions = new double[children.size()];
+
+		for (int i = 1; i < children.size(); i++) {
+			LayoutNode child = children.get(i);
+			double position = Double.NEGATIVE_INFINITY;
+			int common = Math.min(right.length, child.left.length);
+			for (int depth = 0; depth < common; depth++) {
+				position = Math.max(position, right[depth] - child.left[depth] + horizontalSpacing);
+			}
+			positions[i] = position;
+
+			// The new child is rightmost wherever it reaches; below the others it is also leftmost
+			for (int depth = 0; depth < common; depth++) {
+				right[depth] = position + child.right[depth];
+			}
+			if (child.left.length > left.length) {
+				left = extend(left, child.left, position);
+				right = extend(right, child.right, position);
+			}
+		}
+
+		double center = (positions[0] + positions[positions.length - 1]) / 2;
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).offset = positions[i] - center;
+		}
+
+		node.left = new double[left.length + 1];
+		node.right = new double[right.length + 1];
+		for (int depth = 0; depth < left.length; depth++) {
+			node.left[depth + 1] = left[depth] - center;
+			node.right[depth + 1] = right[depth] - center;
+		}
+	}
+
+	/**
+	 * Lengthen a contour with the deeper levels of a child placed at position
+	 */
+	private static double[] extend(double[] contour, double[] childContour, double position) {
+		double[] extended = new double[childContour.length];
+		System.arraycopy(contour, 0, extended, 0, contour.length);
+		for (int depth = contour.length; depth < childContour.length; depth++) {
+			extended[depth] = position + childContour[depth];
+		}
+		return extended;
+	}
+
+	/**
+	 * Resolve absolute positions in pre-order. Stored positions win; computed
+	 * nodes are placed relative to their parent's final position.
+	 */
+	private TreeLayoutResponse materialize() {
+		List<LayoutNode> order = new ArrayList<>(nodes.size());
+		Deque<LayoutNode> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			LayoutNode node = stack.pop();
+			node.index = order.size();
+			order.add(node);
+			for (int i = node.children.size() - 1; i >= 0; i--) {
+				stack.push(node.children.get(i));
+			}
+		}
+
+		int size = order.size();
+		String[] ids = new String[size];
+		int[] parentIndex = new int[size];
+		double[] x = new double[size];
+		double[] y = new double[size];
+		boolean[] manual = new boolean[size];
+		boolean[] locked = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			LayoutNode node = order.get(i);
+			int parent = node == root ? -1 : node.parent.index;
+			ids[i] = node.id;
+			parentIndex[i] = parent;
+			x[i] = node.storedX != null ? node.storedX : parent < 0 ? 0 : x[parent] + node.offset;
+			y[i] = node.storedY != null ? node.storedY : parent < 0 ? 0 : y[parent] + verticalSpacing;
+			manual[i] = node.storedX != null || node.storedY != null;
+			locked[i] = node.locked;
+		}
+
+		return TreeLayoutResponse.builder()
+				.version(version)
+				.size(size)
+				.ids(ids)
+				.parentIndex(parentIndex)
+				.x(x)
+				.y(y)
+				.manual(manual)
+				.locked(locked)
+				.build();
+	}
+
+	/**
+	 * Layout state of one person
+	 */
+	private static final class LayoutNode {
+		private final String id;
+		private final List<LayoutNode> children = new ArrayList<>();
+		private LayoutNode parent;
+		private Double storedX;
+		private Double storedY;
+		private boolean locked;
+
+		// Offset of this node's x from its parent's, and subtree contours relative to this node
+		private double offset;
+		private double[] left = LEAF_CONTOUR;
+		private double[] right = LEAF_CONTOUR;
+		private boolean dirty = true;
+		private int index;
+
+		private LayoutNode(String id) {
+			this.id = id;
+		}
+
+		private void setStored(PersonTreeRow row) {
+			storedX = row.getPositionX();
+			storedY = row.getPositionY();
+			locked = Boolean.TRUE.equals(row.getIsPositionLocked());
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package com.familytree.layout;
+
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeLayoutResponse;
+import com.familytree.dto.ViewportEdge;
+import com.familytree.dto.ViewportNode;
+import com.familytree.dto.ViewportResponse;
+import com.familytree.exception.InvalidDataException;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.repository.PersonRepository;
+import com.familytree.util.FieldProjection;
+import com.familytree.util.TreeMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Uniform-grid index over the canvas positions of the tree layout.
+ *
+ * Each person sits in the grid cell covering its position, so a viewport
+ * query only visits the cells overlapping the rectangle. The grid follows
+ * the TreeLayoutEngine: when the tree version moves on, the new layout is
+ * compared with the indexed positions and only persons that moved, appeared
+ * or disappeared change cells.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ViewportIndex {
+
+	private final TreeLayoutEngine treeLayoutEngine;
+	private final TreeSnapshot treeSnapshot;
+	private final PersonRepository personRepository;
+
+	@Value("${app.tree.viewport.cell-size:1000}")
+	private double cellSize;
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final Map<Long, List<Entry>> cells = new HashMap<>();
+	private long version = -1;
+
+	/**
+	 * Get the persons positioned inside a rectangle and the edges reaching them
+	 *
+	 * @throws InvalidDataException if the rectangle is empty
+	 */
+	public ViewportResponse query(double minX, double minY, double maxX, double maxY, FieldProjection fields) {
+		if (minX > maxX || minY > maxY) {
+			throw new InvalidDataException("Viewport min coordinates must not exceed max coordinates");
+		}
+
+		List<Entry> inside = new ArrayList<>();
+		List<ViewportEdge> edges = new ArrayList<>();
+		long queriedVersion;
+		synchronized (this) {
+			queriedVersion = sync();
+			forEachCandidate(minX, minY, maxX, maxY, entry -> {
+				if (entry.contains(minX, minY, maxX, maxY)) {
+					inside.add(entry);
+				}
+			});
+
+			// Each edge is emitted once: by its child when the child is inside,
+			// otherwise by its parent
+			for (Entry entry : inside) {
+				if (entry.parent != null) {
+					edges.add(edge(entry.parent, entry));
+				}
+				for (Entry child : entry.children) {
+					if (!child.contains(minX, minY, maxX, maxY)) {
+						edges.add(edge(entry, child));
+					}
+				}
+			}
+		}
+
+		List<String> ids = inside.stream().map(entry -> entry.id).toList();
+		Map<String, PersonTreeRow> rows = new HashMap<>();
+		Collection<PersonTreeRow> loaded = treeSnapshot.isEnabled()
+				? treeSnapshot.getRows(ids)
+				: personRepository.findRowsByIds(ids);
+		loaded.forEach(row -> rows.put(row.getId(), row));
+
+		List<ViewportNode> nodes = new ArrayList<>(inside.size());
+		for (Entry entry : inside) {
+			PersonTreeRow row = rows.get(entry.id);
+			if (row != null) {
+				nodes.add(ViewportNode.builder()
+						.x(entry.x)
+						.y(entry.y)
+						.person(TreeMapper.toResponse(row, fields))
+						.build());
+			}
+		}
+
+		return ViewportResponse.builder()
+				.version(queriedVersion)
+				.nodes(nodes)
+				.edges(edges)
+				.build();
+	}
+
+	// === Grid maintenance ===
+
+	/**
+	 * Bring the grid up to the current layout
+	 *
+	 * @return the indexed layout version
+	 */
+	private long sync() {
+		TreeLayoutResponse layout = treeLayoutEngine.getLayout();
+		if (layout.getVersion() == version && layout.getSize() == entries.size()) {
+			return version;
+		}
+
+		long start = System.nanoTime();
+		int size = layout.getSize();
+		Entry[] current = new Entry[size];
+		int moved = 0;
+		for (int i = 0; i < size; i++) {
+			Entry entry = entries.computeIfAbsent(layout.getIds()[i], Entry::new);
+			entry.seen = version + 1;
+			current[i] = entry;
+			if (entry.cell == null || entry.x != layout.getX()[i] || entry.y != layout.getY()[i]) {
+				place(entry, layout.getX()[i], layout.getY()[i]);
+				moved++;
+			}
+		}
+
+		for (int i = 0; i < size; i++) {
+			int parentIndex = layout.getParentIndex()[i];
+			reparent(current[i], parentIndex < 0 ? null : current[parentIndex]);
+		}
+
+		List<Entry> removed = entries.values().stream()
+				.filter(entry -> entry.seen != version + 1)
+				.toList();
+		for (Entry entry : removed) {
+			reparent(entry, null);
+			unplace(entry);
+			entries.remove(entry.id);
+		}
+
+		version = layout.getVersion();
+		entries.values().forEach(entry -> entry.seen = version);
+		log.debug("Viewport index synced to version {}: {} moved, {} removed in {} us",
+				version, moved, removed.size(), (System.nanoTime() - start) / 1000);
+		return version;
+	}
+
+	private void place(Entry entry, double x, double y) {
+		long cell = cellKey(cellOf(x), cellOf(y));
+		if (entry.cell == null || entry.cell != cell) {
+			unplace(entry);
+			cells.computeIfAbsent(cell, key -> new ArrayList<>()).add(entry);
+			entry.cell = cell;
+		}
+		entry.x = x;
+		entry.y = y;
+	}
+
+	private void unplace(Entry entry) {
+		if (entry.cell == null) {
+			return;
+		}
+		List<Entry> bucket = cells.get(entry.cell);
+		bucket.remove(entry);
+		if (bucket.isEmpty()) {
+			cells.remove(entry.cell);
+		}
+		entry.cell = null;
+	}
+
+	private static void reparent(Entry entry, Entry parent) {
+		if (entry.parent == parent) {
+			return;
+		}
+		if (entry.parent != null) {
+			entry.parent.children.remove(entry);
+		}
+		entry.parent = parent;
+		if (parent != null) {
+			parent.children.add(entry);
+		}
+	}
+
+	// === Queries ===
+
+	/**
+	 * Visit every entry in the cells overlapping a rectangle. When the
+	 * rectangle covers more cells than are occupied, the occupied cells are
+	 * scanned instead so zoomed-out viewports stay linear in the tree size.
+	 */
+	private void forEachCandidate(double minX, double minY, double maxX, double maxY, Consumer<Entry> action) {
+		long fromX = cellOf(minX);
+		long toX = cellOf(maxX);
+		long fromY = cellOf(minY);
+		long toY = cellOf(maxY);
+		double spanned = (double) (toX - fromX + 1) * (toY - fromY + 1);
+
+		if (spanned > cells.size()) {
+			cells.values().forEach(bucket -> bucket.forEach(action));
+			return;
+		}
+		for (long cellX = fromX; cellX <= toX; cellX++) {
+			for (long cellY = fromY; cellY <= toY; cellY++) {
+				List<Entry> bucket = cells.get(cellKey(cellX, cellY));
+				if (bucket != null) {
+					bucket.forEach(action);
+				}
+			}
+		}
+	}
+
+	private long cellOf(double coordinate) {
+		return (long) Math.floor(coordinate / cellSize);
+	}
+
+	private static long cellKey(long cellX, long cellY) {
+		return (cellX << 32) ^ (cellY & 0xFFFFFFFFL);
+	}
+
+	private static ViewportEdge edge(Entry parent, Entry child) {
+		return ViewportEdge.builder()
+				.parentId(parent.id)
+				.childId(child.id)
+				.parentX(parent.x)
+				.parentY(parent.y)
+				.childX(child.x)
+				.childY(child.y)
+				.build();
+	}
+
+	/**
+	 * Indexed position and tree links of one person
+	 */
+	private static final class Entry {
+		private final String id;
+		private final List<Entry> children = new ArrayList<>();
+		private Entry parent;
+		private double x;
+		private double y;
+		private Long cell;
+		private long seen;
+
+		private Entry(String id) {
+			this.id = id;
+		}
+
+		private boolean contains(double minX, double minY, double maxX, double maxY) {
+			return x >= minX && x <= maxX && y >= minY && y <= maxY;
+		}
+	}
+}
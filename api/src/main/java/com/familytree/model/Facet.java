@@ -0,0 +1,51 @@
+package com.familytree.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Person attributes that can be counted and filtered on.
+ * Address belongs to the Person node, the others to its PersonDetails.
+ */
+public enum Facet {
+	ADDRESS("address"),
+	PLACE_OF_BIRTH("placeOfBirth"),
+	PLACE_OF_DEATH("placeOfDeath"),
+	PROFESSION("profession"),
+	INSTITUTION("institution");
+
+	private final String fieldName;
+
+	Facet(String fieldName) {
+		this.fieldName = fieldName;
+	}
+
+	/**
+	 * Get the property name of this facet, also used as request parameter and response key
+	 *
+	 * @return the field name
+	 */
+	@JsonValue
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	/**
+	 * Read this facet's value from person details
+	 *
+	 * @return the value, or null for ADDRESS, which is not part of the details
+	 */
+	public String readFrom(PersonDetails details) {
+		return switch (this) {
+			case ADDRESS -> null;
+			case PLACE_OF_BIRTH -> details.getPlaceOfBirth();
+			case PLACE_OF_DEATH -> details.getPlaceOfDeath();
+			case PROFESSION -> details.getProfession();
+			case INSTITUTION -> details.getInstitution();
+		};
+	}
+
+	@Override
+	public String toString() {
+		return fieldName;
+	}
+}
@@ -81,6 +81,10 @@ public class Person {
 	@Property("updatedAt")
 	private LocalDateTime updatedAt;
 
+	// Tree version of the last change to this person or its children
+	@Property("version")
+	private Long version;
+
 	/**
 	 * Constructor for creating a person without children
 	 */
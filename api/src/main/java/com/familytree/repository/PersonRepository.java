@@ -6,14 +6,16 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
- * Repository interface for Person entity with custom Cypher queries
+ * Repository interface for Person entity with custom Cypher queries.
+ * Subtree reads go through the flat-row queries of {@link PersonTreeRowRepository}.
  */
 @Repository
-public interface PersonRepository extends Neo4jRepository<Person, String> {
+public interface PersonRepository extends Neo4jRepository<Person, String>, PersonTreeRowRepository {
 
 	/**
 	 * Find root node (typically level 1)
@@ -29,25 +31,12 @@ public interface PersonRepository extends Neo4jRepository<Person, String> {
 	Optional<Person> findByIdWithChildren(@Param("id") String id);
 
 	/**
-	 * Find person by ID with all descendants (full subtree)
-	 * Using depth parameter to control recursion
+	 * Find several persons by ID, each with its children (depth = 1), in one query
 	 */
-	@Query("MATCH (p:Person {id: $id}) " +
-			"OPTIONAL MATCH path = (p)-[:PARENT_OF*]->(descendant:Person) " +
-			"RETURN p, collect(descendant), collect(relationships(path))")
-	Optional<Person> findByIdWithAllDescendants(@Param("id") String id);
-
-	/**
-	 * Get full tree starting from root node with all relationships
-	 */
-	@Query("MATCH (root:Person) WHERE root.level = 1 " +
-			"CALL { " +
-			"  WITH root " +
-			"  MATCH path = (root)-[:PARENT_OF*0..]->(descendant:Person) " +
-			"  RETURN collect(DISTINCT descendant) as descendants, collect(relationships(path)) as rels " +
-			"} " +
-			"RETURN root, descendants, rels")
-	Optional<Person> findFullTree();
+	@Query("MATCH (p:Person) WHERE p.id IN $ids " +
+			"OPTIONAL MATCH (p)-[:PARENT_OF]->(child:Person) " +
+			"RETURN p, collect(child) as children")
+	List<Person> findAllByIdWithChildren(@Param("ids") Collection<String> ids);
 
 	/**
 	 * Find person with all ancestors
@@ -56,14 +45,6 @@ public interface PersonRepository extends Neo4jRepository<Person, String> {
 			"RETURN collect(DISTINCT ancestor) as ancestors, p")
 	Optional<Person> findPersonWithAncestors(@Param("id") String id);
 
-	/**
-	 * Search persons by name (case-insensitive)
-	 */
-	@Query("MATCH (p:Person) " +
-			"WHERE toLower(p.name) CONTAINS toLower($name) " +
-			"RETURN p")
-	List<Person> searchByName(@Param("name") String name);
-
 	/**
 	 * Find all persons at a specific generation level
 	 */
@@ -101,4 +82,29 @@ public interface PersonRepository extends Neo4jRepository<Person, String> {
 			"MERGE (parent)-[:PARENT_OF]->(child)")
 	void createParentChildRelationship(@Param("parentId") String parentId,
 	                                   @Param("childId") String childId);
+
+	/**
+	 * Find the ID of a person's parent
+	 */
+	@Query("MATCH (parent:Person)-[:PARENT_OF]->(:Person {id: $id}) " +
+			"RETURN parent.id")
+	Optional<String> findParentId(@Param("id") String id);
+
+	/**
+	 * Check whether a person is the given ancestor or one of its descendants
+	 */
+	@Query("MATCH (ancestor:Person {id: $ancestorId}) " +
+			"RETURN EXISTS { (ancestor)-[:PARENT_OF*0..]->(:Person {id: $id}) }")
+	boolean isSelfOrDescendant(@Param("ancestorId") String ancestorId,
+	                           @Param("id") String id);
+
+	/**
+	 * Replace a person's PARENT_OF relationship with one from a new parent
+	 */
+	@Query("MATCH (child:Person {id: $childId}), (parent:Person {id: $parentId}) " +
+			"OPTIONAL MATCH (:Person)-[old:PARENT_OF]->(child) " +
+			"DELETE old " +
+			"MERGE (parent)-[:PARENT_OF]->(child)")
+	void moveToParent(@Param("parentId") String parentId,
+	                  @Param("childId") String childId);
 }
@@ -0,0 +1,84 @@
+package com.familytree.repository;
+
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.model.PersonDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment returning the tree as flat rows (one row per person).
+ * Avoids collecting relationships per path, which grows quadratically with depth.
+ */
+public interface PersonTreeRowRepository {
+
+	/**
+	 * Find a person and all descendants as flat rows, each with its parent ID.
+	 * Empty if the person does not exist.
+	 */
+	Collection<PersonTreeRow> findDescendantRows(String id);
+
+	/**
+	 * Find a person and descendants down to the given depth as flat rows.
+	 * Rows at the cutoff carry the number of their direct children.
+	 */
+	Collection<PersonTreeRow> findDescendantRows(String id, int depth);
+
+	/**
+	 * Find the children of several parents as flat rows, each with its own child count.
+	 * Rows are ordered by the position of the parent in parentIds, then by child ID.
+	 */
+	List<PersonTreeRow> findChildRows(List<String> parentIds, int skip, int limit);
+
+	/**
+	 * Stream a person and all descendants as flat rows in pre-order, children
+	 * ordered by ID. The subtree is expanded in one read transaction as rows are
+	 * consumed, so the first row arrives before the last is read. The stream
+	 * must be closed to release the session.
+	 */
+	Stream<PersonTreeRow> streamDescendantRows(String id);
+
+	/**
+	 * Find several persons as flat rows, each with its parent ID
+	 */
+	Collection<PersonTreeRow> findRowsByIds(Collection<String> ids);
+
+	/**
+	 * Find every person whose name contains the given text (case-insensitive) as
+	 * rows holding only ID and name, ordered by name then ID
+	 */
+	List<PersonTreeRow> findNameMatches(String name);
+
+	/**
+	 * Find every person as a flat row, each with its parent ID (null for roots)
+	 */
+	Collection<PersonTreeRow> findAllTreeRows();
+
+	/**
+	 * Find the details of every person that has them, keyed by person ID
+	 * (without the person relationship)
+	 */
+	Map<String, PersonDetails> findAllDetailsByPersonId();
+
+	/**
+	 * Search the full-text index over person names and details, most relevant first.
+	 * A person matching through several fields is scored by the sum of its matches.
+	 *
+	 * @param text free text; every word must match a whole word or a word prefix
+	 */
+	List<PersonTreeRow> searchFullText(String text, int skip, int limit);
+
+	/**
+	 * Create the full-text index searched by {@link #searchFullText} unless it exists
+	 */
+	void createFullTextIndex();
+
+	/**
+	 * Aggregate the subtree below a person. Empty if the person does not exist.
+	 */
+	Optional<SubtreeStatsResponse> findSubtreeStats(String id);
+}
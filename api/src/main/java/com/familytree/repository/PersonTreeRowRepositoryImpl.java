@@ -0,0 +1,391 @@
+package com.familytree.repository;
+
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.model.Gender;
+import com.familytree.model.PersonDetails;
+import lombok.RequiredArgsConstructor;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.Value;
+import org.springframework.data.neo4j.core.DatabaseSelectionProvider;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Neo4jClient implementation of {@link PersonTreeRowRepository}
+ */
+@RequiredArgsConstructor
+public class PersonTreeRowRepositoryImpl implements PersonTreeRowRepository {
+
+	private static final String ROW_COLUMNS =
+			"p.id AS id, p.name AS name, p.gender AS gender, p.avatar AS avatar, " +
+			"p.address AS address, p.level AS level, p.signature AS signature, " +
+			"p.signatureId AS signatureId, p.spouse AS spouse, p.contributorId AS contributorId, " +
+			"p.isPositionLocked AS isPositionLocked, p.positionX AS positionX, p.positionY AS positionY";
+
+	private static final String DESCENDANT_ROWS_QUERY =
+			"MATCH (root:Person {id: $id})-[:PARENT_OF*0..]->(p:Person) " +
+			"OPTIONAL MATCH (parent:Person)-[:PARENT_OF]->(p) " +
+			"RETURN " + ROW_COLUMNS + ", CASE WHEN p = root THEN null ELSE parent.id END AS parentId";
+
+	private static final String ROOT_ROW_QUERY =
+			"MATCH (p:Person {id: $id}) " +
+			"RETURN " + ROW_COLUMNS + ", null AS parentId, COUNT { (p)-[:PARENT_OF]->(:Person) } AS childCount";
+
+	private static final String CHILDREN_OF_QUERY =
+			"UNWIND $parentIds AS parentId " +
+			"MATCH (parent:Person {id: parentId})-[:PARENT_OF]->(p:Person) " +
+			"RETURN " + ROW_COLUMNS + ", parent.id AS parentId, COUNT { (p)-[:PARENT_OF]->(:Person) } AS childCount " +
+			"ORDER BY p.id";
+
+	// Persons whose children one round trip of a pre-order stream fetches at most
+	private static final int EXPAND_BATCH = 100;
+
+	// Variable-length bounds cannot be parameters, so the depth is formatted in
+	private static final String BOUNDED_DESCENDANT_ROWS_QUERY =
+			"MATCH path = (root:Person {id: $id})-[:PARENT_OF*0..%d]->(p:Person) " +
+			"OPTIONAL MATCH (parent:Person)-[:PARENT_OF]->(p) " +
+			"RETURN " + ROW_COLUMNS + ", CASE WHEN p = root THEN null ELSE parent.id END AS parentId, " +
+			"CASE WHEN length(path) = $depth THEN COUNT { (p)-[:PARENT_OF]->(:Person) } ELSE null END AS childCount";
+
+	private static final String CHILD_ROWS_QUERY =
+			"UNWIND range(0, size($parentIds) - 1) AS i " +
+			"MATCH (parent:Person {id: $parentIds[i]})-[:PARENT_OF]->(p:Person) " +
+			"RETURN " + ROW_COLUMNS + ", parent.id AS parentId, COUNT { (p)-[:PARENT_OF]->(:Person) } AS childCount " +
+			"ORDER BY i, p.id SKIP $skip LIMIT $limit";
+
+	private static final String ALL_ROWS_QUERY =
+			"MATCH (p:Person) " +
+			"OPTIONAL MATCH (parent:Person)-[:PARENT_OF]->(p) " +
+			"RETURN " + ROW_COLUMNS + ", parent.id AS parentId";
+
+	private static final String NAME_MATCHES_QUERY =
+			"MATCH (p:Person) WHERE toLower(p.name) CONTAINS toLower($name) " +
+			"RETURN p.id AS id, p.name AS name ORDER BY p.name, p.id";
+
+	private static final String ALL_DETAILS_QUERY =
+			"MATCH (p:Person)-[:HAS_DETAILS]->(d:PersonDetails) " +
+			"RETURN p.id AS personId, d.id AS id, d.fullName AS fullName, d.nickName AS nickName, d.title AS title, " +
+			"d.dateOfBirth AS dateOfBirth, d.dateOfDeath AS dateOfDeath, " +
+			"d.placeOfBirth AS placeOfBirth, d.placeOfDeath AS placeOfDeath, " +
+			"d.profession AS profession, d.institution AS institution, d.bio AS bio, d.cell AS cell, " +
+			"d.email AS email, d.facebook AS facebook, d.linkedIn AS linkedIn, d.website AS website, " +
+			"d.anyOther AS anyOther, d.createdAt AS createdAt, d.updatedAt AS updatedAt";
+
+	private static final String ROWS_BY_IDS_QUERY =
+			"MATCH (p:Person) WHERE p.id IN $ids " +
+			"OPTIONAL MATCH (parent:Person)-[:PARENT_OF]->(p) " +
+			"RETURN " + ROW_COLUMNS + ", parent.id AS parentId";
+
+	private static final String SUBTREE_STATS_QUERY =
+			"MATCH (root:Person {id: $id}) " +
+			"OPTIONAL MATCH path = (root)-[:PARENT_OF*]->(d:Person) " +
+			"WITH root, d, length(path) AS distance " +
+			"RETURN COUNT { (root)-[:PARENT_OF]->(:Person) } AS childCount, count(d) AS descendantCount, " +
+			"coalesce(max(distance), 0) AS subtreeDepth, collect(d.gender) AS genders";
+
+	private static final String FULLTEXT_INDEX = "person_search";
+
+	private static final String CREATE_FULLTEXT_INDEX_QUERY =
+			"CREATE FULLTEXT INDEX " + FULLTEXT_INDEX + " IF NOT EXISTS " +
+			"FOR (n:Person|PersonDetails) ON EACH [n.name, n.fullName, n.nickName, n.profession, n.placeOfBirth]";
+
+	// Details hits are credited to their person; a person matching in several fields adds up its scores
+	private static final String FULLTEXT_SEARCH_QUERY =
+			"CALL db.index.fulltext.queryNodes('" + FULLTEXT_INDEX + "', $query) YIELD node, score " +
+			"OPTIONAL MATCH (owner:Person)-[:HAS_DETAILS]->(node) " +
+			"WITH coalesce(owner, node) AS p, score WHERE p:Person " +
+			"WITH p, sum(score) AS score " +
+			"OPTIONAL MATCH (parent:Person)-[:PARENT_OF]->(p) " +
+			"RETURN " + ROW_COLUMNS + ", parent.id AS parentId " +
+			"ORDER BY score DESC, p.id SKIP $skip LIMIT $limit";
+
+	private static final Pattern LUCENE_SPECIAL = Pattern.compile("[+\\-&|!(){}\\[\\]^\"~*?:\\\\/]");
+
+	private final Neo4jClient neo4jClient;
+	private final Driver driver;
+	private final DatabaseSelectionProvider databaseSelectionProvider;
+
+	@Override
+	public Collection<PersonTreeRow> findDescendantRows(String id) {
+		return neo4jClient.query(DESCENDANT_ROWS_QUERY)
+				.bind(id).to("id")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all();
+	}
+
+	@Override
+	public Collection<PersonTreeRow> findDescendantRows(String id, int depth) {
+		return neo4jClient.query(String.format(BOUNDED_DESCENDANT_ROWS_QUERY, depth))
+				.bind(id).to("id")
+				.bind(depth).to("depth")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all();
+	}
+
+	@Override
+	public List<PersonTreeRow> findChildRows(List<String> parentIds, int skip, int limit) {
+		return List.copyOf(neo4jClient.query(CHILD_ROWS_QUERY)
+				.bind(parentIds).to("parentIds")
+				.bind(skip).to("skip")
+				.bind(limit).to("limit")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all());
+	}
+
+	@Override
+	public Stream<PersonTreeRow> streamDescendantRows(String id) {
+		String database = databaseSelectionProvider.getDatabaseSelection().getValue();
+		SessionConfig config = database != null ? SessionConfig.forDatabase(database) : SessionConfig.defaultConfig();
+		Session session = driver.session(config);
+		try {
+			Transaction transaction = session.beginTransaction();
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+							new PreOrderRows(transaction, id), Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(() -> {
+						transaction.close();
+						session.close();
+					});
+		} catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public List<PersonTreeRow> findNameMatches(String name) {
+		return List.copyOf(neo4jClient.query(NAME_MATCHES_QUERY)
+				.bind(name).to("name")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> PersonTreeRow.builder()
+						.id(record.get("id").asString())
+						.name(stringOrNull(record.get("name")))
+						.build())
+				.all());
+	}
+
+	@Override
+	public Collection<PersonTreeRow> findAllTreeRows() {
+		return neo4jClient.query(ALL_ROWS_QUERY)
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all();
+	}
+
+	@Override
+	public Map<String, PersonDetails> findAllDetailsByPersonId() {
+		Map<String, PersonDetails> detailsByPersonId = new HashMap<>();
+		neo4jClient.query(ALL_DETAILS_QUERY)
+				.fetch()
+				.all()
+				.forEach(record -> {
+					PersonDetails details = new PersonDetails();
+					details.setId((String) record.get("id"));
+					details.setFullName((String) record.get("fullName"));
+					details.setNickName((String) record.get("nickName"));
+					details.setTitle((String) record.get("title"));
+					details.setDateOfBirth((LocalDate) record.get("dateOfBirth"));
+					details.setDateOfDeath((LocalDate) record.get("dateOfDeath"));
+					details.setPlaceOfBirth((String) record.get("placeOfBirth"));
+					details.setPlaceOfDeath((String) record.get("placeOfDeath"));
+					details.setProfession((String) record.get("profession"));
+					details.setInstitution((String) record.get("institution"));
+					details.setBio((String) record.get("bio"));
+					details.setCell((String) record.get("cell"));
+					details.setEmail((String) record.get("email"));
+					details.setFacebook((String) record.get("facebook"));
+					details.setLinkedIn((String) record.get("linkedIn"));
+					details.setWebsite((String) record.get("website"));
+					details.setAnyOther((String) record.get("anyOther"));
+					details.setCreatedAt((LocalDateTime) record.get("createdAt"));
+					details.setUpdatedAt((LocalDateTime) record.get("updatedAt"));
+					detailsByPersonId.put((String) record.get("personId"), details);
+				});
+		return detailsByPersonId;
+	}
+
+	@Override
+	public Collection<PersonTreeRow> findRowsByIds(Collection<String> ids) {
+		return neo4jClient.query(ROWS_BY_IDS_QUERY)
+				.bind(ids).to("ids")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all();
+	}
+
+	@Override
+	public List<PersonTreeRow> searchFullText(String text, int skip, int limit) {
+		String query = toLuceneQuery(text);
+		if (query.isEmpty()) {
+			return List.of();
+		}
+		return List.copyOf(neo4jClient.query(FULLTEXT_SEARCH_QUERY)
+				.bind(query).to("query")
+				.bind(skip).to("skip")
+				.bind(limit).to("limit")
+				.fetchAs(PersonTreeRow.class)
+				.mappedBy((typeSystem, record) -> toRow(record))
+				.all());
+	}
+
+	@Override
+	public void createFullTextIndex() {
+		neo4jClient.query(CREATE_FULLTEXT_INDEX_QUERY).run();
+	}
+
+	@Override
+	public Optional<SubtreeStatsResponse> findSubtreeStats(String id) {
+		return neo4jClient.query(SUBTREE_STATS_QUERY)
+				.bind(id).to("id")
+				.fetchAs(SubtreeStatsResponse.class)
+				.mappedBy((typeSystem, record) -> {
+					Map<String, Integer> byGender = new LinkedHashMap<>();
+					for (Gender gender : Gender.values()) {
+						byGender.put(gender.getDisplayName(), 0);
+					}
+					for (Value gender : record.get("genders").values()) {
+						byGender.merge(Gender.fromString(gender.asString()).getDisplayName(), 1, Integer::sum);
+					}
+					return SubtreeStatsResponse.builder()
+							.id(id)
+							.childCount(record.get("childCount").asInt())
+							.descendantCount(record.get("descendantCount").asInt())
+							.subtreeDepth(record.get("subtreeDepth").asInt())
+							.descendantsByGender(byGender)
+							.build();
+				})
+				.one();
+	}
+
+	/**
+	 * Map a driver record to a flat row
+	 */
+	static PersonTreeRow toRow(Record record) {
+		String gender = stringOrNull(record.get("gender"));
+		return PersonTreeRow.builder()
+				.id(stringOrNull(record.get("id")))
+				.parentId(stringOrNull(record.get("parentId")))
+				.name(stringOrNull(record.get("name")))
+				.gender(gender != null ? Gender.fromString(gender).getDisplayName() : null)
+				.avatar(stringOrNull(record.get("avatar")))
+				.address(stringOrNull(record.get("address")))
+				.level(record.get("level").isNull() ? null : record.get("level").asInt())
+				.signature(stringOrNull(record.get("signature")))
+				.signatureId(stringOrNull(record.get("signatureId")))
+				.spouse(stringOrNull(record.get("spouse")))
+				.contributorId(stringOrNull(record.get("contributorId")))
+				.isPositionLocked(record.get("isPositionLocked").isNull() ? null : record.get("isPositionLocked").asBoolean())
+				.positionX(record.get("positionX").isNull() ? null : record.get("positionX").asDouble())
+				.positionY(record.get("positionY").isNull() ? null : record.get("positionY").asDouble())
+				.childCount(record.containsKey("childCount") && !record.get("childCount").isNull()
+						? record.get("childCount").asInt() : null)
+				.build();
+	}
+
+	/**
+	 * Turn free text into a Lucene query requiring every word. Each word
+	 * matches exactly (boosted) or as a prefix, so partially typed names match
+	 * while whole-word hits still rank first.
+	 */
+	static String toLuceneQuery(String text) {
+		return Arrays.stream(text.trim().toLowerCase(Locale.ROOT).split("\\s+"))
+				.map(word -> LUCENE_SPECIAL.matcher(word).replaceAll("\\\\$0"))
+				.filter(word -> !word.isEmpty())
+				.map(word -> "(" + word + "^2 OR " + word + "*)")
+				.collect(Collectors.joining(" AND "));
+	}
+
+	private static String stringOrNull(Value value) {
+		return value.isNull() ? null : value.asString();
+	}
+
+	/**
+	 * Depth-first walk of a subtree, children ordered by ID. Rows are produced
+	 * as the consumer pulls them: children are fetched for the next person due
+	 * to be expanded, together with the next ones waiting on the stack, so
+	 * nothing is sorted server side and memory grows with the open siblings
+	 * rather than with the tree.
+	 */
+	private static final class PreOrderRows implements Iterator<PersonTreeRow> {
+
+		private final Transaction transaction;
+		private final Deque<PersonTreeRow> stack = new ArrayDeque<>();
+		// Children fetched ahead for persons still on the stack
+		private final Map<String, List<PersonTreeRow>> fetched = new HashMap<>();
+
+		private PreOrderRows(Transaction transaction, String id) {
+			this.transaction = transaction;
+			transaction.run(ROOT_ROW_QUERY, Map.of("id", id)).stream()
+					.map(PersonTreeRowRepositoryImpl::toRow)
+					.forEach(stack::push);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public PersonTreeRow next() {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			PersonTreeRow row = stack.pop();
+			if (row.getChildCount() != null && row.getChildCount() > 0) {
+				if (!fetched.containsKey(row.getId())) {
+					fetchChildren(row);
+				}
+				List<PersonTreeRow> children = fetched.remove(row.getId());
+				for (int i = children.size() - 1; i >= 0; i--) {
+					stack.push(children.get(i));
+				}
+			}
+			// The count only steers the walk; streamed rows never carried it
+			row.setChildCount(null);
+			return row;
+		}
+
+		private void fetchChildren(PersonTreeRow row) {
+			List<String> parentIds = new ArrayList<>();
+			parentIds.add(row.getId());
+			for (Iterator<PersonTreeRow> waiting = stack.iterator(); waiting.hasNext() && parentIds.size() < EXPAND_BATCH; ) {
+				PersonTreeRow next = waiting.next();
+				if (next.getChildCount() != null && next.getChildCount() > 0 && !fetched.containsKey(next.getId())) {
+					parentIds.add(next.getId());
+				}
+			}
+			parentIds.forEach(parentId -> fetched.put(parentId, new ArrayList<>()));
+			transaction.run(CHILDREN_OF_QUERY, Map.of("parentIds", parentIds)).stream()
+					.map(PersonTreeRowRepositoryImpl::toRow)
+					.forEach(child -> fetched.get(child.getParentId()).add(child));
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.familytree.repository;
+
+import com.familytree.cache.TreeVersion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates missing Neo4j schema on startup: the uniqueness constraint on the
+ * TreeMeta node holding the tree version and, when full-text search is
+ * enabled, the full-text index it searches.
+ * Runs before the DataLoader so an initial load is indexed as it is written.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaInitializer implements CommandLineRunner {
+
+	private final TreeVersion treeVersion;
+	private final PersonRepository personRepository;
+
+	@Value("${app.search.fulltext.enabled:false}")
+	private boolean fullTextSearch;
+
+	@Override
+	public void run(String... args) {
+		treeVersion.createConstraint();
+		log.info("Tree version constraint is in place");
+
+		if (fullTextSearch) {
+			personRepository.createFullTextIndex();
+			log.info("Full-text search index is in place");
+		}
+	}
+}
@@ -1,13 +1,25 @@
 package com.familytree.service;
 
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.FacetSearchResponse;
+import com.familytree.dto.FlatTreeResponse;
+import com.familytree.dto.NameSuggestion;
 import com.familytree.dto.PersonDetailsRequest;
 import com.familytree.dto.PersonDetailsResponse;
 import com.familytree.dto.PersonPatchRequest;
 import com.familytree.dto.PersonRequest;
 import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.dto.TimelineResponse;
+import com.familytree.dto.TreeOverviewResponse;
+import com.familytree.model.Facet;
+import com.familytree.util.FieldProjection;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service interface for family tree operations
@@ -15,19 +27,52 @@ import java.util.Optional;
 public interface FamilyTreeService {
 
 	/**
-	 * Get the complete family tree starting from root
+	 * Get the complete family tree starting from root, with only the projected fields
 	 */
-	PersonResponse getFullTree();
+	PersonResponse getFullTree(FieldProjection fields);
+
+	/**
+	 * Get the complete family tree in the columnar flat format
+	 */
+	FlatTreeResponse getFullTreeFlat();
+
+	/**
+	 * Stream the complete family tree as flat rows in pre-order.
+	 * The returned stream must be closed by the caller.
+	 */
+	Stream<PersonTreeRow> streamFullTree();
 
 	/**
 	 * Get a specific person by ID with immediate children
 	 */
 	PersonResponse getPersonById(String id);
 
+	/**
+	 * Get several persons by ID with immediate children, in request order.
+	 * Unknown IDs are left out of the result.
+	 */
+	List<PersonResponse> getPersonsByIds(List<String> ids);
+
 	/**
 	 * Get a person by ID with full subtree
 	 */
-	PersonResponse getPersonWithAllDescendants(String id);
+	PersonResponse getPersonWithAllDescendants(String id, FieldProjection fields);
+
+	/**
+	 * Get a person by ID with descendants down to the given depth
+	 */
+	PersonResponse getPersonWithDescendants(String id, int depth, FieldProjection fields);
+
+	/**
+	 * Get a person by ID with descendants, expanded breadth-first up to maxNodes nodes.
+	 * Unexpanded nodes carry a continuation token.
+	 */
+	PersonResponse getPersonWithDescendantsPage(String id, int maxNodes, Integer depth, FieldProjection fields);
+
+	/**
+	 * Continue a paged subtree from a continuation token
+	 */
+	PersonResponse continueDescendantsPage(String continuationToken, int maxNodes, Integer depth, FieldProjection fields);
 
 	/**
 	 * Create a new person
@@ -45,20 +90,74 @@ public interface FamilyTreeService {
 	void deletePerson(String id);
 
 	/**
-	 * Search persons by name
+	 * Search persons by name, one page at a time. Ordered by relevance when
+	 * full-text search is enabled, otherwise by name.
+	 */
+	List<PersonResponse> searchByName(String name, int offset, int limit, FieldProjection fields);
+
+	/**
+	 * Search persons by name tolerating spelling variants, closest matches first
+	 *
+	 * @param maxDistance largest number of edits allowed per word of the name
 	 */
-	List<PersonResponse> searchByName(String name);
+	List<PersonResponse> searchFuzzy(String name, int maxDistance, int offset, int limit, FieldProjection fields);
+
+	/**
+	 * Complete the last word of a typed name prefix, most frequent words first.
+	 * Not cached: answers come from a precomputed index and short prefixes
+	 * would only crowd out search results.
+	 */
+	List<NameSuggestion> suggest(String prefix, int limit);
+
+	/**
+	 * Find persons by address and details attributes, one page at a time, with
+	 * the value counts of every facet among all matching persons.
+	 * Filters on different facets must all match; any value of one facet matches it.
+	 *
+	 * @param facetLimit number of values reported per facet, most frequent first
+	 */
+	FacetSearchResponse searchFacets(Map<Facet, List<String>> filters, int offset, int limit, int facetLimit,
+									 FieldProjection fields);
+
+	/**
+	 * Find persons born and died within date ranges, one page at a time, in date order.
+	 * Bounds are inclusive and given as a year (yyyy) or a date (yyyy-MM-dd); at least one is required.
+	 *
+	 * @param rootId limits the result to this person and its descendants; null for everyone
+	 */
+	TimelineResponse getTimeline(String bornFrom, String bornTo, String diedFrom, String diedTo, String rootId,
+								 int offset, int limit, FieldProjection fields);
 
 	/**
 	 * Get all persons at a specific generation level
 	 */
-	List<PersonResponse> getPersonsByLevel(Integer level);
+	List<PersonResponse> getPersonsByLevel(Integer level, FieldProjection fields);
 
 	/**
 	 * Get total count of persons in the tree
 	 */
 	long getTotalCount();
 
+	/**
+	 * Get the descendant count, subtree depth and per-gender descendant counts of a person
+	 */
+	SubtreeStatsResponse getSubtreeStats(String id);
+
+	/**
+	 * Get a collapsed overview of the whole tree, cached per tree version
+	 *
+	 * @param minBranchSize branches with fewer persons are collapsed into summary nodes
+	 * @param maxDepth branches starting this many generations below the root are collapsed
+	 * @param maxNodes upper bound on the number of nodes returned
+	 */
+	TreeOverviewResponse getOverview(int minBranchSize, int maxDepth, int maxNodes);
+
+	/**
+	 * Get the changes committed after a tree version.
+	 * Requires a full resync when the change log no longer reaches back that far.
+	 */
+	ChangesResponse getChangesSince(long since);
+
 	/**
 	 * Reload data from JSON file (admin operation)
 	 */
@@ -1,33 +1,71 @@
 package com.familytree.service.impl;
 
+import com.familytree.cache.SearchResultCache;
+import com.familytree.cache.TreeVersion;
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.FacetSearchResponse;
+import com.familytree.dto.FlatTreeResponse;
+import com.familytree.dto.NameSuggestion;
+import com.familytree.dto.PersonChange;
 import com.familytree.dto.PersonDetailsRequest;
 import com.familytree.dto.PersonDetailsResponse;
 import com.familytree.dto.PersonPatchRequest;
 import com.familytree.dto.PersonRequest;
 import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.dto.TimelineResponse;
+import com.familytree.dto.TreeOverviewResponse;
 import com.familytree.exception.InvalidDataException;
 import com.familytree.exception.PersonAlreadyExistsException;
 import com.familytree.exception.PersonNotFoundException;
+import com.familytree.exception.SnapshotDisabledException;
+import com.familytree.index.SuggestionTrie;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.model.Facet;
 import com.familytree.model.Gender;
 import com.familytree.model.Person;
 import com.familytree.model.PersonDetails;
 import com.familytree.repository.PersonDetailsRepository;
 import com.familytree.repository.PersonRepository;
 import com.familytree.service.FamilyTreeService;
+import com.familytree.sync.ChangeLog;
+import com.familytree.util.ContinuationToken;
 import com.familytree.util.DataLoader;
+import com.familytree.util.FieldProjection;
+import com.familytree.util.FlatTreeEncoder;
+import com.familytree.util.SubtreePager;
+import com.familytree.util.TransactionHooks;
+import com.familytree.util.TreeAssembler;
 import com.familytree.util.TreeMapper;
+import com.familytree.util.TreeOverviewBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.familytree.config.CacheConfig.*;
 import static com.familytree.util.TreeMapper.getPersonDetailsResponse;
@@ -41,24 +79,66 @@ import static com.familytree.util.TreeMapper.getPersonDetailsResponse;
 @Transactional
 public class FamilyTreeServiceImpl implements FamilyTreeService {
 
+	private static final int MAX_BATCH_SIZE = 500;
+	private static final int MAX_SEARCH_LIMIT = 1000;
+	private static final int MAX_FUZZY_DISTANCE = 3;
+	private static final int MAX_FACET_LIMIT = 100;
+	private static final Pattern YEAR = Pattern.compile("\\d{4}");
+
 	private final PersonRepository personRepository;
 	private final PersonDetailsRepository personDetailsRepository;
 	private final DataLoader dataLoader;
+	private final TreeSnapshot treeSnapshot;
+	private final TreeVersion treeVersion;
+	private final ChangeLog changeLog;
+	private final CacheManager cacheManager;
+	private final SearchResultCache searchResultCache;
+
+	@Value("${app.search.fulltext.enabled:false}")
+	private boolean fullTextSearch;
 
 	@Override
 	@Transactional(readOnly = true)
-	@Cacheable(value = FAMILY_TREE_FULL, key = "'fullTree'")
-	public PersonResponse getFullTree() {
-		log.info("Fetching full family tree (cache miss)");
+	@Cacheable(value = FAMILY_TREE_FULL, key = "'fullTree:' + #fields.key")
+	public PersonResponse getFullTree(FieldProjection fields) {
+		log.info("Fetching full family tree with fields {} (cache miss)", fields);
+		checkAggregatesAvailable(fields);
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getFullTree(fields)
+					.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+		}
 
 		Person root = personRepository.findFirstByLevel(1)
 				.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
 
-		// Get the full tree with all descendants
-		Person fullTree = personRepository.findByIdWithAllDescendants(root.getId())
+		// Get the full tree with all descendants as flat rows
+		return TreeAssembler.assemble(personRepository.findDescendantRows(root.getId()), root.getId(), fields)
+				.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = FAMILY_TREE_FULL, key = "'flat'")
+	public FlatTreeResponse getFullTreeFlat() {
+		log.info("Encoding flat family tree (cache miss)");
+		return FlatTreeEncoder.encode(getFullTree(FieldProjection.ALL));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Stream<PersonTreeRow> streamFullTree() {
+		log.info("Streaming full family tree");
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.streamFullTree()
+					.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
+		}
+
+		Person root = personRepository.findFirstByLevel(1)
 				.orElseThrow(() -> new PersonNotFoundException("Root person not found"));
 
-		return TreeMapper.toResponseWithChildren(fullTree);
+		return personRepository.streamDescendantRows(root.getId());
 	}
 
 	@Override
@@ -67,6 +147,11 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	public PersonResponse getPersonById(String id) {
 		log.info("Fetching person by ID: {} (cache miss)", id);
 
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getWithChildren(id)
+					.orElseThrow(() -> new PersonNotFoundException(id));
+		}
+
 		Person person = personRepository.findByIdWithChildren(id)
 				.orElseThrow(() -> new PersonNotFoundException(id));
 
@@ -75,20 +160,96 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 
 	@Override
 	@Transactional(readOnly = true)
-	@Cacheable(value = PERSON_DESCENDANTS, key = "#id")
-	public PersonResponse getPersonWithAllDescendants(String id) {
+	public List<PersonResponse> getPersonsByIds(List<String> ids) {
+		Set<String> uniqueIds = ids == null ? Set.of() : new LinkedHashSet<>(ids);
+		if (uniqueIds.isEmpty()) {
+			throw new InvalidDataException("At least one ID is required");
+		}
+		if (uniqueIds.size() > MAX_BATCH_SIZE) {
+			throw new InvalidDataException("At most " + MAX_BATCH_SIZE + " IDs can be fetched at once");
+		}
+
+		Map<String, PersonResponse> found = getCachedPersons(uniqueIds);
+		List<String> misses = uniqueIds.stream()
+				.filter(id -> !found.containsKey(id))
+				.toList();
+		log.info("Fetching {} persons by ID ({} cache misses)", uniqueIds.size(), misses.size());
+
+		if (!misses.isEmpty()) {
+			Map<String, PersonResponse> loaded = loadPersonsWithChildren(misses);
+			Cache cache = cacheManager.getCache(PERSON_BY_ID);
+			if (cache != null) {
+				loaded.forEach(cache::put);
+			}
+			found.putAll(loaded);
+		}
+
+		return uniqueIds.stream()
+				.map(found::get)
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = PERSON_DESCENDANTS, key = "#id + ':' + #fields.key")
+	public PersonResponse getPersonWithAllDescendants(String id, FieldProjection fields) {
 		log.info("Fetching person with all descendants: {} (cache miss)", id);
+		checkAggregatesAvailable(fields);
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getSubtree(id, fields)
+					.orElseThrow(() -> new PersonNotFoundException(id));
+		}
 
-		Person person = personRepository.findByIdWithAllDescendants(id)
+		return TreeAssembler.assemble(personRepository.findDescendantRows(id), id, fields)
 				.orElseThrow(() -> new PersonNotFoundException(id));
+	}
 
-		return TreeMapper.toResponseWithChildren(person);
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = PERSON_DESCENDANTS_BY_DEPTH, key = "#id + ':' + #depth + ':' + #fields.key")
+	public PersonResponse getPersonWithDescendants(String id, int depth, FieldProjection fields) {
+		log.info("Fetching person with descendants to depth {}: {} (cache miss)", depth, id);
+
+		if (depth < 0) {
+			throw new InvalidDataException("Depth must not be negative");
+		}
+		checkAggregatesAvailable(fields);
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getSubtree(id, depth, fields)
+					.orElseThrow(() -> new PersonNotFoundException(id));
+		}
+
+		return TreeAssembler.assemble(personRepository.findDescendantRows(id, depth), id, fields)
+				.orElseThrow(() -> new PersonNotFoundException(id));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PersonResponse getPersonWithDescendantsPage(String id, int maxNodes, Integer depth,
+	                                                   FieldProjection fields) {
+		log.info("Fetching person with descendants: {} (maxNodes={}, depth={})", id, maxNodes, depth);
+		return pageDescendants(id, 0, maxNodes, depth, fields);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PersonResponse continueDescendantsPage(String continuationToken, int maxNodes, Integer depth,
+	                                              FieldProjection fields) {
+		ContinuationToken token = ContinuationToken.decode(continuationToken);
+		log.info("Continuing descendants of: {} from child {} (maxNodes={}, depth={})",
+				token.getPersonId(), token.getChildOffset(), maxNodes, depth);
+		return pageDescendants(token.getPersonId(), token.getChildOffset(), maxNodes, depth, fields);
 	}
 
 	@Override
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
+			@CacheEvict(value = PERSON_BY_ID, allEntries = true),
 			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
 			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
 			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
@@ -133,13 +294,18 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 
 		// Save person
 		Person savedPerson = personRepository.save(person);
+		TransactionHooks.afterCommit(() -> treeSnapshot.upsert(savedPerson));
 		log.info("Person created: {}", savedPerson.getId());
 
 		// Create relationship with parent if provided
 		if (request.getParentId() != null && !request.getParentId().isEmpty()) {
 			personRepository.createParentChildRelationship(request.getParentId(), savedPerson.getId());
+			TransactionHooks.afterCommit(() -> treeSnapshot.link(request.getParentId(), savedPerson.getId()));
 			log.info("Created PARENT_OF relationship: {} -> {}", request.getParentId(), savedPerson.getId());
 		}
+		long version = treeVersion.increment(savedPerson.getId());
+		changeLog.record(version, PersonChange.Type.CREATED, savedPerson.getId(),
+				TreeMapper.toRow(savedPerson, request.getParentId()));
 
 		return TreeMapper.toResponse(savedPerson);
 	}
@@ -147,8 +313,9 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	@Override
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
-			@CacheEvict(value = PERSON_BY_ID, key = "#id"),
+			@CacheEvict(value = PERSON_BY_ID, allEntries = true),
 			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
 			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
 			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
@@ -202,6 +369,24 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 			updated = true;
 		}
 
+		// Re-parenting moves the whole subtree under the new parent
+		String newParentId = null;
+		String oldParentId = null;
+		if (request.getParentId() != null && !request.getParentId().isEmpty()) {
+			Optional<String> currentParentId = personRepository.findParentId(id);
+			if (!currentParentId.map(request.getParentId()::equals).orElse(false)) {
+				if (!personRepository.existsById(request.getParentId())) {
+					throw new PersonNotFoundException(request.getParentId());
+				}
+				if (personRepository.isSelfOrDescendant(id, request.getParentId())) {
+					throw new InvalidDataException("Cannot move a person under itself or one of its descendants");
+				}
+				newParentId = request.getParentId();
+				oldParentId = currentParentId.orElse(null);
+			}
+			updated = true;
+		}
+
 		if (!updated) {
 			throw new InvalidDataException("No fields to update");
 		}
@@ -209,6 +394,27 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 		// Update timestamp and save
 		person.updateTimestamp();
 		Person updatedPerson = personRepository.save(person);
+		TransactionHooks.afterCommit(() -> treeSnapshot.upsert(updatedPerson));
+
+		if (newParentId != null) {
+			String movedTo = newParentId;
+			personRepository.moveToParent(newParentId, id);
+			TransactionHooks.afterCommit(() -> treeSnapshot.link(movedTo, id));
+			log.info("Moved {} from parent {} to {}", id, oldParentId, newParentId);
+
+			long version = oldParentId != null ? treeVersion.increment(id, oldParentId) : treeVersion.increment(id);
+			changeLog.record(version, PersonChange.Type.MOVED, id, TreeMapper.toRow(updatedPerson, newParentId));
+		} else if (isPositionOnly(request)) {
+			long version = treeVersion.increment(id);
+			changeLog.record(version, PersonChange.Type.POSITION_CHANGED, id, PersonTreeRow.builder()
+					.id(id)
+					.positionX(updatedPerson.getPositionX())
+					.positionY(updatedPerson.getPositionY())
+					.build());
+		} else {
+			long version = treeVersion.increment(id);
+			changeLog.record(version, PersonChange.Type.UPDATED, id, TreeMapper.toRow(updatedPerson, null));
+		}
 
 		log.info("Person updated: {}", updatedPerson.getId());
 
@@ -218,8 +424,9 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	@Override
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
-			@CacheEvict(value = PERSON_BY_ID, key = "#id"),
+			@CacheEvict(value = PERSON_BY_ID, allEntries = true),
 			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
 			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
 			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
@@ -230,33 +437,141 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 			throw new PersonNotFoundException(id);
 		}
 
+		// Registered ahead of the version hook, so the new version is published after the snapshot drops the person
+		TransactionHooks.afterCommit(() -> treeSnapshot.remove(id));
+
+		// Stamp the parent while the relationship still exists
+		long version = treeVersion.increment(id);
 		personRepository.deleteById(id);
+		changeLog.record(version, PersonChange.Type.DELETED, id, null);
 		log.info("Person deleted: {}", id);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	@Cacheable(value = SEARCH_RESULTS, key = "#name")
-	public List<PersonResponse> searchByName(String name) {
-		log.info("Searching persons by name: {} (cache miss)", name);
+	public ChangesResponse getChangesSince(long since) {
+		log.info("Fetching changes since version {}", since);
+		return changeLog.since(since);
+	}
 
-		List<Person> persons = personRepository.searchByName(name);
+	@Override
+	@Transactional(readOnly = true)
+	public List<PersonResponse> searchByName(String name, int offset, int limit, FieldProjection fields) {
+		if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+			throw new InvalidDataException("offset must not be negative and limit must be between 1 and " + MAX_SEARCH_LIMIT);
+		}
+		checkAggregatesAvailable(fields);
+
+		String query = SearchResultCache.normalize(name);
+		if (fullTextSearch) {
+			// Ranked full-text results are not a name-ordered CONTAINS match, so they cannot be derived from a superset
+			return searchResultCache.get(query, offset, limit, fields, () -> {
+				log.info("Searching persons by full text: {} (offset={}, limit={}, cache miss)", query, offset, limit);
+				List<PersonTreeRow> rows = personRepository.searchFullText(query, offset, limit);
+				if (treeSnapshot.isEnabled()) {
+					// The snapshot adds the subtree aggregates
+					return findPersons(rows.stream().map(PersonTreeRow::getId).toList(), fields);
+				}
+				return rows.stream()
+						.map(row -> TreeMapper.toResponse(row, fields))
+						.collect(Collectors.toList());
+			});
+		}
 
-		return persons.stream()
-				.map(TreeMapper::toResponse)
-				.collect(Collectors.toList());
+		return searchResultCache.get(query, offset, limit, fields, this::findNameMatches,
+				ids -> findPersons(ids, fields));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = SEARCH_RESULTS, key = "new org.springframework.cache.interceptor.SimpleKey('fuzzy', T(com.familytree.cache.SearchResultCache).normalize(#name), #maxDistance, #offset, #limit, #fields.key)")
+	public List<PersonResponse> searchFuzzy(String name, int maxDistance, int offset, int limit, FieldProjection fields) {
+		log.info("Fuzzy searching persons by name: {} (maxDistance={}, offset={}, limit={}, cache miss)",
+				name, maxDistance, offset, limit);
+		if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+			throw new InvalidDataException("offset must not be negative and limit must be between 1 and " + MAX_SEARCH_LIMIT);
+		}
+		if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+			throw new InvalidDataException("maxDistance must be between 0 and " + MAX_FUZZY_DISTANCE);
+		}
+
+		if (!treeSnapshot.isEnabled()) {
+			throw new SnapshotDisabledException("Fuzzy search");
+		}
+		return treeSnapshot.searchFuzzy(name, maxDistance, offset, limit, fields);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NameSuggestion> suggest(String prefix, int limit) {
+		log.debug("Suggesting names for prefix: {} (limit={})", prefix, limit);
+		if (limit < 1 || limit > SuggestionTrie.TOP_K) {
+			throw new InvalidDataException("limit must be between 1 and " + SuggestionTrie.TOP_K);
+		}
+
+		if (!treeSnapshot.isEnabled()) {
+			throw new SnapshotDisabledException("Name suggestion");
+		}
+		return treeSnapshot.suggest(prefix, limit);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public FacetSearchResponse searchFacets(Map<Facet, List<String>> filters, int offset, int limit, int facetLimit,
+											FieldProjection fields) {
+		log.info("Searching persons by facets: {} (offset={}, limit={})", filters, offset, limit);
+		if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+			throw new InvalidDataException("offset must not be negative and limit must be between 1 and " + MAX_SEARCH_LIMIT);
+		}
+		if (facetLimit < 1 || facetLimit > MAX_FACET_LIMIT) {
+			throw new InvalidDataException("facetLimit must be between 1 and " + MAX_FACET_LIMIT);
+		}
+
+		if (!treeSnapshot.isEnabled()) {
+			throw new SnapshotDisabledException("Faceted search");
+		}
+		return treeSnapshot.searchFacets(filters, offset, limit, facetLimit, fields);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public TimelineResponse getTimeline(String bornFrom, String bornTo, String diedFrom, String diedTo, String rootId,
+										int offset, int limit, FieldProjection fields) {
+		log.info("Fetching timeline: born {}..{}, died {}..{} (root={}, offset={}, limit={})",
+				bornFrom, bornTo, diedFrom, diedTo, rootId, offset, limit);
+		if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+			throw new InvalidDataException("offset must not be negative and limit must be between 1 and " + MAX_SEARCH_LIMIT);
+		}
+		if (bornFrom == null && bornTo == null && diedFrom == null && diedTo == null) {
+			throw new InvalidDataException("At least one of bornFrom, bornTo, diedFrom and diedTo is required");
+		}
+		LocalDate bornFromDate = parseDateBound(bornFrom, false);
+		LocalDate bornToDate = parseDateBound(bornTo, true);
+		LocalDate diedFromDate = parseDateBound(diedFrom, false);
+		LocalDate diedToDate = parseDateBound(diedTo, true);
+
+		if (!treeSnapshot.isEnabled()) {
+			throw new SnapshotDisabledException("Timeline");
+		}
+		return treeSnapshot.getTimeline(bornFromDate, bornToDate, diedFromDate, diedToDate, rootId, offset, limit, fields)
+				.orElseThrow(() -> new PersonNotFoundException(rootId));
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	@Cacheable(value = PERSONS_BY_LEVEL, key = "#level")
-	public List<PersonResponse> getPersonsByLevel(Integer level) {
+	@Cacheable(value = PERSONS_BY_LEVEL, key = "#level + ':' + #fields.key")
+	public List<PersonResponse> getPersonsByLevel(Integer level, FieldProjection fields) {
 		log.info("Fetching persons at level: {} (cache miss)", level);
+		checkAggregatesAvailable(fields);
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getByLevel(level, fields);
+		}
 
 		List<Person> persons = personRepository.findByLevel(level);
 
 		return persons.stream()
-				.map(TreeMapper::toResponse)
+				.map(person -> TreeMapper.toResponse(person, fields))
 				.collect(Collectors.toList());
 	}
 
@@ -264,14 +579,64 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	@Transactional(readOnly = true)
 	public long getTotalCount() {
 		log.info("Fetching total count of persons");
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.count();
+		}
+
 		return personRepository.countAllPersons();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public SubtreeStatsResponse getSubtreeStats(String id) {
+		log.info("Fetching subtree stats: {}", id);
+
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getStats(id)
+					.orElseThrow(() -> new PersonNotFoundException(id));
+		}
+
+		return personRepository.findSubtreeStats(id)
+				.orElseThrow(() -> new PersonNotFoundException(id));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public TreeOverviewResponse getOverview(int minBranchSize, int maxDepth, int maxNodes) {
+		if (minBranchSize < 1 || maxDepth < 0 || maxNodes < 1) {
+			throw new InvalidDataException("minBranchSize and maxNodes must be positive and maxDepth must not be negative");
+		}
+
+		// Keyed by version rather than evicted, so a write never races a cache fill
+		long version = treeVersion.current();
+		String key = version + ":" + minBranchSize + ":" + maxDepth + ":" + maxNodes;
+		Cache cache = cacheManager.getCache(TREE_OVERVIEW);
+		TreeOverviewResponse cached = cache != null ? cache.get(key, TreeOverviewResponse.class) : null;
+		if (cached != null) {
+			return cached;
+		}
+
+		log.info("Building tree overview for version {} (cache miss)", version);
+		List<PersonTreeRow> rows;
+		try (Stream<PersonTreeRow> stream = streamFullTree()) {
+			rows = stream.toList();
+		}
+		TreeOverviewResponse overview = TreeOverviewBuilder.build(rows, minBranchSize, maxDepth, maxNodes);
+		overview.setVersion(version);
+
+		if (cache != null) {
+			cache.put(key, overview);
+		}
+		return overview;
+	}
+
 	@Override
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
 			@CacheEvict(value = PERSON_BY_ID, allEntries = true),
 			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
 			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
 			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
@@ -284,13 +649,24 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 		// Reload from JSON
 		dataLoader.loadDataFromJson();
 
+		// Rebuild the in-memory snapshot on next read
+		TransactionHooks.afterCommit(treeSnapshot::invalidate);
+		changeLog.reset(treeVersion.incrementAll());
+
 		log.info("Data reloaded successfully");
 	}
 
 	@Override
-	@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true)
+	@Caching(evict = {
+			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
+			@CacheEvict(value = PERSON_BY_ID, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
+			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
+			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
+	})
 	public void resetAllPositions() {
-		log.info("Resetting all node positions to null (evicting full tree cache)");
+		log.info("Resetting all node positions to null (clearing all caches)");
 
 		// Get all persons and reset their positions
 		List<Person> allPersons = personRepository.findAll();
@@ -301,6 +677,8 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 		}
 
 		personRepository.saveAll(allPersons);
+		TransactionHooks.afterCommit(treeSnapshot::clearPositions);
+		changeLog.record(treeVersion.incrementAll(), PersonChange.Type.POSITIONS_RESET, null, null);
 
 		log.info("Successfully reset positions for {} persons", allPersons.size());
 	}
@@ -309,7 +687,10 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
 			@CacheEvict(value = PERSON_BY_ID, key = "#personId"),
-			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true)
+			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
+			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
+			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
 	public PersonDetailsResponse addOrUpdatePersonDetails(String personId, PersonDetailsRequest request) {
 		log.info("Adding or updating details for person: {} (evicting caches)", personId);
@@ -340,6 +721,8 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 
 		// Save details
 		PersonDetails savedDetails = personDetailsRepository.save(details);
+		TransactionHooks.afterCommit(() -> treeSnapshot.upsertDetails(personId, savedDetails));
+		changeLog.record(treeVersion.increment(personId), PersonChange.Type.DETAILS_CHANGED, personId, null);
 
 		log.info("Person details saved for person: {}", personId);
 
@@ -359,7 +742,10 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 	@Caching(evict = {
 			@CacheEvict(value = FAMILY_TREE_FULL, allEntries = true),
 			@CacheEvict(value = PERSON_BY_ID, key = "#personId"),
-			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true)
+			@CacheEvict(value = PERSON_DESCENDANTS, allEntries = true),
+			@CacheEvict(value = PERSON_DESCENDANTS_BY_DEPTH, allEntries = true),
+			@CacheEvict(value = SEARCH_RESULTS, allEntries = true),
+			@CacheEvict(value = PERSONS_BY_LEVEL, allEntries = true)
 	})
 	public void deletePersonDetails(String personId) {
 		log.info("Deleting details for person: {} (evicting caches)", personId);
@@ -371,10 +757,152 @@ public class FamilyTreeServiceImpl implements FamilyTreeService {
 
 		// Delete details
 		personDetailsRepository.deleteByPersonId(personId);
+		TransactionHooks.afterCommit(() -> treeSnapshot.removeDetails(personId));
+		changeLog.record(treeVersion.increment(personId), PersonChange.Type.DETAILS_CHANGED, personId, null);
 
 		log.info("Person details deleted for person: {}", personId);
 	}
 
+	/**
+	 * Parse an inclusive timeline bound given as a year or a date. A year stands
+	 * for its first day as a lower bound and its last day as an upper bound.
+	 */
+	private static LocalDate parseDateBound(String value, boolean upper) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		String trimmed = value.trim();
+		try {
+			if (YEAR.matcher(trimmed).matches()) {
+				Year year = Year.parse(trimmed);
+				return upper ? year.atMonth(12).atEndOfMonth() : year.atDay(1);
+			}
+			return LocalDate.parse(trimmed);
+		} catch (DateTimeParseException e) {
+			throw new InvalidDataException("Invalid date: " + value + ". Use yyyy or yyyy-MM-dd");
+		}
+	}
+
+	/**
+	 * Whether a patch only moves a person on the canvas
+	 */
+	private static boolean isPositionOnly(PersonPatchRequest request) {
+		return request.getName() == null && request.getAvatar() == null && request.getAddress() == null
+				&& request.getLevel() == null && request.getSignature() == null && request.getSpouse() == null
+				&& request.getParentId() == null;
+	}
+
+	// === Private Helper Methods for batch lookups ===
+
+	/**
+	 * Look up persons in the PERSON_BY_ID cache with one bulk read
+	 */
+	private Map<String, PersonResponse> getCachedPersons(Collection<String> ids) {
+		Map<String, PersonResponse> result = new HashMap<>();
+		Cache cache = cacheManager.getCache(PERSON_BY_ID);
+		if (cache instanceof CaffeineCache caffeineCache) {
+			caffeineCache.getNativeCache().getAllPresent(ids).forEach((key, value) -> {
+				if (value instanceof PersonResponse person) {
+					result.put((String) key, person);
+				}
+			});
+		} else if (cache != null) {
+			for (String id : ids) {
+				PersonResponse person = cache.get(id, PersonResponse.class);
+				if (person != null) {
+					result.put(id, person);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Load persons with immediate children, from the snapshot or with a single query
+	 */
+	private Map<String, PersonResponse> loadPersonsWithChildren(List<String> ids) {
+		Map<String, PersonResponse> result = new HashMap<>();
+		if (treeSnapshot.isEnabled()) {
+			for (String id : ids) {
+				treeSnapshot.getWithChildren(id).ifPresent(person -> result.put(id, person));
+			}
+			return result;
+		}
+
+		for (Person person : personRepository.findAllByIdWithChildren(ids)) {
+			result.put(person.getId(), TreeMapper.toResponseWithChildren(person));
+		}
+		return result;
+	}
+
+	/**
+	 * Find every person whose name contains the normalized query, ordered by name then ID.
+	 * Runs only when neither the query nor a substring of it has cached matches;
+	 * SearchResultCache logs the hits it serves from cached matches.
+	 */
+	private List<PersonTreeRow> findNameMatches(String query) {
+		log.info("Searching persons by name: {} (cache miss)", query);
+		return treeSnapshot.isEnabled()
+				? treeSnapshot.findNameMatches(query)
+				: personRepository.findNameMatches(query);
+	}
+
+	/**
+	 * Get several persons (without children) in the given order
+	 */
+	private List<PersonResponse> findPersons(List<String> ids, FieldProjection fields) {
+		if (treeSnapshot.isEnabled()) {
+			return treeSnapshot.getPersons(ids, fields);
+		}
+
+		Map<String, PersonTreeRow> rowsById = personRepository.findRowsByIds(ids).stream()
+				.collect(Collectors.toMap(PersonTreeRow::getId, row -> row));
+		return ids.stream()
+				.map(rowsById::get)
+				.filter(Objects::nonNull)
+				.map(row -> TreeMapper.toResponse(row, fields))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Reject an explicit request for the subtree aggregates when the snapshot,
+	 * which maintains them, is disabled. Responses with every field omit them.
+	 */
+	private void checkAggregatesAvailable(FieldProjection fields) {
+		if (!treeSnapshot.isEnabled() && !fields.isAll()
+				&& (fields.includes(FieldProjection.Field.DESCENDANT_COUNT) || fields.includes(FieldProjection.Field.SUBTREE_DEPTH))) {
+			throw new SnapshotDisabledException("Projecting descendantCount or subtreeDepth");
+		}
+	}
+
+	// === Private Helper Methods for paged subtrees ===
+
+	/**
+	 * Expand the subtree below a person breadth-first within the node budget
+	 */
+	private PersonResponse pageDescendants(String id, int childOffset, int maxNodes, Integer depth,
+	                                       FieldProjection fields) {
+		if (maxNodes < 1) {
+			throw new InvalidDataException("maxNodes must be at least 1");
+		}
+		if (depth != null && depth < 0) {
+			throw new InvalidDataException("Depth must not be negative");
+		}
+		checkAggregatesAvailable(fields);
+		int maxDepth = depth != null ? depth : Integer.MAX_VALUE;
+
+		if (treeSnapshot.isEnabled()) {
+			PersonTreeRow root = treeSnapshot.getRow(id)
+					.orElseThrow(() -> new PersonNotFoundException(id));
+			return SubtreePager.page(root, childOffset, maxNodes, maxDepth, fields, treeSnapshot::getChildRows);
+		}
+
+		PersonTreeRow root = personRepository.findDescendantRows(id, 0).stream()
+				.findFirst()
+				.orElseThrow(() -> new PersonNotFoundException(id));
+		return SubtreePager.page(root, childOffset, maxNodes, maxDepth, fields, personRepository::findChildRows);
+	}
+
 	// === Private Helper Methods for PersonDetails ===
 
 	/**
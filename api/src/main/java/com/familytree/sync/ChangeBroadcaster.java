@@ -0,0 +1,241 @@
+package com.familytree.sync;
+
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.PersonChange;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed tree changes to Server-Sent Events subscribers.
+ * <p>
+ * Changes are queued without blocking the committing thread and fanned out in
+ * batches, one "changes" event per batch window. Each subscriber has its own
+ * bounded buffer and sender; a subscriber that falls behind by more than the
+ * buffer loses its backlog and receives a "resync" event instead.
+ * <p>
+ * The change log publishes changes in unbroken version order, and every
+ * version a subscriber is told about comes from the log's head, never from the
+ * tree version, which can run ahead of changes still held back. A buffered change
+ * at or below the last version sent was therefore already delivered, by the
+ * replay or an earlier batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeBroadcaster {
+
+	public static final String CHANGES_EVENT = "changes";
+	public static final String RESYNC_EVENT = "resync";
+
+	private final ChangeLog changeLog;
+
+	@Value("${app.tree.events.batch-window-ms:50}")
+	private long batchWindowMs;
+
+	@Value("${app.tree.events.subscriber-buffer:1000}")
+	private int subscriberBuffer;
+
+	@Value("${app.tree.events.heartbeat-seconds:20}")
+	private long heartbeatSeconds;
+
+	private final Queue<PersonChange> pending = new ConcurrentLinkedQueue<>();
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("tree-events-"));
+	private final ExecutorService senders =
+			Executors.newCachedThreadPool(new CustomizableThreadFactory("tree-events-send-"));
+
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	/**
+	 * Subscribe to change events, replaying changes after lastEventId when given
+	 */
+	public SseEmitter subscribe(Long lastEventId) {
+		start();
+		SseEmitter emitter = new SseEmitter();
+		Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberBuffer));
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+
+		// Register before replaying so nothing committed in between is lost
+		subscribers.add(subscriber);
+		senders.execute(() -> replay(subscriber, lastEventId));
+		log.info("SSE subscriber added ({} active)", subscribers.size());
+		return emitter;
+	}
+
+	/**
+	 * Queue a committed change for the next batch. Never blocks.
+	 */
+	@EventListener
+	public void onChange(PersonChange change) {
+		pending.offer(change);
+	}
+
+	private void start() {
+		if (started.compareAndSet(false, true)) {
+			scheduler.scheduleWithFixedDelay(this::flush, batchWindowMs, batchWindowMs, TimeUnit.MILLISECONDS);
+			scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+		}
+	}
+
+	private void replay(Subscriber subscriber, Long lastEventId) {
+		synchronized (subscriber) {
+			long since = lastEventId != null ? lastEventId : changeLog.head();
+			ChangesResponse replay = changeLog.since(since);
+			if (replay.isResyncRequired()) {
+				subscriber.send(SseEmitter.event().name(RESYNC_EVENT).id(Long.toString(replay.getVersion()))
+						.data(Map.of("version", replay.getVersion())));
+			} else if (!replay.getChanges().isEmpty()) {
+				subscriber.send(SseEmitter.event().name(CHANGES_EVENT).id(Long.toString(replay.getVersion()))
+						.data(replay.getChanges()));
+			} else {
+				subscriber.send(SseEmitter.event().comment("version " + replay.getVersion()));
+			}
+			subscriber.lastSentVersion = replay.getVersion();
+			subscriber.ready = true;
+		}
+		kick(subscriber);
+	}
+
+	private void flush() {
+		List<PersonChange> batch = new ArrayList<>();
+		PersonChange change;
+		while ((change = pending.poll()) != null) {
+			batch.add(change);
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		for (Subscriber subscriber : subscribers) {
+			for (PersonChange queued : batch) {
+				if (!subscriber.buffer.offer(queued)) {
+					// Too far behind: drop the backlog and tell the client to resync
+					subscriber.buffer.clear();
+					subscriber.overflowed = true;
+					break;
+				}
+			}
+			kick(subscriber);
+		}
+	}
+
+	/**
+	 * Start a sender for the subscriber unless one is already running
+	 */
+	private void kick(Subscriber subscriber) {
+		if (subscriber.ready && subscriber.draining.compareAndSet(false, true)) {
+			senders.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		try {
+			synchronized (subscriber) {
+				while (!subscriber.buffer.isEmpty() || subscriber.overflowed) {
+					if (subscriber.overflowed) {
+						subscriber.overflowed = false;
+						subscriber.buffer.clear();
+						long version = changeLog.head();
+						log.warn("SSE subscriber fell behind, requesting resync at version {}", version);
+						subscriber.send(SseEmitter.event().name(RESYNC_EVENT).id(Long.toString(version))
+								.data(Map.of("version", version)));
+						subscriber.lastSentVersion = version;
+						continue;
+					}
+
+					List<PersonChange> batch = new ArrayList<>();
+					subscriber.buffer.drainTo(batch);
+					// Already sent by the replay
+					batch.removeIf(change -> change.getVersion() <= subscriber.lastSentVersion);
+					if (batch.isEmpty()) {
+						continue;
+					}
+					long version = batch.get(batch.size() - 1).getVersion();
+					subscriber.send(SseEmitter.event().name(CHANGES_EVENT).id(Long.toString(version)).data(batch));
+					subscriber.lastSentVersion = version;
+				}
+
+				if (subscriber.heartbeatDue) {
+					subscriber.heartbeatDue = false;
+					subscriber.send(SseEmitter.event().comment("heartbeat"));
+				}
+			}
+		} finally {
+			subscriber.draining.set(false);
+		}
+		// Pick up changes buffered while this sender was finishing
+		if (!subscriber.buffer.isEmpty() || subscriber.overflowed) {
+			kick(subscriber);
+		}
+	}
+
+	private void heartbeat() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.heartbeatDue = true;
+			kick(subscriber);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		senders.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		subscribers.clear();
+	}
+
+	/**
+	 * One SSE connection with its own bounded buffer
+	 */
+	private class Subscriber {
+
+		private final SseEmitter emitter;
+		private final BlockingQueue<PersonChange> buffer;
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile boolean overflowed;
+		private volatile boolean ready;
+		private volatile boolean heartbeatDue;
+		private long lastSentVersion;
+
+		Subscriber(SseEmitter emitter, BlockingQueue<PersonChange> buffer) {
+			this.emitter = emitter;
+			this.buffer = buffer;
+		}
+
+		void send(SseEmitter.SseEventBuilder event) {
+			try {
+				emitter.send(event);
+			} catch (IOException | IllegalStateException e) {
+				log.debug("SSE subscriber disconnected: {}", e.getMessage());
+				subscribers.remove(this);
+				emitter.completeWithError(e);
+			}
+		}
+	}
+}
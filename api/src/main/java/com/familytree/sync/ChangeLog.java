@@ -0,0 +1,166 @@
+package com.familytree.sync;
+
+import com.familytree.cache.TreeVersion;
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.PersonChange;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Bounded in-memory log of committed tree changes, keyed by tree version.
+ * Oldest entries are compacted away once the capacity is reached; clients
+ * asking for changes from before that point must resync the full tree.
+ * Every appended change is also published as an application event.
+ *
+ * Transactions commit in version order but their hooks may run in any order,
+ * so a change is held back while a lower version recorded on this instance is
+ * still in flight. The log and its events therefore advance only over an
+ * unbroken run of versions, and a client never skips a change that commits late.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLog {
+
+	private static final long UNINITIALIZED = -1;
+
+	private final TreeVersion treeVersion;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.tree.changes.capacity:10000}")
+	private int capacity;
+
+	private final Deque<PersonChange> entries = new ArrayDeque<>();
+
+	// Versions recorded by transactions that have not completed yet
+	private final NavigableMap<Long, Integer> inFlight = new TreeMap<>();
+	// Committed appends and resets waiting for a lower version still in flight, by version
+	private final NavigableMap<Long, Runnable> held = new TreeMap<>();
+
+	// All changes with a version above floor are retained
+	private long floor = UNINITIALIZED;
+	private long head = UNINITIALIZED;
+
+	/**
+	 * Append and publish a change once the current transaction commits,
+	 * after every lower version in flight has committed or rolled back
+	 */
+	public void record(long version, PersonChange.Type type, String personId, PersonTreeRow person) {
+		PersonChange change = PersonChange.builder()
+				.version(version)
+				.type(type)
+				.personId(personId)
+				.person(person)
+				.build();
+		begin(version);
+		TransactionHooks.afterCompletion(() -> commit(version, () -> append(change)), () -> rollBack(version));
+	}
+
+	/**
+	 * Discard all history once the current transaction commits,
+	 * forcing every client at an older version to resync
+	 */
+	public void reset(long version) {
+		begin(version);
+		TransactionHooks.afterCompletion(() -> commit(version, () -> {
+			entries.clear();
+			head = Math.max(head, version);
+			floor = head;
+			log.info("Change log reset at version {}", version);
+		}), () -> rollBack(version));
+	}
+
+	/**
+	 * Get the version of the latest recorded change
+	 */
+	public synchronized long head() {
+		initialize();
+		return head;
+	}
+
+	/**
+	 * Get the changes committed after a version
+	 */
+	public synchronized ChangesResponse since(long since) {
+		initialize();
+
+		if (since < floor || since > head) {
+			return ChangesResponse.builder()
+					.since(since)
+					.version(head)
+					.resyncRequired(true)
+					.changes(List.of())
+					.build();
+		}
+
+		List<PersonChange> changes = entries.stream()
+				.filter(change -> change.getVersion() > since)
+				.toList();
+		return ChangesResponse.builder()
+				.since(since)
+				.version(head)
+				.resyncRequired(false)
+				.changes(changes)
+				.build();
+	}
+
+	private void initialize() {
+		if (head == UNINITIALIZED) {
+			// History before startup is unknown
+			head = floor = treeVersion.current();
+		}
+	}
+
+	private synchronized void begin(long version) {
+		inFlight.merge(version, 1, Integer::sum);
+	}
+
+	/**
+	 * Hold the action of a committed version until every lower version in flight completes
+	 */
+	private synchronized void commit(long version, Runnable action) {
+		held.put(version, action);
+		finish(version);
+	}
+
+	private synchronized void rollBack(long version) {
+		finish(version);
+	}
+
+	/**
+	 * Take a version out of flight, then run every held action below the
+	 * lowest version still in flight, in version order
+	 */
+	private void finish(long version) {
+		inFlight.computeIfPresent(version, (v, count) -> count > 1 ? count - 1 : null);
+
+		Long lowestInFlight = inFlight.isEmpty() ? null : inFlight.firstKey();
+		while (!held.isEmpty() && (lowestInFlight == null || held.firstKey() < lowestInFlight)) {
+			held.pollFirstEntry().getValue().run();
+		}
+	}
+
+	// Runs under the monitor, so changes are published in the order they are appended
+	private void append(PersonChange change) {
+		if (head == UNINITIALIZED) {
+			head = floor = change.getVersion() - 1;
+		}
+		entries.addLast(change);
+		head = Math.max(head, change.getVersion());
+		while (entries.size() > capacity) {
+			floor = entries.removeFirst().getVersion();
+		}
+		eventPublisher.publishEvent(change);
+	}
+}
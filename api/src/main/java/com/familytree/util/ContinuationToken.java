@@ -0,0 +1,46 @@
+package com.familytree.util;
+
+import com.familytree.exception.InvalidDataException;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque token pointing at an unexpanded node of a paged subtree:
+ * the node ID and the number of its children already returned.
+ */
+@Data
+public class ContinuationToken {
+
+	private final String personId;
+	private final int childOffset;
+
+	/**
+	 * Encode this token as a URL-safe string
+	 */
+	public String encode() {
+		String raw = childOffset + ":" + personId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode a token previously produced by {@link #encode()}
+	 *
+	 * @throws InvalidDataException if the token is malformed
+	 */
+	public static ContinuationToken decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(':');
+			int offset = Integer.parseInt(raw.substring(0, separator));
+			String personId = raw.substring(separator + 1);
+			if (offset < 0 || personId.isEmpty()) {
+				throw new InvalidDataException("Invalid continuation token");
+			}
+			return new ContinuationToken(personId, offset);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new InvalidDataException("Invalid continuation token", e);
+		}
+	}
+}
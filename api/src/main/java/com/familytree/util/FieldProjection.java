@@ -0,0 +1,114 @@
+package com.familytree.util;
+
+import com.familytree.exception.InvalidDataException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Set of PersonResponse fields requested through a fields= parameter.
+ * The ID is always included; without childs, responses carry no children.
+ */
+public final class FieldProjection {
+
+	/**
+	 * Projectable response fields, by their JSON name
+	 */
+	public enum Field {
+		ID("id"),
+		NAME("name"),
+		GENDER("gender"),
+		AVATAR("avatar"),
+		ADDRESS("address"),
+		LEVEL("level"),
+		SIGNATURE("signature"),
+		SIGNATURE_ID("signatureId"),
+		SPOUSE("spouse"),
+		CONTRIBUTOR_ID("contributorId"),
+		IS_POSITION_LOCKED("isPositionLocked"),
+		POSITION_X("positionX"),
+		POSITION_Y("positionY"),
+		DESCENDANT_COUNT("descendantCount"),
+		SUBTREE_DEPTH("subtreeDepth"),
+		DETAILS("details"),
+		CHILDS("childs");
+
+		private final String jsonName;
+
+		Field(String jsonName) {
+			this.jsonName = jsonName;
+		}
+
+		public String getJsonName() {
+			return jsonName;
+		}
+	}
+
+	/**
+	 * Every field; the default when no fields parameter is given
+	 */
+	public static final FieldProjection ALL = new FieldProjection(EnumSet.allOf(Field.class));
+
+	private final Set<Field> fields;
+	private final String key;
+
+	private FieldProjection(Set<Field> fields) {
+		this.fields = fields;
+		this.key = fields.size() == Field.values().length ? "*" :
+				fields.stream().map(Field::getJsonName).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Parse a comma-separated list of field names.
+	 * "position" is shorthand for positionX and positionY.
+	 *
+	 * @param fields the parameter value, or null/blank for all fields
+	 * @throws InvalidDataException if a field name is unknown
+	 */
+	public static FieldProjection parse(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return ALL;
+		}
+
+		Set<Field> selected = EnumSet.of(Field.ID);
+		for (String name : fields.split(",")) {
+			String trimmed = name.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			if (trimmed.equals("position")) {
+				selected.add(Field.POSITION_X);
+				selected.add(Field.POSITION_Y);
+				continue;
+			}
+			selected.add(Arrays.stream(Field.values())
+					.filter(field -> field.jsonName.equals(trimmed))
+					.findFirst()
+					.orElseThrow(() -> new InvalidDataException("Unknown field: " + trimmed)));
+		}
+		return selected.size() == Field.values().length ? ALL : new FieldProjection(selected);
+	}
+
+	public boolean includes(Field field) {
+		return fields.contains(field);
+	}
+
+	public boolean isAll() {
+		return this == ALL;
+	}
+
+	/**
+	 * Canonical form of this projection for cache keys, independent of the
+	 * order and spelling of the request parameter
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	@Override
+	public String toString() {
+		return key;
+	}
+}
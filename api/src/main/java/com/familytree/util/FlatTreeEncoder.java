@@ -0,0 +1,135 @@
+package com.familytree.util;
+
+import com.familytree.dto.DictionaryColumn;
+import com.familytree.dto.FlatTreeResponse;
+import com.familytree.dto.PersonResponse;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a PersonResponse tree into the columnar FlatTreeResponse
+ */
+@UtilityClass
+public class FlatTreeEncoder {
+
+	/**
+	 * Encode a tree in pre-order, children in their existing order
+	 */
+	public static FlatTreeResponse encode(PersonResponse root) {
+		List<PersonResponse> nodes = new ArrayList<>();
+		List<Integer> parents = new ArrayList<>();
+
+		// Pre-order with an explicit stack; children pushed in reverse to keep their order
+		Deque<PersonResponse> stack = new ArrayDeque<>();
+		Deque<Integer> parentStack = new ArrayDeque<>();
+		stack.push(root);
+		parentStack.push(-1);
+		while (!stack.isEmpty()) {
+			PersonResponse node = stack.pop();
+			int index = nodes.size();
+			nodes.add(node);
+			parents.add(parentStack.pop());
+
+			List<PersonResponse> childs = node.getChilds();
+			if (childs != null) {
+				for (int i = childs.size() - 1; i >= 0; i--) {
+					stack.push(childs.get(i));
+					parentStack.push(index);
+				}
+			}
+		}
+
+		int size = nodes.size();
+		String[] ids = new String[size];
+		int[] parentIndex = new int[size];
+		String[] names = new String[size];
+		Integer[] levels = new Integer[size];
+		Double[] positionX = new Double[size];
+		Double[] positionY = new Double[size];
+		Boolean[] positionLocked = new Boolean[size];
+		String[] signatureIds = new String[size];
+		String[] spouses = new String[size];
+		Integer[] childCounts = new Integer[size];
+		String[] continuationTokens = new String[size];
+		Dictionary genders = new Dictionary(size);
+		Dictionary addresses = new Dictionary(size);
+		Dictionary avatars = new Dictionary(size);
+		Dictionary signatures = new Dictionary(size);
+		Dictionary contributorIds = new Dictionary(size);
+		boolean anyChildCount = false;
+		boolean anyContinuation = false;
+
+		for (int i = 0; i < size; i++) {
+			PersonResponse node = nodes.get(i);
+			ids[i] = node.getId();
+			parentIndex[i] = parents.get(i);
+			names[i] = node.getName();
+			levels[i] = node.getLevel();
+			positionX[i] = node.getPositionX();
+			positionY[i] = node.getPositionY();
+			positionLocked[i] = node.getIsPositionLocked();
+			signatureIds[i] = node.getSignatureId();
+			spouses[i] = node.getSpouse();
+			childCounts[i] = node.getChildCount();
+			continuationTokens[i] = node.getContinuationToken();
+			anyChildCount |= node.getChildCount() != null;
+			anyContinuation |= node.getContinuationToken() != null;
+			genders.add(i, node.getGender());
+			addresses.add(i, node.getAddress());
+			avatars.add(i, node.getAvatar());
+			signatures.add(i, node.getSignature());
+			contributorIds.add(i, node.getContributorId());
+		}
+
+		return FlatTreeResponse.builder()
+				.size(size)
+				.ids(ids)
+				.parentIndex(parentIndex)
+				.names(names)
+				.levels(levels)
+				.genders(genders.toColumn())
+				.positionX(positionX)
+				.positionY(positionY)
+				.positionLocked(positionLocked)
+				.addresses(addresses.toColumn())
+				.avatars(avatars.toColumn())
+				.signatures(signatures.toColumn())
+				.signatureIds(signatureIds)
+				.spouses(spouses)
+				.contributorIds(contributorIds.toColumn())
+				.childCounts(anyChildCount ? childCounts : null)
+				.continuationTokens(anyContinuation ? continuationTokens : null)
+				.build();
+	}
+
+	private static final class Dictionary {
+
+		private final Map<String, Integer> codeByValue = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+		private final int[] codes;
+
+		Dictionary(int size) {
+			this.codes = new int[size];
+		}
+
+		void add(int index, String value) {
+			codes[index] = value == null ? -1 : codeByValue.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+
+		DictionaryColumn toColumn() {
+			return DictionaryColumn.builder()
+					.values(values)
+					.codes(codes)
+					.build();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.familytree.util;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands a subtree breadth-first until a node budget is spent.
+ * Nodes whose children were not (fully) returned carry a continuation token.
+ */
+@UtilityClass
+public class SubtreePager {
+
+	/**
+	 * Loads child rows for a batch of parents.
+	 * Rows must be ordered by the position of their parent in parentIds, then
+	 * by child ID, and must carry their own childCount. Continuation tokens
+	 * count children in that order, so every loader must use it.
+	 * The skip applies to the children of the first parent only.
+	 */
+	@FunctionalInterface
+	public interface ChildRowLoader {
+		List<PersonTreeRow> load(List<String> parentIds, int skip, int limit);
+	}
+
+	/**
+	 * Page through the subtree below a root row
+	 *
+	 * @param rootRow the row of the node to expand, with its childCount
+	 * @param childOffset number of the root's children already returned by earlier pages
+	 * @param maxNodes maximum number of nodes in the response, root included
+	 * @param maxDepth maximum number of generations below the root
+	 * @param fields the response fields to map
+	 * @param loader source of child rows
+	 * @return the root with as many descendants as the budget allows
+	 */
+	public static PersonResponse page(PersonTreeRow rootRow, int childOffset, int maxNodes, int maxDepth,
+	                                  FieldProjection fields, ChildRowLoader loader) {
+		if (!fields.includes(FieldProjection.Field.CHILDS)) {
+			return TreeMapper.toResponse(rootRow, fields);
+		}
+
+		Node root = new Node(TreeMapper.toResponse(rootRow, fields), countOf(rootRow), 0, childOffset);
+		Deque<Node> queue = new ArrayDeque<>();
+		enqueueOrMark(root, maxDepth, queue);
+
+		int remaining = maxNodes - 1;
+		while (!queue.isEmpty() && remaining > 0) {
+			// One batch covers at most `remaining` parents, each contributing at least one child
+			List<Node> batch = new ArrayList<>();
+			while (!queue.isEmpty() && batch.size() < remaining) {
+				batch.add(queue.poll());
+			}
+
+			List<String> parentIds = batch.stream().map(node -> node.response.getId()).toList();
+			Map<String, List<PersonTreeRow>> rowsByParent = new HashMap<>();
+			for (PersonTreeRow row : loader.load(parentIds, batch.get(0).returned, remaining)) {
+				rowsByParent.computeIfAbsent(row.getParentId(), id -> new ArrayList<>()).add(row);
+			}
+
+			for (Node parent : batch) {
+				for (PersonTreeRow row : rowsByParent.getOrDefault(parent.response.getId(), List.of())) {
+					if (remaining == 0) {
+						break;
+					}
+					Node child = new Node(TreeMapper.toResponse(row, fields), countOf(row), parent.depth + 1, 0);
+					parent.response.getChilds().add(child.response);
+					parent.returned++;
+					remaining--;
+					enqueueOrMark(child, maxDepth, queue);
+				}
+				markIfIncomplete(parent);
+			}
+		}
+
+		// Everything still queued is unexpanded frontier
+		queue.forEach(SubtreePager::markIfIncomplete);
+		return root.response;
+	}
+
+	private static void enqueueOrMark(Node node, int maxDepth, Deque<Node> queue) {
+		if (node.returned >= node.childCount) {
+			return;
+		}
+		if (node.depth < maxDepth) {
+			queue.add(node);
+		} else {
+			markIfIncomplete(node);
+		}
+	}
+
+	private static void markIfIncomplete(Node node) {
+		if (node.returned < node.childCount) {
+			node.response.setChildCount(node.childCount);
+			node.response.setHasMoreChildren(true);
+			node.response.setContinuationToken(new ContinuationToken(node.response.getId(), node.returned).encode());
+		}
+	}
+
+	private static int countOf(PersonTreeRow row) {
+		return row.getChildCount() != null ? row.getChildCount() : 0;
+	}
+
+	/**
+	 * Paging state of one node in the response
+	 */
+	private static final class Node {
+		private final PersonResponse response;
+		private final int childCount;
+		private final int depth;
+		private int returned;
+
+		private Node(PersonResponse response, int childCount, int depth, int returned) {
+			this.response = response;
+			this.childCount = childCount;
+			this.depth = depth;
+			this.returned = returned;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.familytree.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running work at transaction boundaries
+ */
+@UtilityClass
+public class TransactionHooks {
+
+	/**
+	 * Run an action once the current transaction commits,
+	 * or immediately when no transaction is active
+	 */
+	public static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Run one action once the current transaction commits and another once it
+	 * rolls back, or the first immediately when no transaction is active
+	 */
+	public static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						onCommit.run();
+					} else {
+						onRollback.run();
+					}
+				}
+			});
+		} else {
+			onCommit.run();
+		}
+	}
+}
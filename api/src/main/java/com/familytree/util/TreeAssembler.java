@@ -0,0 +1,75 @@
+package com.familytree.util;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import lombok.experimental.UtilityClass;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Assembles a PersonResponse tree from flat (person, parentId) rows in linear time
+ */
+@UtilityClass
+public class TreeAssembler {
+
+	/**
+	 * Build the tree rooted at rootId.
+	 * Children keep the order in which their rows arrive; duplicate rows are ignored.
+	 *
+	 * @param rows flat rows, one per person
+	 * @param rootId the ID of the person at the top of the result
+	 * @return the assembled tree, or empty if the root is not among the rows
+	 */
+	public static Optional<PersonResponse> assemble(Collection<PersonTreeRow> rows, String rootId) {
+		return assemble(rows, rootId, FieldProjection.ALL);
+	}
+
+	/**
+	 * Build the tree rooted at rootId with only the projected fields.
+	 * Without childs, only the root is mapped.
+	 */
+	public static Optional<PersonResponse> assemble(Collection<PersonTreeRow> rows, String rootId,
+	                                                FieldProjection fields) {
+		if (!fields.includes(FieldProjection.Field.CHILDS)) {
+			return rows.stream()
+					.filter(row -> row.getId().equals(rootId))
+					.findFirst()
+					.map(row -> TreeMapper.toResponse(row, fields));
+		}
+
+		Map<String, PersonResponse> responses = new HashMap<>((int) (rows.size() / 0.75f) + 1);
+		for (PersonTreeRow row : rows) {
+			responses.computeIfAbsent(row.getId(), id -> {
+				PersonResponse response = TreeMapper.toResponse(row, fields);
+				if (row.getChildCount() != null) {
+					response.setChildCount(row.getChildCount());
+					response.setHasMoreChildren(row.getChildCount() > 0);
+				}
+				return response;
+			});
+		}
+
+		PersonResponse root = responses.get(rootId);
+		if (root == null) {
+			return Optional.empty();
+		}
+
+		Set<String> attached = new HashSet<>();
+		for (PersonTreeRow row : rows) {
+			if (row.getId().equals(rootId) || row.getParentId() == null || !attached.add(row.getId())) {
+				continue;
+			}
+			PersonResponse parent = responses.get(row.getParentId());
+			if (parent != null) {
+				parent.getChilds().add(responses.get(row.getId()));
+			}
+		}
+
+		return Optional.of(root);
+	}
+}
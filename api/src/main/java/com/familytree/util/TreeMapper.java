@@ -1,15 +1,22 @@
 package com.familytree.util;
 
+import com.familytree.dto.FacetCount;
+import com.familytree.dto.FacetSearchResponse;
 import com.familytree.dto.PersonDetailsResponse;
 import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.index.FacetIndex;
+import com.familytree.model.Facet;
 import com.familytree.model.Gender;
 import com.familytree.model.Person;
 import com.familytree.model.PersonDetails;
+import com.familytree.util.FieldProjection.Field;
 import lombok.experimental.UtilityClass;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Utility class for mapping between Person entity and DTOs
@@ -51,25 +58,157 @@ public class TreeMapper {
 	}
 
 	/**
-	 * Convert Person entity to PersonResponse DTO with children (recursive)
+	 * Convert a flat tree row to PersonResponse DTO (without children)
 	 */
-	public static PersonResponse toResponseWithChildren(Person person) {
-		if (person == null) {
+	public static PersonResponse toResponse(PersonTreeRow row) {
+		if (row == null) {
 			return null;
 		}
 
-		PersonResponse response = toResponse(person);
+		return PersonResponse.builder()
+				.id(row.getId())
+				.name(row.getName())
+				.gender(row.getGender())
+				.avatar(row.getAvatar())
+				.address(row.getAddress())
+				.level(row.getLevel())
+				.signature(row.getSignature())
+				.signatureId(row.getSignatureId())
+				.spouse(row.getSpouse())
+				.contributorId(row.getContributorId())
+				.isPositionLocked(row.getIsPositionLocked())
+				.positionX(row.getPositionX())
+				.positionY(row.getPositionY())
+				.childs(new ArrayList<>())
+				.build();
+	}
+
+	/**
+	 * Convert Person entity to PersonResponse DTO with only the projected fields (without children)
+	 */
+	public static PersonResponse toResponse(Person person, FieldProjection fields) {
+		if (fields.isAll() || person == null) {
+			return toResponse(person);
+		}
+
+		PersonResponse response = toResponse(toRow(person, null), fields);
+		if (fields.includes(Field.DETAILS) && person.hasDetails()) {
+			response.setDetails(toDetailsResponse(person.getDetails()));
+		}
+		return response;
+	}
 
-		if (person.getChildren() != null && !person.getChildren().isEmpty()) {
-			List<PersonResponse> childResponses = person.getChildren().stream()
-					.map(TreeMapper::toResponseWithChildren)
-					.collect(Collectors.toList());
-			response.setChilds(childResponses);
+	/**
+	 * Convert a flat tree row to PersonResponse DTO with only the projected fields (without children).
+	 * Without childs, the children list is left null so it is not serialized.
+	 */
+	public static PersonResponse toResponse(PersonTreeRow row, FieldProjection fields) {
+		if (fields.isAll() || row == null) {
+			return toResponse(row);
 		}
 
+		PersonResponse response = new PersonResponse();
+		response.setId(row.getId());
+		if (fields.includes(Field.NAME)) {
+			response.setName(row.getName());
+		}
+		if (fields.includes(Field.GENDER)) {
+			response.setGender(row.getGender());
+		}
+		if (fields.includes(Field.AVATAR)) {
+			response.setAvatar(row.getAvatar());
+		}
+		if (fields.includes(Field.ADDRESS)) {
+			response.setAddress(row.getAddress());
+		}
+		if (fields.includes(Field.LEVEL)) {
+			response.setLevel(row.getLevel());
+		}
+		if (fields.includes(Field.SIGNATURE)) {
+			response.setSignature(row.getSignature());
+		}
+		if (fields.includes(Field.SIGNATURE_ID)) {
+			response.setSignatureId(row.getSignatureId());
+		}
+		if (fields.includes(Field.SPOUSE)) {
+			response.setSpouse(row.getSpouse());
+		}
+		if (fields.includes(Field.CONTRIBUTOR_ID)) {
+			response.setContributorId(row.getContributorId());
+		}
+		if (fields.includes(Field.IS_POSITION_LOCKED)) {
+			response.setIsPositionLocked(row.getIsPositionLocked());
+		}
+		if (fields.includes(Field.POSITION_X)) {
+			response.setPositionX(row.getPositionX());
+		}
+		if (fields.includes(Field.POSITION_Y)) {
+			response.setPositionY(row.getPositionY());
+		}
+		response.setChilds(fields.includes(Field.CHILDS) ? new ArrayList<>() : null);
 		return response;
 	}
 
+	/**
+	 * Convert a flat tree row to Person entity (without relationships)
+	 */
+	public static Person toPerson(PersonTreeRow row) {
+		if (row == null) {
+			return null;
+		}
+
+		Person person = new Person();
+		person.setId(row.getId());
+		person.setName(row.getName());
+		person.setGender(parseGender(row.getGender()));
+		person.setAvatar(row.getAvatar());
+		person.setAddress(row.getAddress());
+		person.setLevel(row.getLevel());
+		person.setSignature(row.getSignature());
+		person.setSignatureId(row.getSignatureId());
+		person.setSpouse(row.getSpouse());
+		person.setContributorId(row.getContributorId());
+		person.setIsPositionLocked(row.getIsPositionLocked());
+		person.setPositionX(row.getPositionX());
+		person.setPositionY(row.getPositionY());
+
+		return person;
+	}
+
+	/**
+	 * Convert Person entity to a flat tree row
+	 */
+	public static PersonTreeRow toRow(Person person, String parentId) {
+		if (person == null) {
+			return null;
+		}
+
+		return PersonTreeRow.builder()
+				.id(person.getId())
+				.parentId(parentId)
+				.name(person.getName())
+				.gender(person.getGender() != null ? person.getGender().getDisplayName() : null)
+				.avatar(person.getAvatar())
+				.address(person.getAddress())
+				.level(person.getLevel())
+				.signature(person.getSignature())
+				.signatureId(person.getSignatureId())
+				.spouse(person.getSpouse())
+				.contributorId(person.getContributorId())
+				.isPositionLocked(person.getIsPositionLocked())
+				.positionX(person.getPositionX())
+				.positionY(person.getPositionY())
+				.build();
+	}
+
+	/**
+	 * Convert Person entity to PersonResponse DTO with children.
+	 * Iterative, and parallel for large trees; see {@link TreeWalker}.
+	 */
+	public static PersonResponse toResponseWithChildren(Person person) {
+		return TreeWalker.map(person, TreeMapper::toResponse, Person::getChildren, TreeMapper::linkResponse);
+	}
+
 	/**
 	 * Convert JsonTreeNode to Person entity (without relationships)
 	 */
@@ -111,23 +250,22 @@ public class TreeMapper {
 	}
 
 	/**
-	 * Convert JsonTreeNode to Person entity with children (recursive)
+	 * Convert JsonTreeNode to Person entity with children.
+	 * Iterative, and parallel for large trees; see {@link TreeWalker}.
 	 */
 	public static Person fromJsonNodeWithChildren(JsonTreeNode node) {
-		if (node == null) {
-			return null;
-		}
-
-		Person person = fromJsonNode(node);
+		return TreeWalker.map(node, TreeMapper::fromJsonNode, JsonTreeNode::getChilds,
+				(parent, child, index, childCount) -> parent.addChild(child));
+	}
 
-		if (node.getChilds() != null && !node.getChilds().isEmpty()) {
-			for (JsonTreeNode childNode : node.getChilds()) {
-				Person child = fromJsonNodeWithChildren(childNode);
-				person.addChild(child);
-			}
+	/**
+	 * Append a child response, pre-sizing the child list on the first one
+	 */
+	private static void linkResponse(PersonResponse parent, PersonResponse child, int index, int childCount) {
+		if (index == 0) {
+			parent.setChilds(new ArrayList<>(childCount));
 		}
-
-		return person;
+		parent.getChilds().add(child);
 	}
 
 	/**
@@ -164,4 +302,21 @@ public class TreeMapper {
 				.updatedAt(details.getUpdatedAt())
 				.build();
 	}
+
+	/**
+	 * Combine a facet search result with the page of persons picked from its slots
+	 */
+	public static FacetSearchResponse toFacetResponse(FacetIndex.Result result, List<PersonResponse> persons) {
+		Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+		for (Map.Entry<Facet, List<FacetIndex.ValueCount>> entry : result.counts().entrySet()) {
+			facets.put(entry.getKey().getFieldName(), entry.getValue().stream()
+					.map(count -> new FacetCount(count.value(), count.count()))
+					.toList());
+		}
+		return FacetSearchResponse.builder()
+				.total(result.slots().length)
+				.facets(facets)
+				.persons(persons)
+				.build();
+	}
 }
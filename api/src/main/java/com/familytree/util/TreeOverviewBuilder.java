@@ -0,0 +1,144 @@
+package com.familytree.util;
+
+import com.familytree.dto.OverviewNode;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeOverviewResponse;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Builds a collapsed overview of the tree from flat rows.
+ *
+ * Branches are expanded largest first while they are at least minBranchSize
+ * persons, lie above maxDepth and their children fit in the maxNodes budget.
+ * Every branch that is not expanded is returned as a single summary node
+ * carrying its descendant count and generation span, so the overview stays
+ * within maxNodes however large the tree grows.
+ */
+@UtilityClass
+public class TreeOverviewBuilder {
+
+	/**
+	 * Build the overview of the tree whose root is the first row
+	 *
+	 * @param rows flat rows, one per person, root first
+	 * @param minBranchSize branches with fewer persons (head included) stay collapsed
+	 * @param maxDepth branches whose head is this many generations below the root stay collapsed
+	 * @param maxNodes upper bound on the number of nodes in the overview
+	 * @return the overview, without a root when there are no rows
+	 */
+	public static TreeOverviewResponse build(List<PersonTreeRow> rows, int minBranchSize, int maxDepth, int maxNodes) {
+		int size = rows.size();
+		if (size == 0) {
+			return TreeOverviewResponse.builder().build();
+		}
+
+		Map<String, Integer> indexById = new HashMap<>((int) (size / 0.75f) + 1);
+		for (int i = 0; i < size; i++) {
+			indexById.putIfAbsent(rows.get(i).getId(), i);
+		}
+
+		// Children in compressed form: children of i are childIndex[childStart[i] .. childStart[i + 1])
+		int[] parent = new int[size];
+		int[] childStart = new int[size + 1];
+		for (int i = 1; i < size; i++) {
+			Integer parentIndex = indexById.get(rows.get(i).getParentId());
+			parent[i] = parentIndex != null && parentIndex != i ? parentIndex : -1;
+			if (parent[i] >= 0) {
+				childStart[parent[i] + 1]++;
+			}
+		}
+		parent[0] = -1;
+		for (int i = 0; i < size; i++) {
+			childStart[i + 1] += childStart[i];
+		}
+		int[] childIndex = new int[childStart[size]];
+		int[] filled = new int[size];
+		for (int i = 1; i < size; i++) {
+			if (parent[i] >= 0) {
+				childIndex[childStart[parent[i]] + filled[parent[i]]++] = i;
+			}
+		}
+
+		// Breadth-first order from the root, then subtree aggregates from the leaves up
+		int[] order = new int[size];
+		int[] depth = new int[size];
+		int[] level = new int[size];
+		int reached = 0;
+		order[reached++] = 0;
+		level[0] = rows.get(0).getLevel() != null ? rows.get(0).getLevel() : 1;
+		for (int head = 0; head < reached; head++) {
+			int node = order[head];
+			for (int c = childStart[node]; c < childStart[node + 1]; c++) {
+				int child = childIndex[c];
+				depth[child] = depth[node] + 1;
+				Integer childLevel = rows.get(child).getLevel();
+				level[child] = childLevel != null ? childLevel : level[node] + 1;
+				order[reached++] = child;
+			}
+		}
+
+		int[] descendants = new int[size];
+		int[] maxLevel = level.clone();
+		for (int k = reached - 1; k > 0; k--) {
+			int node = order[k];
+			descendants[parent[node]] += descendants[node] + 1;
+			maxLevel[parent[node]] = Math.max(maxLevel[parent[node]], maxLevel[node]);
+		}
+
+		// Expand the largest branches while the budget allows
+		boolean[] expanded = new boolean[size];
+		PriorityQueue<Integer> candidates = new PriorityQueue<>(
+				Comparator.comparingInt((Integer node) -> descendants[node]).reversed());
+		candidates.add(0);
+		int nodeCount = 1;
+		while (!candidates.isEmpty()) {
+			int node = candidates.poll();
+			int childCount = childStart[node + 1] - childStart[node];
+			if (childCount == 0 || nodeCount + childCount > maxNodes) {
+				continue;
+			}
+			expanded[node] = true;
+			nodeCount += childCount;
+			for (int c = childStart[node]; c < childStart[node + 1]; c++) {
+				int child = childIndex[c];
+				if (depth[child] < maxDepth && descendants[child] + 1 >= minBranchSize) {
+					candidates.add(child);
+				}
+			}
+		}
+
+		// Materialize the expanded part; breadth-first order keeps siblings in row order
+		OverviewNode[] nodes = new OverviewNode[size];
+		for (int k = 0; k < reached; k++) {
+			int node = order[k];
+			if (node != 0 && !expanded[parent[node]]) {
+				continue;
+			}
+			PersonTreeRow row = rows.get(node);
+			nodes[node] = OverviewNode.builder()
+					.id(row.getId())
+					.name(row.getName())
+					.level(level[node])
+					.collapsed(!expanded[node] && descendants[node] > 0)
+					.descendantCount(descendants[node])
+					.maxLevel(maxLevel[node])
+					.childs(expanded[node] ? new ArrayList<>(childStart[node + 1] - childStart[node]) : null)
+					.build();
+			if (node != 0) {
+				nodes[parent[node]].getChilds().add(nodes[node]);
+			}
+		}
+		return TreeOverviewResponse.builder()
+				.totalCount(reached)
+				.nodeCount(nodeCount)
+				.root(nodes[0])
+				.build();
+	}
+}
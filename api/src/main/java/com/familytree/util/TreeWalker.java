@@ -0,0 +1,205 @@
+package com.familytree.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Maps one tree structure onto another without recursion.
+ * <p>
+ * The top of the tree is mapped breadth-first on the calling thread. Once more
+ * than the parallel threshold of nodes has been mapped, the remaining frontier
+ * subtrees are mapped on the common ForkJoinPool. Children are always linked
+ * in their source order and each parent is linked by a single thread, so the
+ * result does not depend on how the work was split.
+ */
+@UtilityClass
+public class TreeWalker {
+
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 5_000;
+
+	// Frontier subtrees handed to a single fork-join leaf task
+	private static final int SUBTREES_PER_TASK = 8;
+
+	/**
+	 * Links a mapped child to its mapped parent
+	 */
+	@FunctionalInterface
+	public interface Linker<T> {
+
+		/**
+		 * @param index position of the child among its siblings
+		 * @param childCount number of siblings, for pre-sizing on the first child
+		 */
+		void link(T parent, T child, int index, int childCount);
+	}
+
+	/**
+	 * Map a tree, fanning out above the default parallel threshold
+	 */
+	public static <S, T> T map(S root, Function<S, T> mapper,
+	                           Function<S, ? extends Collection<S>> children, Linker<T> linker) {
+		return map(root, mapper, children, linker, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Map a tree, fanning out once more than parallelThreshold nodes have been mapped
+	 */
+	public static <S, T> T map(S root, Function<S, T> mapper,
+	                           Function<S, ? extends Collection<S>> children, Linker<T> linker,
+	                           int parallelThreshold) {
+		if (root == null) {
+			return null;
+		}
+
+		Walk<S, T> walk = new Walk<>(mapper, children, linker);
+		T result = mapper.apply(root);
+
+		// Breadth-first over the top of the tree until the threshold is reached
+		Pending<S, T> frontier = new Pending<>();
+		frontier.add(root, result);
+		int mapped = 1;
+		while (!frontier.isEmpty() && mapped <= parallelThreshold) {
+			frontier.pollFirst();
+			mapped += walk.expand(frontier.source, frontier.target, frontier);
+		}
+
+		if (!frontier.isEmpty()) {
+			ForkJoinPool.commonPool().invoke(new SubtreeTask<>(walk, frontier, frontier.head, frontier.size));
+		}
+		return result;
+	}
+
+	/**
+	 * Growable parallel arrays of (source, target) pairs still to be expanded,
+	 * used as a queue or a stack; avoids a holder object per node
+	 */
+	private static final class Pending<S, T> {
+
+		private Object[] sources = new Object[64];
+		private Object[] targets = new Object[64];
+		private int head;
+		private int size;
+
+		// The pair most recently removed
+		private S source;
+		private T target;
+
+		boolean isEmpty() {
+			return head == size;
+		}
+
+		void add(S source, T target) {
+			if (size == sources.length) {
+				sources = Arrays.copyOf(sources, size * 2);
+				targets = Arrays.copyOf(targets, size * 2);
+			}
+			sources[size] = source;
+			targets[size] = target;
+			size++;
+		}
+
+		@SuppressWarnings("unchecked")
+		void pollFirst() {
+			source = (S) sources[head];
+			target = (T) targets[head];
+			head++;
+		}
+
+		@SuppressWarnings("unchecked")
+		void pollLast() {
+			size--;
+			source = (S) sources[size];
+			target = (T) targets[size];
+			sources[size] = null;
+			targets[size] = null;
+		}
+
+		@SuppressWarnings("unchecked")
+		S sourceAt(int index) {
+			return (S) sources[index];
+		}
+
+		@SuppressWarnings("unchecked")
+		T targetAt(int index) {
+			return (T) targets[index];
+		}
+	}
+
+	private static final class Walk<S, T> {
+
+		private final Function<S, T> mapper;
+		private final Function<S, ? extends Collection<S>> children;
+		private final Linker<T> linker;
+
+		Walk(Function<S, T> mapper, Function<S, ? extends Collection<S>> children, Linker<T> linker) {
+			this.mapper = mapper;
+			this.children = children;
+			this.linker = linker;
+		}
+
+		/**
+		 * Map and link the children of one node
+		 *
+		 * @return the number of children mapped
+		 */
+		int expand(S source, T target, Pending<S, T> pending) {
+			Collection<S> sourceChildren = children.apply(source);
+			if (sourceChildren == null || sourceChildren.isEmpty()) {
+				return 0;
+			}
+			int count = sourceChildren.size();
+			int index = 0;
+			for (S sourceChild : sourceChildren) {
+				T child = mapper.apply(sourceChild);
+				linker.link(target, child, index++, count);
+				pending.add(sourceChild, child);
+			}
+			return count;
+		}
+
+		/**
+		 * Map a whole subtree depth-first with an explicit stack
+		 */
+		void mapSubtree(S source, T target) {
+			Pending<S, T> stack = new Pending<>();
+			stack.add(source, target);
+			while (!stack.isEmpty()) {
+				stack.pollLast();
+				expand(stack.source, stack.target, stack);
+			}
+		}
+	}
+
+	private static final class SubtreeTask<S, T> extends RecursiveAction {
+
+		private final Walk<S, T> walk;
+		private final Pending<S, T> subtrees;
+		private final int from;
+		private final int to;
+
+		SubtreeTask(Walk<S, T> walk, Pending<S, T> subtrees, int from, int to) {
+			this.walk = walk;
+			this.subtrees = subtrees;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SUBTREES_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					walk.mapSubtree(subtrees.sourceAt(i), subtrees.targetAt(i));
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new SubtreeTask<>(walk, subtrees, from, middle),
+					new SubtreeTask<>(walk, subtrees, middle, to));
+		}
+	}
+}
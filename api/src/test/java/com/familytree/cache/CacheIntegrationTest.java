@@ -43,8 +43,10 @@ class CacheIntegrationTest {
 		assertThat(cacheManager.getCache(FAMILY_TREE_FULL)).isNotNull();
 		assertThat(cacheManager.getCache(PERSON_BY_ID)).isNotNull();
 		assertThat(cacheManager.getCache(PERSON_DESCENDANTS)).isNotNull();
+		assertThat(cacheManager.getCache(PERSON_DESCENDANTS_BY_DEPTH)).isNotNull();
 		assertThat(cacheManager.getCache(SEARCH_RESULTS)).isNotNull();
 		assertThat(cacheManager.getCache(PERSONS_BY_LEVEL)).isNotNull();
+		assertThat(cacheManager.getCache(TREE_OVERVIEW)).isNotNull();
 	}
 
 	@Test
@@ -55,8 +57,10 @@ class CacheIntegrationTest {
 			FAMILY_TREE_FULL,
 			PERSON_BY_ID,
 			PERSON_DESCENDANTS,
+			PERSON_DESCENDANTS_BY_DEPTH,
 			SEARCH_RESULTS,
-			PERSONS_BY_LEVEL
+			PERSONS_BY_LEVEL,
+			TREE_OVERVIEW
 		);
 	}
 
@@ -0,0 +1,130 @@
+package com.familytree.cache;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.util.FieldProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.familytree.config.CacheConfig.SEARCH_RESULTS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies key normalization, paging and derivation from cached matches and
+ * the hit-source counts of the search results cache
+ */
+class SearchResultCacheTest {
+
+	private static final List<String> NAMES = List.of(
+			"Abdul Khan", "Karim Khan", "Khadija Begum", "Muhammad Golap Khan", "Rahim Uddin");
+
+	private SimpleMeterRegistry meterRegistry;
+	private SearchResultCache cache;
+	private AtomicInteger searches;
+	private List<String> loaded;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new SearchResultCache(new CaffeineCacheManager(SEARCH_RESULTS), meterRegistry);
+		searches = new AtomicInteger();
+		loaded = new ArrayList<>();
+	}
+
+	@Test
+	void normalizesCaseAndWhitespace() {
+		assertThat(SearchResultCache.normalize("  Golap\t KHAN ")).isEqualTo("golap khan");
+
+		search("khan", 0, 2, FieldProjection.ALL);
+		search(SearchResultCache.normalize("Khan "), 0, 2, FieldProjection.ALL);
+
+		assertThat(searches).hasValue(1);
+		assertThat(lookups("exact")).isEqualTo(1);
+		assertThat(lookups("miss")).isEqualTo(1);
+	}
+
+	@Test
+	void pagesTheCachedMatchesOfAQuery() {
+		assertThat(names(search("kha", 0, 2, FieldProjection.ALL))).containsExactly("Abdul Khan", "Karim Khan");
+		assertThat(names(search("kha", 2, 2, FieldProjection.ALL)))
+				.containsExactly("Khadija Begum", "Muhammad Golap Khan");
+		assertThat(ids(search("kha", 3, 2, FieldProjection.parse("id")))).containsExactly("Muhammad-Golap-Khan");
+
+		assertThat(searches).hasValue(1);
+		assertThat(lookups("derived")).isEqualTo(2);
+		assertThat(loaded).containsExactly("Abdul-Khan", "Karim-Khan", "Khadija-Begum", "Muhammad-Golap-Khan",
+				"Muhammad-Golap-Khan");
+	}
+
+	@Test
+	void derivesFromABroaderQueryWithMoreMatchesThanItsLimit() {
+		// Every name contains "a", far more than one page holds
+		assertThat(search("a", 0, 2, FieldProjection.ALL)).hasSize(2);
+
+		assertThat(names(search("khan", 0, 10, FieldProjection.ALL)))
+				.containsExactly("Abdul Khan", "Karim Khan", "Muhammad Golap Khan");
+		assertThat(names(search("m khan", 0, 10, FieldProjection.ALL))).containsExactly("Karim Khan");
+		assertThat(names(search("khan", 1, 1, FieldProjection.ALL))).containsExactly("Karim Khan");
+
+		assertThat(searches).hasValue(1);
+		assertThat(lookups("derived")).isEqualTo(3);
+	}
+
+	@Test
+	void searchesWhenNoCachedMatchesCoverTheQuery() {
+		search("kha", 0, 10, FieldProjection.ALL);
+		search("rahim", 0, 10, FieldProjection.ALL);
+		// Ranked results are never filtered
+		cache.get("uddin", 0, 10, FieldProjection.ALL, () -> rank("uddin"));
+		cache.get("rahim uddin", 0, 10, FieldProjection.ALL, () -> rank("rahim uddin"));
+
+		assertThat(searches).hasValue(4);
+		assertThat(lookups("derived")).isZero();
+		assertThat(lookups("miss")).isEqualTo(4);
+	}
+
+	private List<PersonResponse> search(String query, int offset, int limit, FieldProjection fields) {
+		return cache.get(query, offset, limit, fields, this::find, ids -> load(ids, fields));
+	}
+
+	private List<PersonTreeRow> find(String query) {
+		searches.incrementAndGet();
+		return NAMES.stream()
+				.filter(name -> name.toLowerCase(Locale.ROOT).contains(query))
+				.map(name -> PersonTreeRow.builder().id(name.replace(' ', '-')).name(name).build())
+				.toList();
+	}
+
+	private List<PersonResponse> load(List<String> ids, FieldProjection fields) {
+		loaded.addAll(ids);
+		return ids.stream()
+				.map(id -> PersonResponse.builder()
+						.id(id)
+						.name(fields.includes(FieldProjection.Field.NAME) ? id.replace('-', ' ') : null)
+						.build())
+				.toList();
+	}
+
+	private List<PersonResponse> rank(String query) {
+		return load(find(query).stream().map(PersonTreeRow::getId).toList(), FieldProjection.ALL);
+	}
+
+	private double lookups(String source) {
+		return meterRegistry.counter("search.cache.lookups", "source", source).count();
+	}
+
+	private static List<String> names(List<PersonResponse> persons) {
+		return persons.stream().map(PersonResponse::getName).toList();
+	}
+
+	private static List<String> ids(List<PersonResponse> persons) {
+		return persons.stream().map(PersonResponse::getId).toList();
+	}
+}
@@ -0,0 +1,103 @@
+package com.familytree.index;
+
+import com.familytree.model.Facet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies filtering, facet counting and incremental updates of the facet index
+ */
+class FacetIndexTest {
+
+	@Test
+	void andsFacetsAndOrsValuesOfOneFacet() {
+		FacetIndex index = sample();
+
+		assertThat(index.search(Map.of(Facet.PROFESSION, List.of("doctor")), 10).slots()).containsExactly(0, 2);
+		assertThat(index.search(Map.of(Facet.PROFESSION, List.of("Doctor", "Teacher")), 10).slots())
+				.containsExactly(0, 1, 2);
+		assertThat(index.search(Map.of(
+				Facet.PROFESSION, List.of("Doctor"),
+				Facet.PLACE_OF_BIRTH, List.of("  foridpur ")), 10).slots()).containsExactly(0);
+		assertThat(index.search(Map.of(Facet.INSTITUTION, List.of("Nowhere")), 10).slots()).isEmpty();
+		assertThat(index.search(Map.of(), 10).slots()).containsExactly(0, 1, 2, 3);
+	}
+
+	@Test
+	void countsValuesAmongMatchesMostFrequentFirst() {
+		FacetIndex index = sample();
+
+		FacetIndex.Result all = index.search(Map.of(), 10);
+		assertThat(all.counts().get(Facet.PLACE_OF_BIRTH)).containsExactly(
+				new FacetIndex.ValueCount("Foridpur", 3), new FacetIndex.ValueCount("Dhaka", 1));
+		assertThat(all.counts().get(Facet.PLACE_OF_DEATH)).isEmpty();
+
+		FacetIndex.Result doctors = index.search(Map.of(Facet.PROFESSION, List.of("Doctor")), 10);
+		assertThat(doctors.counts().get(Facet.PLACE_OF_BIRTH)).containsExactly(
+				new FacetIndex.ValueCount("Dhaka", 1), new FacetIndex.ValueCount("Foridpur", 1));
+		assertThat(doctors.counts().get(Facet.PROFESSION)).containsExactly(new FacetIndex.ValueCount("Doctor", 2));
+
+		assertThat(index.search(Map.of(), 1).counts().get(Facet.PLACE_OF_BIRTH))
+				.containsExactly(new FacetIndex.ValueCount("Foridpur", 3));
+	}
+
+	@Test
+	void followsUpdatesAndRemovals() {
+		FacetIndex index = sample();
+
+		index.put(0, Facet.PROFESSION, "Teacher");
+		index.put(1, Facet.PLACE_OF_BIRTH, null);
+		index.remove(2);
+
+		assertThat(index.search(Map.of(Facet.PROFESSION, List.of("Doctor")), 10).slots()).isEmpty();
+		assertThat(index.search(Map.of(Facet.PROFESSION, List.of("Teacher")), 10).slots()).containsExactly(0, 1);
+		assertThat(index.search(Map.of(), 10).counts().get(Facet.PLACE_OF_BIRTH))
+				.containsExactly(new FacetIndex.ValueCount("Foridpur", 2));
+		assertThat(index.search(Map.of(), 10).slots()).containsExactly(0, 1, 3);
+	}
+
+	@Test
+	void intersectsDenseAndSparseValues() {
+		FacetIndex index = new FacetIndex();
+		for (int slot = 0; slot < 200_000; slot++) {
+			index.put(slot, Facet.PROFESSION, slot % 2 == 0 ? "Farmer" : "Teacher");
+			index.put(slot, Facet.ADDRESS, slot % 1000 == 0 ? "Amtoli" : "Dhaka");
+		}
+
+		FacetIndex.Result result = index.search(Map.of(
+				Facet.PROFESSION, List.of("Farmer"),
+				Facet.ADDRESS, List.of("Amtoli")), 10);
+
+		assertThat(result.slots()).hasSize(200).allSatisfy(slot -> assertThat(slot % 1000).isZero());
+		assertThat(result.counts().get(Facet.PROFESSION)).containsExactly(new FacetIndex.ValueCount("Farmer", 200));
+		assertThat(index.search(Map.of(Facet.PROFESSION, List.of("Farmer")), 10).counts().get(Facet.ADDRESS))
+				.containsExactly(new FacetIndex.ValueCount("Dhaka", 99_800), new FacetIndex.ValueCount("Amtoli", 200));
+	}
+
+	@Test
+	void topSelectsTheFirstSlotsInOrder() {
+		assertThat(FacetIndex.top(new int[]{5, 1, 3, 2}, Comparator.reverseOrder(), 2)).containsExactly(5, 3);
+	}
+
+	/**
+	 * Four persons; the first three have details, the last only an address
+	 */
+	private static FacetIndex sample() {
+		FacetIndex index = new FacetIndex();
+		index.put(0, Facet.PROFESSION, "Doctor");
+		index.put(0, Facet.PLACE_OF_BIRTH, "Foridpur");
+		index.put(1, Facet.PROFESSION, "Teacher");
+		index.put(1, Facet.PLACE_OF_BIRTH, "foridpur");
+		index.put(2, Facet.PROFESSION, "doctor");
+		index.put(2, Facet.PLACE_OF_BIRTH, "Dhaka");
+		index.put(2, Facet.INSTITUTION, "Dhaka  University");
+		index.put(3, Facet.ADDRESS, "Amtoli");
+		index.put(3, Facet.PLACE_OF_BIRTH, "Foridpur");
+		return index;
+	}
+}
@@ -0,0 +1,92 @@
+package com.familytree.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies phonetic folding, edit-distance matching and ranking of the fuzzy name index
+ */
+class FuzzyNameIndexTest {
+
+	@Test
+	void foldsRomanizationVariantsToOneKey() {
+		assertThat(FuzzyNameIndex.phoneticKey("Chowdhury"))
+				.isEqualTo(FuzzyNameIndex.phoneticKey("Chowdhuri"))
+				.isEqualTo(FuzzyNameIndex.phoneticKey("Choudhury"))
+				.isEqualTo(FuzzyNameIndex.phoneticKey("Chaudhuri"));
+		assertThat(FuzzyNameIndex.phoneticKey("Muhammad")).isEqualTo(FuzzyNameIndex.phoneticKey("Muhamad"));
+		assertThat(FuzzyNameIndex.phoneticKey("Khan")).isNotEqualTo(FuzzyNameIndex.phoneticKey("Kahn"));
+	}
+
+	@Test
+	void allowsFewerEditsForShortWords() {
+		FuzzyNameIndex index = new FuzzyNameIndex();
+		index.put(0, "Rahman");
+		index.put(1, "Rehman");
+		index.put(2, "Ali");
+		index.put(3, "Alam");
+
+		assertThat(index.search("Rahman", 0)).containsExactly(new FuzzyNameIndex.Match(0, 0));
+		assertThat(index.search("Rahman", 2))
+				.containsExactly(new FuzzyNameIndex.Match(0, 0), new FuzzyNameIndex.Match(1, 1));
+		// Up to two letters must match exactly, up to four within one edit
+		assertThat(ranked(index.search("Al", 2))).isEmpty();
+		assertThat(ranked(index.search("Alim", 2))).containsExactly(2, 3);
+	}
+
+	@Test
+	void ranksByEditDistanceAndRequiresEveryWord() {
+		FuzzyNameIndex index = new FuzzyNameIndex();
+		index.put(0, "Abdul Karim Chowdhury");
+		index.put(1, "Rahima Choudhury");
+		index.put(2, "Abdul Karim Khan");
+		index.put(3, "Abdul Rahman Chowdhuri");
+		index.put(4, "Karima Chaudhari");
+
+		assertThat(ranked(index.search("Chowdhury", 2))).containsExactly(0, 1, 3, 4);
+		assertThat(index.search("Chowdhury", 2)).contains(new FuzzyNameIndex.Match(4, 1));
+		assertThat(ranked(index.search("abdul chowdhury", 2))).containsExactly(0, 3);
+		assertThat(ranked(index.search("karima chowdhury", 2))).containsExactly(0, 4, 1);
+		assertThat(ranked(index.search("Chowdhury", 0))).containsExactly(0, 1, 3);
+		assertThat(index.search("Smith", 2)).isEmpty();
+		assertThat(index.search("", 2)).isEmpty();
+	}
+
+	@Test
+	void followsRenamesAndRemovals() {
+		FuzzyNameIndex index = new FuzzyNameIndex();
+		index.put(0, "Abdul Karim Chowdhury");
+		index.put(1, "Rahima Choudhury");
+
+		index.put(0, "Abdul Karim Khan");
+		index.remove(1);
+
+		assertThat(index.search("Chowdhury", 2)).isEmpty();
+		assertThat(ranked(index.search("Kahn", 1))).containsExactly(0);
+	}
+
+	@Test
+	void topSelectsTheFirstMatchesInOrder() {
+		List<FuzzyNameIndex.Match> matches = List.of(
+				new FuzzyNameIndex.Match(5, 2), new FuzzyNameIndex.Match(1, 0),
+				new FuzzyNameIndex.Match(3, 1), new FuzzyNameIndex.Match(2, 0));
+
+		assertThat(FuzzyNameIndex.top(matches, order(), 3))
+				.extracting(FuzzyNameIndex.Match::slot)
+				.containsExactly(1, 2, 3);
+	}
+
+	private static List<Integer> ranked(List<FuzzyNameIndex.Match> matches) {
+		return FuzzyNameIndex.top(matches, order(), matches.size() + 1).stream()
+				.map(FuzzyNameIndex.Match::slot)
+				.toList();
+	}
+
+	private static Comparator<FuzzyNameIndex.Match> order() {
+		return Comparator.comparingInt(FuzzyNameIndex.Match::distance).thenComparingInt(FuzzyNameIndex.Match::slot);
+	}
+}
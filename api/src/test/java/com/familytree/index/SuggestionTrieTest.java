@@ -0,0 +1,80 @@
+package com.familytree.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies ranking, prefix handling and incremental updates of the suggestion trie
+ */
+class SuggestionTrieTest {
+
+	@Test
+	void completesByFrequencyThenAlphabetically() {
+		SuggestionTrie trie = new SuggestionTrie();
+		trie.put(0, "Abdul Karim");
+		trie.put(1, "Abdul Kabir");
+		trie.put(2, "Karima Begum");
+		trie.put(3, "Abdul Karim Khan");
+
+		assertThat(trie.complete("ka", 10)).containsExactly(
+				new SuggestionTrie.Completion("Karim", 2),
+				new SuggestionTrie.Completion("Kabir", 1),
+				new SuggestionTrie.Completion("Karima", 1));
+		assertThat(trie.complete("Ka", 1)).containsExactly(new SuggestionTrie.Completion("Karim", 2));
+		assertThat(trie.complete("x", 10)).isEmpty();
+	}
+
+	@Test
+	void keepsTheTypedWordsBeforeTheLastOne() {
+		SuggestionTrie trie = new SuggestionTrie();
+		trie.put(0, "Abdul Karim");
+		trie.put(1, "Rahima Khatun");
+
+		assertThat(trie.complete("abdul kh", 10)).containsExactly(new SuggestionTrie.Completion("abdul Khatun", 1));
+		assertThat(trie.complete("Abdul ", 10)).isEmpty();
+		assertThat(trie.complete("", 10)).isEmpty();
+	}
+
+	@Test
+	void completesPrefixesEndingInsideAnEdge() {
+		SuggestionTrie trie = new SuggestionTrie();
+		trie.put(0, "Chowdhury");
+		trie.put(1, "Chowdhuri");
+
+		assertThat(trie.complete("chowd", 10)).extracting(SuggestionTrie.Completion::text)
+				.containsExactly("Chowdhuri", "Chowdhury");
+		assertThat(trie.complete("chowdhury", 10)).extracting(SuggestionTrie.Completion::text)
+				.containsExactly("Chowdhury");
+		assertThat(trie.complete("chowdhuryy", 10)).isEmpty();
+	}
+
+	@Test
+	void followsRenamesAndRemovals() {
+		SuggestionTrie trie = new SuggestionTrie();
+		trie.put(0, "Abdul Karim");
+		trie.put(1, "Abdul Kabir");
+		trie.put(2, "Kabir Hossain");
+
+		trie.put(0, "Abdul Kamal");
+		trie.remove(2);
+
+		assertThat(trie.complete("ka", 10)).containsExactly(
+				new SuggestionTrie.Completion("Kabir", 1),
+				new SuggestionTrie.Completion("Kamal", 1));
+		assertThat(trie.complete("abdul", 10)).containsExactly(new SuggestionTrie.Completion("Abdul", 2));
+		assertThat(trie.complete("h", 10)).isEmpty();
+	}
+
+	@Test
+	void keepsOnlyTheMostFrequentWordsPerPrefix() {
+		SuggestionTrie trie = new SuggestionTrie();
+		for (int i = 0; i < 2 * SuggestionTrie.TOP_K; i++) {
+			trie.put(i, "Name" + i);
+		}
+		trie.put(100, "Name7");
+
+		assertThat(trie.complete("name", SuggestionTrie.TOP_K)).hasSize(SuggestionTrie.TOP_K)
+				.first().isEqualTo(new SuggestionTrie.Completion("Name7", 2));
+	}
+}
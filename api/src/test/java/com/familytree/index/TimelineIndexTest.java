@@ -0,0 +1,85 @@
+package com.familytree.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies range queries, ordering and incremental updates of the timeline index
+ */
+class TimelineIndexTest {
+
+	@Test
+	void findsBirthsInRangeInDateOrder() {
+		TimelineIndex index = sample();
+
+		assertThat(index.search(date(1900, 1, 1), date(1950, 12, 31), null, null, slot -> true))
+				.containsExactly(2, 0, 3);
+		assertThat(index.search(date(1925, 3, 14), date(1925, 3, 14), null, null, slot -> true))
+				.containsExactly(0);
+		assertThat(index.search(null, date(1899, 12, 31), null, null, slot -> true)).containsExactly(1);
+		assertThat(index.search(date(1990, 1, 1), null, null, null, slot -> true)).isEmpty();
+		assertThat(index.search(null, null, null, null, slot -> true)).isEmpty();
+	}
+
+	@Test
+	void combinesBirthAndDeathRanges() {
+		TimelineIndex index = sample();
+
+		// Ordered by death when only death bounds are given; persons without a death date never match
+		assertThat(index.search(null, null, date(1950, 1, 1), null, slot -> true)).containsExactly(2, 0);
+		assertThat(index.search(date(1900, 1, 1), null, null, date(1980, 12, 31), slot -> true))
+				.containsExactly(2);
+		assertThat(index.search(date(1800, 1, 1), null, null, null, slot -> slot != 2))
+				.containsExactly(1, 0, 3);
+	}
+
+	@Test
+	void followsUpdatesBeforeAndAfterSorting() {
+		TimelineIndex index = new TimelineIndex();
+		index.put(0, date(1930, 1, 1), null);
+		index.put(0, date(1940, 1, 1), null);
+		index.put(1, date(1920, 1, 1), null);
+		index.sort();
+
+		index.put(2, date(1935, 6, 1), null);
+		index.put(1, date(1945, 1, 1), null);
+		index.remove(0);
+
+		assertThat(index.search(date(1900, 1, 1), null, null, null, slot -> true)).containsExactly(2, 1);
+		assertThat(index.birth(1)).isEqualTo(date(1945, 1, 1));
+		assertThat(index.birth(0)).isNull();
+	}
+
+	@Test
+	void ordersDatesBeforeTheEpochCorrectly() {
+		TimelineIndex index = new TimelineIndex();
+		index.put(3, date(1969, 12, 31), null);
+		index.put(7, date(1970, 1, 1), null);
+		index.put(1, date(1700, 6, 15), null);
+		index.put(5, date(1969, 12, 31), null);
+		index.sort();
+
+		assertThat(index.search(date(1600, 1, 1), date(2000, 1, 1), null, null, slot -> true))
+				.containsExactly(1, 3, 5, 7);
+	}
+
+	/**
+	 * Four persons born 1925, 1890, 1910 and 1950; the first and third have died
+	 */
+	private static TimelineIndex sample() {
+		TimelineIndex index = new TimelineIndex();
+		index.put(0, date(1925, 3, 14), date(1998, 11, 2));
+		index.put(1, date(1890, 7, 1), null);
+		index.put(2, date(1910, 1, 20), date(1975, 5, 5));
+		index.put(3, date(1950, 12, 31), null);
+		index.sort();
+		return index;
+	}
+
+	private static LocalDate date(int year, int month, int day) {
+		return LocalDate.of(year, month, day);
+	}
+}
@@ -0,0 +1,227 @@
+package com.familytree.index;
+
+import com.familytree.dto.FacetCount;
+import com.familytree.dto.FacetSearchResponse;
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.SubtreeStatsResponse;
+import com.familytree.dto.TimelineResponse;
+import com.familytree.model.Facet;
+import com.familytree.model.Gender;
+import com.familytree.model.Person;
+import com.familytree.model.PersonDetails;
+import com.familytree.repository.PersonRepository;
+import com.familytree.util.FieldProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the subtree aggregates, stored details and the facet and timeline
+ * indexes stay correct as persons and their details are added, moved and removed,
+ * including while the snapshot is loading
+ */
+class TreeSnapshotTest {
+
+	private TreeSnapshot snapshot;
+
+	@BeforeEach
+	void setUp() {
+		// root -> a -> c -> d, root -> b
+		PersonRepository repository = mock(PersonRepository.class);
+		when(repository.findAllTreeRows()).thenReturn(List.of(
+				row("root", null, 1, "Male"),
+				row("a", "root", 2, "Female"),
+				row("b", "root", 2, "Male"),
+				row("c", "a", 3, "Male"),
+				row("d", "c", 4, "Female")));
+		when(repository.findAllDetailsByPersonId()).thenReturn(Map.of(
+				"a", details("Doctor", "Foridpur"),
+				"c", details("Teacher", "Foridpur")));
+
+		snapshot = new TreeSnapshot(repository);
+		ReflectionTestUtils.setField(snapshot, "enabled", true);
+	}
+
+	@Test
+	void aggregatesAreComputedOnLoad() {
+		SubtreeStatsResponse root = stats("root");
+
+		assertThat(snapshot.count()).isEqualTo(5);
+		assertThat(root.getChildCount()).isEqualTo(2);
+		assertThat(root.getDescendantCount()).isEqualTo(4);
+		assertThat(root.getSubtreeDepth()).isEqualTo(3);
+		assertThat(root.getDescendantsByGender()).containsEntry("Male", 2).containsEntry("Female", 2);
+		assertThat(stats("d").getDescendantCount()).isZero();
+	}
+
+	@Test
+	void aggregatesFollowMovesAndRemovals() {
+		snapshot.count();
+
+		snapshot.link("b", "d");
+		assertThat(stats("root").getDescendantCount()).isEqualTo(4);
+		assertThat(stats("root").getSubtreeDepth()).isEqualTo(2);
+		assertThat(stats("a").getSubtreeDepth()).isEqualTo(1);
+		assertThat(stats("b").getDescendantsByGender()).containsEntry("Female", 1);
+
+		snapshot.remove("c");
+		assertThat(stats("root").getDescendantCount()).isEqualTo(3);
+		assertThat(stats("a").getSubtreeDepth()).isZero();
+
+		Person added = new Person("e", "Person e", null, null, 4, null, null);
+		added.setGender(Gender.MALE);
+		snapshot.upsert(added);
+		snapshot.link("d", "e");
+		assertThat(stats("root").getSubtreeDepth()).isEqualTo(3);
+		assertThat(stats("root").getDescendantsByGender()).containsEntry("Male", 2).containsEntry("Female", 2);
+	}
+
+	@Test
+	void facetsFollowDetailsWrites() {
+		assertThat(facetNames(Map.of(Facet.PLACE_OF_BIRTH, List.of("foridpur")))).containsExactly("Person a", "Person c");
+
+		snapshot.upsertDetails("d", details("Doctor", "Dhaka"));
+		snapshot.removeDetails("c");
+		snapshot.remove("a");
+
+		FacetSearchResponse doctors = snapshot.searchFacets(Map.of(Facet.PROFESSION, List.of("Doctor")), 0, 10, 10,
+				FieldProjection.parse(null));
+		assertThat(doctors.getTotal()).isEqualTo(1);
+		assertThat(doctors.getPersons()).extracting(PersonResponse::getId).containsExactly("d");
+		assertThat(doctors.getFacets().get("placeOfBirth")).containsExactly(new FacetCount("Dhaka", 1));
+		assertThat(facetNames(Map.of(Facet.PLACE_OF_BIRTH, List.of("Foridpur")))).isEmpty();
+	}
+
+	@Test
+	void levelReadsCarryDetails() {
+		assertThat(professionsAtLevel(2)).containsExactly("a: Doctor", "b: none");
+
+		snapshot.removeDetails("a");
+		snapshot.upsertDetails("b", details("Farmer", "Dhaka"));
+		assertThat(professionsAtLevel(2)).containsExactly("a: none", "b: Farmer");
+		assertThat(snapshot.getByLevel(2, FieldProjection.parse("name")))
+				.allSatisfy(person -> assertThat(person.getDetails()).isNull());
+	}
+
+	@Test
+	void timelineFollowsDetailsWritesAndSubtrees() {
+		snapshot.count();
+		snapshot.upsertDetails("a", born(1920));
+		snapshot.upsertDetails("b", born(1930));
+		snapshot.upsertDetails("c", born(1945));
+		snapshot.upsertDetails("d", born(1970));
+
+		assertThat(timelineIds(null)).containsExactly("a", "b", "c");
+		assertThat(timelineIds("a")).containsExactly("a", "c");
+		assertThat(snapshot.getTimeline(LocalDate.of(1900, 1, 1), null, null, null, "missing", 0, 10,
+				FieldProjection.parse(null))).isEmpty();
+
+		snapshot.link("b", "c");
+		snapshot.removeDetails("b");
+		assertThat(timelineIds(null)).containsExactly("a", "c");
+		assertThat(timelineIds("a")).containsExactly("a");
+	}
+
+	private List<String> professionsAtLevel(int level) {
+		return snapshot.getByLevel(level, FieldProjection.ALL).stream()
+				.map(person -> person.getId() + ": "
+						+ (person.getDetails() != null ? person.getDetails().getProfession() : "none"))
+				.sorted()
+				.toList();
+	}
+
+	private List<String> timelineIds(String rootId) {
+		TimelineResponse timeline = snapshot.getTimeline(LocalDate.of(1900, 1, 1), LocalDate.of(1950, 12, 31),
+				null, null, rootId, 0, 10, FieldProjection.parse(null)).orElseThrow();
+		return timeline.getEntries().stream()
+				.map(entry -> entry.getPerson().getId())
+				.toList();
+	}
+
+	private List<String> facetNames(Map<Facet, List<String>> filters) {
+		return snapshot.searchFacets(filters, 0, 10, 10, FieldProjection.parse(null)).getPersons().stream()
+				.map(PersonResponse::getName)
+				.toList();
+	}
+
+	@Test
+	void childrenAreOrderedByIdWhateverTheLinkOrder() {
+		snapshot.count();
+		for (String id : List.of("ab", "aa", "c0")) {
+			snapshot.upsert(new Person(id, "Person " + id, null, null, 2, null, null));
+		}
+		snapshot.link("root", "c0");
+		snapshot.link("root", "ab");
+		snapshot.link("root", "aa");
+		snapshot.link("c", "b");
+
+		assertThat(snapshot.getChildRows(List.of("root"), 0, 10)).extracting(PersonTreeRow::getId)
+				.containsExactly("a", "aa", "ab", "c0");
+		assertThat(snapshot.getChildRows(List.of("root"), 2, 10)).extracting(PersonTreeRow::getId)
+				.containsExactly("ab", "c0");
+		assertThat(snapshot.getChildRows(List.of("c"), 0, 10)).extracting(PersonTreeRow::getId)
+				.containsExactly("b", "d");
+	}
+
+	@Test
+	void writesCommittedDuringALoadAreApplied() throws InterruptedException {
+		PersonRepository repository = mock(PersonRepository.class);
+		TreeSnapshot loading = new TreeSnapshot(repository);
+		ReflectionTestUtils.setField(loading, "enabled", true);
+		Thread writer = new Thread(() -> {
+			loading.upsert(new Person("e", "Person e", null, null, 2, null, null));
+			loading.link("root", "e");
+		});
+		// The write commits after the rows are read, before the load is done
+		when(repository.findAllTreeRows()).thenAnswer(invocation -> {
+			writer.start();
+			while (writer.isAlive() && writer.getState() != Thread.State.WAITING) {
+				Thread.onSpinWait();
+			}
+			return List.of(row("root", null, 1, "Male"));
+		});
+		when(repository.findAllDetailsByPersonId()).thenReturn(Map.of());
+
+		loading.count();
+		writer.join();
+
+		assertThat(loading.count()).isEqualTo(2);
+		assertThat(loading.getStats("root").orElseThrow().getDescendantCount()).isEqualTo(1);
+	}
+
+	private SubtreeStatsResponse stats(String id) {
+		return snapshot.getStats(id).orElseThrow();
+	}
+
+	private static PersonTreeRow row(String id, String parentId, int level, String gender) {
+		return PersonTreeRow.builder()
+				.id(id)
+				.parentId(parentId)
+				.name("Person " + id)
+				.level(level)
+				.gender(gender)
+				.build();
+	}
+
+	private static PersonDetails born(int year) {
+		PersonDetails details = new PersonDetails();
+		details.setDateOfBirth(LocalDate.of(year, 6, 1));
+		return details;
+	}
+
+	private static PersonDetails details(String profession, String placeOfBirth) {
+		PersonDetails details = new PersonDetails();
+		details.setProfession(profession);
+		details.setPlaceOfBirth(placeOfBirth);
+		return details;
+	}
+}
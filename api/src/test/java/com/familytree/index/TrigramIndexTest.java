@@ -0,0 +1,42 @@
+package com.familytree.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies trigram search matches a case-insensitive contains scan and follows updates
+ */
+class TrigramIndexTest {
+
+	@Test
+	void matchesContainsIgnoringCase() {
+		TrigramIndex index = new TrigramIndex();
+		index.put(0, "Nguyễn Văn An");
+		index.put(1, "Nguyễn Thị Bình");
+		index.put(2, "Trần Văn Anh");
+		index.put(3, "Lan Anh Nguyen");
+
+		assertThat(index.search("nguyễn")).containsExactly(0, 1);
+		assertThat(index.search("VĂN AN")).containsExactly(0, 2);
+		assertThat(index.search("an")).containsExactly(0, 2, 3);
+		assertThat(index.search("ngu")).containsExactly(0, 1, 3);
+		assertThat(index.search("")).containsExactly(0, 1, 2, 3);
+		// Both trigrams of "lanh" occur in "Lan Anh Nguyen", but not next to each other
+		assertThat(index.search("lanh")).isEmpty();
+	}
+
+	@Test
+	void followsRenamesAndRemovals() {
+		TrigramIndex index = new TrigramIndex();
+		index.put(0, "Lê Văn Tám");
+		index.put(1, "Lê Thị Hoa");
+
+		index.put(0, "Phạm Văn Tám");
+		index.remove(1);
+
+		assertThat(index.search("lê")).isEmpty();
+		assertThat(index.search("phạm")).containsExactly(0);
+		assertThat(index.search("hoa")).isEmpty();
+	}
+}
@@ -0,0 +1,99 @@
+package com.familytree.layout;
+
+import com.familytree.dto.ChangesResponse;
+import com.familytree.dto.PersonChange;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeLayoutResponse;
+import com.familytree.service.FamilyTreeService;
+import com.familytree.sync.ChangeLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies incremental re-layout produces the same positions as laying out
+ * the changed tree from scratch
+ */
+class TreeLayoutEngineTest {
+
+	private static final double SPACING = 250;
+
+	@Test
+	void incrementalLayoutMatchesFullLayout() {
+		List<PersonTreeRow> rows = new ArrayList<>(List.of(
+				row("root", null), row("a", "root"), row("a1", "a"), row("a2", "a"),
+				row("b", "root"), row("b1", "b"), row("b11", "b1"), row("c", "root")));
+		FamilyTreeService service = mock(FamilyTreeService.class);
+		when(service.streamFullTree()).thenAnswer(invocation -> rows.stream());
+		ChangeLog changeLog = mock(ChangeLog.class);
+		when(changeLog.head()).thenReturn(1L);
+
+		TreeLayoutEngine engine = engine(service, changeLog);
+		assertNoOverlap(engine.getLayout());
+
+		// A new grandchild widens subtree a, which must push b and c to the right
+		PersonTreeRow added = row("a3", "a");
+		when(changeLog.head()).thenReturn(2L);
+		when(changeLog.since(1L)).thenReturn(ChangesResponse.builder()
+				.since(1L)
+				.version(2L)
+				.changes(List.of(PersonChange.builder()
+						.version(2L)
+						.type(PersonChange.Type.CREATED)
+						.personId("a3")
+						.person(added)
+						.build()))
+				.build());
+		TreeLayoutResponse incremental = engine.getLayout();
+
+		rows.add(4, added);
+		TreeLayoutResponse full = engine(service, changeLog).getLayout();
+
+		assertThat(positions(incremental)).isEqualTo(positions(full));
+		assertNoOverlap(incremental);
+	}
+
+	private static TreeLayoutEngine engine(FamilyTreeService service, ChangeLog changeLog) {
+		TreeLayoutEngine engine = new TreeLayoutEngine(service, changeLog);
+		ReflectionTestUtils.setField(engine, "horizontalSpacing", SPACING);
+		ReflectionTestUtils.setField(engine, "verticalSpacing", 200.0);
+		return engine;
+	}
+
+	private static void assertNoOverlap(TreeLayoutResponse layout) {
+		Map<Double, List<Double>> byRow = new HashMap<>();
+		for (int i = 0; i < layout.getSize(); i++) {
+			byRow.computeIfAbsent(layout.getY()[i], y -> new ArrayList<>()).add(layout.getX()[i]);
+		}
+		byRow.values().forEach(xs -> {
+			xs.sort(Double::compare);
+			for (int i = 1; i < xs.size(); i++) {
+				assertThat(xs.get(i) - xs.get(i - 1)).isGreaterThanOrEqualTo(SPACING);
+			}
+		});
+	}
+
+	private static Map<String, String> positions(TreeLayoutResponse layout) {
+		Map<String, String> positions = new HashMap<>();
+		for (int i = 0; i < layout.getSize(); i++) {
+			positions.put(layout.getIds()[i], layout.getX()[i] + "," + layout.getY()[i]);
+		}
+		return positions;
+	}
+
+	private static PersonTreeRow row(String id, String parentId) {
+		return PersonTreeRow.builder()
+				.id(id)
+				.parentId(parentId)
+				.name("Person " + id)
+				.build();
+	}
+}
@@ -0,0 +1,95 @@
+package com.familytree.layout;
+
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeLayoutResponse;
+import com.familytree.dto.ViewportEdge;
+import com.familytree.dto.ViewportNode;
+import com.familytree.dto.ViewportResponse;
+import com.familytree.exception.InvalidDataException;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.repository.PersonRepository;
+import com.familytree.util.FieldProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies viewport queries return the persons inside the rectangle and follow layout changes
+ */
+class ViewportIndexTest {
+
+	private TreeLayoutEngine layoutEngine;
+	private ViewportIndex index;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		layoutEngine = mock(TreeLayoutEngine.class);
+		TreeSnapshot snapshot = mock(TreeSnapshot.class);
+		when(snapshot.isEnabled()).thenReturn(true);
+		when(snapshot.getRows(any())).thenAnswer(invocation -> ((Collection<String>) invocation.getArgument(0))
+				.stream()
+				.map(id -> PersonTreeRow.builder().id(id).name("Person " + id).build())
+				.toList());
+
+		index = new ViewportIndex(layoutEngine, snapshot, mock(PersonRepository.class));
+		ReflectionTestUtils.setField(index, "cellSize", 100.0);
+	}
+
+	@Test
+	void returnsPersonsInsideAndEdgesReachingThem() {
+		// root (0,0) -> a (-250,200), b (250,200); a -> c (-250,400)
+		when(layoutEngine.getLayout()).thenReturn(layout(1,
+				new String[]{"root", "a", "c", "b"}, new int[]{-1, 0, 1, 0},
+				new double[]{0, -250, -250, 250}, new double[]{0, 200, 400, 200}));
+
+		ViewportResponse viewport = index.query(-300, 150, 0, 250, FieldProjection.ALL);
+
+		assertThat(viewport.getNodes()).extracting(node -> node.getPerson().getId()).containsExactly("a");
+		assertThat(viewport.getEdges()).extracting(ViewportEdge::getChildId).containsExactlyInAnyOrder("a", "c");
+	}
+
+	@Test
+	void followsMovedAndRemovedPersons() {
+		when(layoutEngine.getLayout()).thenReturn(layout(1,
+				new String[]{"root", "a", "b"}, new int[]{-1, 0, 0},
+				new double[]{0, -250, 250}, new double[]{0, 200, 200}));
+		assertThat(ids(index.query(-1000, -1000, 1000, 1000, FieldProjection.ALL))).containsExactlyInAnyOrder("root", "a", "b");
+
+		// a moves far right, b is removed
+		when(layoutEngine.getLayout()).thenReturn(layout(2,
+				new String[]{"root", "a"}, new int[]{-1, 0},
+				new double[]{0, 5000}, new double[]{0, 200}));
+
+		assertThat(ids(index.query(-1000, -1000, 1000, 1000, FieldProjection.ALL))).containsExactly("root");
+		assertThat(ids(index.query(4900, 100, 5100, 300, FieldProjection.ALL))).containsExactly("a");
+		assertThatThrownBy(() -> index.query(10, 0, 0, 10, FieldProjection.ALL))
+				.isInstanceOf(InvalidDataException.class);
+	}
+
+	private static List<String> ids(ViewportResponse viewport) {
+		return viewport.getNodes().stream().map(ViewportNode::getPerson).map(person -> person.getId()).toList();
+	}
+
+	private static TreeLayoutResponse layout(long version, String[] ids, int[] parentIndex, double[] x, double[] y) {
+		return TreeLayoutResponse.builder()
+				.version(version)
+				.size(ids.length)
+				.ids(ids)
+				.parentIndex(parentIndex)
+				.x(x)
+				.y(y)
+				.manual(new boolean[ids.length])
+				.locked(new boolean[ids.length])
+				.build();
+	}
+}
@@ -0,0 +1,170 @@
+package com.familytree.repository;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.model.Person;
+import com.familytree.util.TreeAssembler;
+import com.familytree.util.TreeMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.core.Neo4jTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.Neo4jContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark comparing the legacy path-collecting descendants query with the
+ * flat (person, parentId) row query on deep synthetic trees, plus a check of
+ * the pre-order row stream.
+ * Requires Docker; skipped otherwise.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class DescendantsQueryBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(DescendantsQueryBenchmarkTest.class);
+
+	/**
+	 * The query previously used by PersonRepository.findByIdWithAllDescendants
+	 */
+	private static final String LEGACY_DESCENDANTS_QUERY =
+			"MATCH (p:Person {id: $id}) " +
+			"OPTIONAL MATCH path = (p)-[:PARENT_OF*]->(descendant:Person) " +
+			"RETURN p, collect(descendant), collect(relationships(path))";
+
+	private static final int[] DEPTHS = {50, 200, 500};
+	private static final int ITERATIONS = 5;
+
+	@Container
+	static Neo4jContainer<?> neo4j = new Neo4jContainer<>("neo4j:5").withoutAuthentication();
+
+	@DynamicPropertySource
+	static void neo4jProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.neo4j.uri", neo4j::getBoltUrl);
+		registry.add("spring.neo4j.authentication.username", () -> "neo4j");
+		registry.add("spring.neo4j.authentication.password", () -> "");
+		registry.add("app.data.initial-load", () -> "false");
+	}
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private Neo4jTemplate neo4jTemplate;
+
+	@Autowired
+	private Neo4jClient neo4jClient;
+
+	private void createSyntheticTrees() {
+		neo4jClient.query("CREATE INDEX person_id IF NOT EXISTS FOR (p:Person) ON (p.id)").run();
+		for (int depth : DEPTHS) {
+			createLineage(depth);
+		}
+	}
+
+	/**
+	 * A lineage of the given depth where every generation also has one leaf child
+	 */
+	private void createLineage(int depth) {
+		neo4jClient.query(
+						"UNWIND range(1, $depth) AS i " +
+						"CREATE (:Person {id: 'deep' + $depth + '-' + i, name: 'Person ' + i, level: i, gender: 'MALE'}) " +
+						"CREATE (:Person {id: 'leaf' + $depth + '-' + i, name: 'Leaf ' + i, level: i + 1, gender: 'FEMALE'})")
+				.bind(depth).to("depth")
+				.run();
+		neo4jClient.query(
+						"UNWIND range(1, $depth) AS i " +
+						"MATCH (p:Person {id: 'deep' + $depth + '-' + i}), (leaf:Person {id: 'leaf' + $depth + '-' + i}) " +
+						"CREATE (p)-[:PARENT_OF]->(leaf) " +
+						"WITH p, i WHERE i < $depth " +
+						"MATCH (next:Person {id: 'deep' + $depth + '-' + (i + 1)}) " +
+						"CREATE (p)-[:PARENT_OF]->(next)")
+				.bind(depth).to("depth")
+				.run();
+	}
+
+	@Test
+	void flatRowsMatchLegacyQueryAndReportTimings() {
+		createSyntheticTrees();
+
+		for (int depth : DEPTHS) {
+			String rootId = "deep" + depth + "-1";
+
+			PersonResponse legacy = null;
+			PersonResponse flat = null;
+			long legacyNanos = 0;
+			long flatNanos = 0;
+
+			for (int i = 0; i < ITERATIONS; i++) {
+				long start = System.nanoTime();
+				Person person = neo4jTemplate.findOne(LEGACY_DESCENDANTS_QUERY, Map.of("id", rootId), Person.class)
+						.orElseThrow();
+				legacy = TreeMapper.toResponseWithChildren(person);
+				legacyNanos += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				flat = TreeAssembler.assemble(personRepository.findDescendantRows(rootId), rootId)
+						.orElseThrow();
+				flatNanos += System.nanoTime() - start;
+			}
+
+			assertThat(count(flat)).isEqualTo(count(legacy)).isEqualTo(2 * depth);
+
+			log.info("depth={} nodes={} legacy={} ms flat={} ms",
+					depth, count(flat), legacyNanos / ITERATIONS / 1_000_000, flatNanos / ITERATIONS / 1_000_000);
+		}
+	}
+
+	@Test
+	void streamedRowsArePreOrder() {
+		createLineage(30);
+
+		List<PersonTreeRow> rows;
+		try (Stream<PersonTreeRow> stream = personRepository.streamDescendantRows("deep30-1")) {
+			rows = stream.toList();
+		}
+
+		assertThat(rows).hasSize(60);
+		// In pre-order every row's parent is the nearest of the open ancestors,
+		// and a row follows its previous sibling's subtree in ID order
+		Deque<String> ancestors = new ArrayDeque<>();
+		String previousSibling = null;
+		for (PersonTreeRow row : rows) {
+			while (!ancestors.isEmpty() && !ancestors.peek().equals(row.getParentId())) {
+				previousSibling = ancestors.pop();
+			}
+			assertThat(row.getParentId()).isEqualTo(ancestors.peek());
+			if (previousSibling != null) {
+				assertThat(row.getId()).isGreaterThan(previousSibling);
+			}
+			ancestors.push(row.getId());
+			previousSibling = null;
+		}
+	}
+
+	private static int count(PersonResponse root) {
+		int count = 0;
+		Deque<PersonResponse> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			PersonResponse node = stack.pop();
+			count++;
+			node.getChilds().forEach(stack::push);
+		}
+		return count;
+	}
+}
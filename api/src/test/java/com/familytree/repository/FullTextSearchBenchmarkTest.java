@@ -0,0 +1,119 @@
+package com.familytree.repository;
+
+import com.familytree.dto.PersonTreeRow;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.Neo4jContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark comparing the CONTAINS name search with the full-text index
+ * search on a synthetic 100k-person dataset.
+ * Requires Docker; skipped otherwise.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class FullTextSearchBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(FullTextSearchBenchmarkTest.class);
+
+	/**
+	 * The query previously used by PersonRepository.searchByName
+	 */
+	private static final String LEGACY_NAME_SEARCH_QUERY =
+			"MATCH (p:Person) " +
+			"WHERE toLower(p.name) CONTAINS toLower($name) " +
+			"RETURN p.id AS id ORDER BY p.name, p.id SKIP $offset LIMIT $limit";
+
+	private static final int PERSONS = 100_000;
+	private static final int BATCH = 10_000;
+	private static final int ITERATIONS = 20;
+	private static final int LIMIT = 20;
+
+	@Container
+	static Neo4jContainer<?> neo4j = new Neo4jContainer<>("neo4j:5").withoutAuthentication();
+
+	@DynamicPropertySource
+	static void neo4jProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.neo4j.uri", neo4j::getBoltUrl);
+		registry.add("spring.neo4j.authentication.username", () -> "neo4j");
+		registry.add("spring.neo4j.authentication.password", () -> "");
+		registry.add("app.data.initial-load", () -> "false");
+		registry.add("app.search.fulltext.enabled", () -> "true");
+	}
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private Neo4jClient neo4jClient;
+
+	/**
+	 * Persons with one of a hundred family names, each with details; every
+	 * tenth person is a doctor born in Foridpur
+	 */
+	private void createSyntheticPersons() {
+		for (int from = 0; from < PERSONS; from += BATCH) {
+			neo4jClient.query(
+							"UNWIND range($from, $to - 1) AS i " +
+							"CREATE (p:Person {id: 'p-' + i, name: 'Person' + i + ' Family' + (i % 100), level: 1, gender: 'MALE'}) " +
+							"CREATE (p)-[:HAS_DETAILS]->(:PersonDetails {id: 'd-' + i, fullName: 'Person' + i + ' Family' + (i % 100), " +
+							"profession: CASE WHEN i % 10 = 0 THEN 'Doctor' ELSE 'Farmer' END, " +
+							"placeOfBirth: CASE WHEN i % 10 = 0 THEN 'Foridpur' ELSE 'Dhaka' END})")
+					.bind(from).to("from")
+					.bind(Math.min(from + BATCH, PERSONS)).to("to")
+					.run();
+		}
+		neo4jClient.query("CALL db.awaitIndexes(300)").run();
+	}
+
+	@Test
+	void fullTextSearchFindsNameAndDetailsMatchesAndReportsTimings() {
+		createSyntheticPersons();
+
+		List<String> contains = List.of();
+		List<PersonTreeRow> fullText = List.of();
+		long containsNanos = 0;
+		long fullTextNanos = 0;
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			contains = List.copyOf(neo4jClient.query(LEGACY_NAME_SEARCH_QUERY)
+					.bind("Family42").to("name")
+					.bind(0).to("offset")
+					.bind(LIMIT).to("limit")
+					.fetchAs(String.class)
+					.mappedBy((typeSystem, record) -> record.get("id").asString())
+					.all());
+			containsNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			fullText = personRepository.searchFullText("Family42", 0, LIMIT);
+			fullTextNanos += System.nanoTime() - start;
+		}
+
+		assertThat(contains).hasSize(LIMIT);
+		assertThat(fullText).hasSize(LIMIT);
+		assertThat(fullText).allSatisfy(row -> assertThat(row.getName()).endsWith("Family42"));
+
+		// Details fields are searched too, and every word has to match
+		assertThat(personRepository.searchFullText("doctor foridpur", 0, LIMIT))
+				.hasSize(LIMIT)
+				.allSatisfy(row -> assertThat(Integer.parseInt(row.getId().substring(2)) % 10).isZero());
+		assertThat(personRepository.searchFullText("farmer foridpur", 0, LIMIT)).isEmpty();
+
+		log.info("persons={} contains={} ms fulltext={} ms",
+				PERSONS, containsNanos / ITERATIONS / 1_000_000, fullTextNanos / ITERATIONS / 1_000_000);
+	}
+}
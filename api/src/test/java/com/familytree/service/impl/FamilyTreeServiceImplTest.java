@@ -0,0 +1,333 @@
+package com.familytree.service.impl;
+
+import com.familytree.cache.SearchResultCache;
+import com.familytree.cache.TreeVersion;
+import com.familytree.config.CacheConfig;
+import com.familytree.dto.PersonDetailsRequest;
+import com.familytree.dto.PersonPatchRequest;
+import com.familytree.dto.PersonRequest;
+import com.familytree.dto.PersonResponse;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.exception.SnapshotDisabledException;
+import com.familytree.index.TreeSnapshot;
+import com.familytree.model.Facet;
+import com.familytree.model.Person;
+import com.familytree.model.PersonDetails;
+import com.familytree.repository.PersonDetailsRepository;
+import com.familytree.repository.PersonRepository;
+import com.familytree.service.FamilyTreeService;
+import com.familytree.sync.ChangeLog;
+import com.familytree.util.DataLoader;
+import com.familytree.util.FieldProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.familytree.config.CacheConfig.PERSONS_BY_LEVEL;
+import static com.familytree.config.CacheConfig.PERSON_BY_ID;
+import static com.familytree.config.CacheConfig.PERSON_DESCENDANTS;
+import static com.familytree.config.CacheConfig.PERSON_DESCENDANTS_BY_DEPTH;
+import static com.familytree.config.CacheConfig.SEARCH_RESULTS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that service writes reach the in-memory snapshot only once their
+ * transaction commits, so a rolled-back write leaves no trace in it, and that
+ * they evict the caches their data is read through
+ */
+@SpringJUnitConfig(FamilyTreeServiceImplTest.Config.class)
+class FamilyTreeServiceImplTest {
+
+	@Configuration
+	@EnableTransactionManagement
+	@Import({CacheConfig.class, SearchResultCache.class, TreeSnapshot.class, FamilyTreeServiceImpl.class})
+	static class Config {
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return new NoOpTransactionManager();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@MockBean
+	private PersonRepository personRepository;
+
+	@MockBean
+	private PersonDetailsRepository personDetailsRepository;
+
+	@MockBean
+	private DataLoader dataLoader;
+
+	@MockBean
+	private TreeVersion treeVersion;
+
+	@MockBean
+	private ChangeLog changeLog;
+
+	@Autowired
+	private FamilyTreeService familyTreeService;
+
+	@Autowired
+	private TreeSnapshot treeSnapshot;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeEach
+	void setUp() {
+		// root -> a, root -> b
+		when(personRepository.findAllTreeRows()).thenReturn(List.of(
+				row("root", null, 1),
+				row("a", "root", 2),
+				row("b", "root", 2)));
+		when(personRepository.findAllDetailsByPersonId()).thenReturn(Map.of());
+		when(personRepository.save(any(Person.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		treeSnapshot.invalidate();
+		treeSnapshot.count();
+	}
+
+	@AfterEach
+	void enableSnapshot() {
+		ReflectionTestUtils.setField(treeSnapshot, "enabled", true);
+	}
+
+	@Test
+	void createIsAppliedAfterCommit() {
+		when(personRepository.existsById("root")).thenReturn(true);
+
+		familyTreeService.createPerson(request("c", "root"));
+
+		assertThat(treeSnapshot.getRow("c")).map(PersonTreeRow::getParentId).contains("root");
+		assertThat(treeSnapshot.getStats("root").orElseThrow().getDescendantCount()).isEqualTo(3);
+	}
+
+	@Test
+	void createIsDroppedOnRollback() {
+		when(personRepository.existsById("root")).thenReturn(true);
+		doThrow(new IllegalStateException("constraint violated"))
+				.when(personRepository).createParentChildRelationship("root", "c");
+
+		assertThatThrownBy(() -> familyTreeService.createPerson(request("c", "root")))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(treeSnapshot.getRow("c")).isEmpty();
+		assertThat(treeSnapshot.count()).isEqualTo(3);
+		assertThat(treeSnapshot.getStats("root").orElseThrow().getDescendantCount()).isEqualTo(2);
+	}
+
+	@Test
+	void moveIsDroppedOnRollback() {
+		Person a = new Person("a", "Person a", null, null, 2, null, null);
+		when(personRepository.findById("a")).thenReturn(Optional.of(a));
+		when(personRepository.findParentId("a")).thenReturn(Optional.of("root"));
+		when(personRepository.existsById("b")).thenReturn(true);
+		when(treeVersion.increment(anyString(), anyString())).thenThrow(new IllegalStateException("lock timeout"));
+
+		PersonPatchRequest patch = new PersonPatchRequest();
+		patch.setName("Renamed a");
+		patch.setParentId("b");
+		assertThatThrownBy(() -> familyTreeService.updatePerson("a", patch))
+				.isInstanceOf(IllegalStateException.class);
+
+		PersonTreeRow row = treeSnapshot.getRow("a").orElseThrow();
+		assertThat(row.getName()).isEqualTo("Person a");
+		assertThat(row.getParentId()).isEqualTo("root");
+		assertThat(treeSnapshot.getStats("b").orElseThrow().getDescendantCount()).isZero();
+	}
+
+	@Test
+	void deleteIsDroppedOnRollback() {
+		when(personRepository.existsById("a")).thenReturn(true);
+		doThrow(new IllegalStateException("connection lost")).when(personRepository).deleteById("a");
+
+		assertThatThrownBy(() -> familyTreeService.deletePerson("a"))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(treeSnapshot.getRow("a")).isPresent();
+		assertThat(treeSnapshot.count()).isEqualTo(3);
+	}
+
+	@Test
+	void detailsAreDroppedOnRollback() {
+		Person a = new Person("a", "Person a", null, null, 2, null, null);
+		when(personRepository.findById("a")).thenReturn(Optional.of(a));
+		when(personRepository.existsById("a")).thenReturn(true);
+		when(personDetailsRepository.save(any(PersonDetails.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		PersonDetailsRequest request = new PersonDetailsRequest();
+		request.setProfession("Doctor");
+
+		familyTreeService.addOrUpdatePersonDetails("a", request);
+		assertThat(doctors()).isEqualTo(1);
+
+		when(treeVersion.increment("a")).thenThrow(new IllegalStateException("lock timeout"));
+		request.setProfession("Teacher");
+		assertThatThrownBy(() -> familyTreeService.addOrUpdatePersonDetails("a", request))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> familyTreeService.deletePersonDetails("a"))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(doctors()).isEqualTo(1);
+	}
+
+	@Test
+	void detailsWritesEvictSearchAndLevelResults() {
+		Person a = new Person("a", "Person a", null, null, 2, null, null);
+		when(personRepository.findById("a")).thenReturn(Optional.of(a));
+		when(personRepository.existsById("a")).thenReturn(true);
+		when(personDetailsRepository.save(any(PersonDetails.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		familyTreeService.searchByName("person", 0, 10, FieldProjection.ALL);
+		familyTreeService.getPersonsByLevel(2, FieldProjection.ALL);
+		assertThat(searchResults()).isNotEmpty();
+		assertThat(entries(PERSONS_BY_LEVEL)).isNotEmpty();
+		PersonDetailsRequest request = new PersonDetailsRequest();
+		request.setProfession("Doctor");
+		familyTreeService.addOrUpdatePersonDetails("a", request);
+		assertThat(searchResults()).isEmpty();
+		assertThat(entries(PERSONS_BY_LEVEL)).isEmpty();
+
+		familyTreeService.searchByName("person", 0, 10, FieldProjection.ALL);
+		familyTreeService.getPersonsByLevel(2, FieldProjection.ALL);
+		assertThat(searchResults()).isNotEmpty();
+		assertThat(entries(PERSONS_BY_LEVEL)).isNotEmpty();
+		familyTreeService.deletePersonDetails("a");
+		assertThat(searchResults()).isEmpty();
+		assertThat(entries(PERSONS_BY_LEVEL)).isEmpty();
+	}
+
+	@Test
+	void fuzzyResultsDoNotShareKeysWithNameSearch() {
+		// Joined into a string, both keys would read "fuzzy:person a:0:0:10:*"
+		assertThat(familyTreeService.searchFuzzy("person a", 0, 0, 10, FieldProjection.ALL))
+				.extracting(PersonResponse::getId).containsExactly("a");
+		assertThat(familyTreeService.searchByName("fuzzy:person a:0", 0, 10, FieldProjection.ALL)).isEmpty();
+	}
+
+	@Test
+	void indexedSearchesNeedTheSnapshot() {
+		ReflectionTestUtils.setField(treeSnapshot, "enabled", false);
+
+		assertThatThrownBy(() -> familyTreeService.searchFuzzy("person", 2, 0, 10, FieldProjection.ALL))
+				.isInstanceOf(SnapshotDisabledException.class);
+		assertThatThrownBy(() -> familyTreeService.suggest("pers", 10))
+				.isInstanceOf(SnapshotDisabledException.class);
+		assertThatThrownBy(() -> familyTreeService.searchFacets(Map.of(), 0, 10, 10, FieldProjection.ALL))
+				.isInstanceOf(SnapshotDisabledException.class);
+		assertThatThrownBy(() -> familyTreeService.getTimeline("1900", null, null, null, "a", 0, 10, FieldProjection.ALL))
+				.isInstanceOf(SnapshotDisabledException.class);
+	}
+
+	@Test
+	void subtreeAggregatesNeedTheSnapshot() {
+		ReflectionTestUtils.setField(treeSnapshot, "enabled", false);
+		FieldProjection aggregates = FieldProjection.parse("name,descendantCount");
+
+		assertThatThrownBy(() -> familyTreeService.getPersonWithDescendants("a", 1, aggregates))
+				.isInstanceOf(SnapshotDisabledException.class);
+		assertThatThrownBy(() -> familyTreeService.searchByName("person", 0, 10, FieldProjection.parse("subtreeDepth")))
+				.isInstanceOf(SnapshotDisabledException.class);
+		assertThatThrownBy(() -> familyTreeService.getPersonsByLevel(2, aggregates))
+				.isInstanceOf(SnapshotDisabledException.class);
+	}
+
+	@Test
+	void positionsResetEvictsEveryPersonCache() {
+		familyTreeService.getPersonById("a");
+		familyTreeService.getPersonWithAllDescendants("root", FieldProjection.ALL);
+		familyTreeService.getPersonWithDescendants("root", 1, FieldProjection.ALL);
+		familyTreeService.getPersonsByLevel(2, FieldProjection.ALL);
+		familyTreeService.searchByName("person", 0, 10, FieldProjection.ALL);
+		List<String> caches = List.of(PERSON_BY_ID, PERSON_DESCENDANTS, PERSON_DESCENDANTS_BY_DEPTH, PERSONS_BY_LEVEL,
+				SEARCH_RESULTS);
+		assertThat(caches).allSatisfy(name -> assertThat(entries(name)).isNotEmpty());
+
+		familyTreeService.resetAllPositions();
+
+		assertThat(caches).allSatisfy(name -> assertThat(entries(name)).isEmpty());
+	}
+
+	private int doctors() {
+		return treeSnapshot.searchFacets(Map.of(Facet.PROFESSION, List.of("Doctor")), 0, 10, 10, FieldProjection.ALL)
+				.getTotal();
+	}
+
+	private Map<Object, Object> searchResults() {
+		return entries(SEARCH_RESULTS);
+	}
+
+	private Map<Object, Object> entries(String cacheName) {
+		return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().asMap();
+	}
+
+	private static PersonRequest request(String id, String parentId) {
+		PersonRequest request = new PersonRequest();
+		request.setId(id);
+		request.setName("Person " + id);
+		request.setLevel(3);
+		request.setParentId(parentId);
+		return request;
+	}
+
+	private static PersonTreeRow row(String id, String parentId, int level) {
+		return PersonTreeRow.builder()
+				.id(id)
+				.parentId(parentId)
+				.name("Person " + id)
+				.level(level)
+				.build();
+	}
+
+	/**
+	 * Runs transaction synchronizations without a database, so commit and
+	 * rollback reach the hooks as they would with Neo4j
+	 */
+	static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
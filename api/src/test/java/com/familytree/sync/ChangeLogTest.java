@@ -0,0 +1,93 @@
+package com.familytree.sync;
+
+import com.familytree.cache.TreeVersion;
+import com.familytree.dto.PersonChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies changes reach the log and its listeners in version order
+ * whatever order their transactions complete in
+ */
+class ChangeLogTest {
+
+	private final List<Long> published = new ArrayList<>();
+	private ChangeLog changeLog;
+
+	@BeforeEach
+	void setUp() {
+		TreeVersion treeVersion = mock(TreeVersion.class);
+		when(treeVersion.current()).thenReturn(5L);
+		ApplicationEventPublisher eventPublisher = event -> published.add(((PersonChange) event).getVersion());
+
+		changeLog = new ChangeLog(treeVersion, eventPublisher);
+		ReflectionTestUtils.setField(changeLog, "capacity", 100);
+		changeLog.head();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void changeCommittingBeforeALowerVersionIsHeldBack() {
+		List<TransactionSynchronization> six = record(6);
+		List<TransactionSynchronization> seven = record(7);
+
+		complete(seven, TransactionSynchronization.STATUS_COMMITTED);
+
+		assertThat(changeLog.head()).isEqualTo(5);
+		assertThat(changeLog.since(5).getChanges()).isEmpty();
+		assertThat(published).isEmpty();
+
+		complete(six, TransactionSynchronization.STATUS_COMMITTED);
+
+		assertThat(changeLog.head()).isEqualTo(7);
+		assertThat(changeLog.since(5).getChanges()).extracting(PersonChange::getVersion).containsExactly(6L, 7L);
+		assertThat(published).containsExactly(6L, 7L);
+	}
+
+	@Test
+	void rolledBackVersionReleasesHigherOnes() {
+		List<TransactionSynchronization> six = record(6);
+		List<TransactionSynchronization> seven = record(7);
+
+		complete(seven, TransactionSynchronization.STATUS_COMMITTED);
+		complete(six, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(changeLog.since(5).getChanges()).extracting(PersonChange::getVersion).containsExactly(7L);
+		assertThat(published).containsExactly(7L);
+	}
+
+	/**
+	 * Record a change in a transaction of its own, returning its completion hooks
+	 */
+	private List<TransactionSynchronization> record(long version) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			changeLog.record(version, PersonChange.Type.UPDATED, "p" + version, null);
+			return TransactionSynchronizationManager.getSynchronizations();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+}
@@ -0,0 +1,121 @@
+package com.familytree.util;
+
+import com.familytree.dto.PersonResponse;
+import com.familytree.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the iterative TreeMapper produces the same output as the
+ * original recursive implementation, sequentially and in parallel
+ */
+class TreeMapperTest {
+
+	@Test
+	void iterativeMappingMatchesRecursiveMapping() {
+		Person root = wideTree(4, 6);
+
+		PersonResponse expected = recursiveToResponse(root);
+
+		PersonResponse sequential = TreeMapper.toResponseWithChildren(root);
+		PersonResponse parallel = TreeWalker.map(root, TreeMapper::toResponse, Person::getChildren,
+				(parent, child, index, count) -> parent.getChilds().add(child), 10);
+
+		assertThat(sequential).isEqualTo(expected);
+		assertThat(parallel).isEqualTo(expected);
+	}
+
+	@Test
+	void deepLineageDoesNotOverflowTheStack() {
+		Person root = lineage(100_000);
+
+		PersonResponse response = TreeMapper.toResponseWithChildren(root);
+
+		int depth = 0;
+		for (PersonResponse node = response; !node.getChilds().isEmpty(); node = node.getChilds().get(0)) {
+			depth++;
+		}
+		assertThat(depth).isEqualTo(99_999);
+	}
+
+	@Test
+	void jsonTreeIsMappedWithAllChildren() {
+		JsonTreeNode root = new JsonTreeNode();
+		root.setId("root");
+		for (int i = 0; i < 3; i++) {
+			JsonTreeNode child = new JsonTreeNode();
+			child.setId("child-" + i);
+			root.getChilds().add(child);
+		}
+
+		Person person = TreeMapper.fromJsonNodeWithChildren(root);
+
+		assertThat(person.getChildren()).extracting(Person::getId)
+				.containsExactlyInAnyOrder("child-0", "child-1", "child-2");
+	}
+
+	@Test
+	void projectionMapsOnlyRequestedFields() {
+		FieldProjection fields = FieldProjection.parse("level, name");
+
+		PersonResponse response = TreeMapper.toResponse(person("p1", 3), fields);
+
+		assertThat(fields.getKey()).isEqualTo("id,name,level");
+		assertThat(response.getId()).isEqualTo("p1");
+		assertThat(response.getName()).isEqualTo("Person p1");
+		assertThat(response.getLevel()).isEqualTo(3);
+		assertThat(response.getAddress()).isNull();
+		assertThat(response.getChilds()).isNull();
+	}
+
+	private static Person wideTree(int depth, int fanOut) {
+		Person root = person("root", 1);
+		List<Person> level = List.of(root);
+		for (int generation = 2; generation <= depth + 1; generation++) {
+			List<Person> next = new ArrayList<>();
+			for (Person parent : level) {
+				for (int i = 0; i < fanOut; i++) {
+					Person child = person(parent.getId() + "-" + i, generation);
+					parent.addChild(child);
+					next.add(child);
+				}
+			}
+			level = next;
+		}
+		return root;
+	}
+
+	private static Person lineage(int length) {
+		Person root = person("lineage-1", 1);
+		Person current = root;
+		for (int i = 2; i <= length; i++) {
+			Person child = person("lineage-" + i, i);
+			current.addChild(child);
+			current = child;
+		}
+		return root;
+	}
+
+	private static Person person(String id, int level) {
+		return new Person(id, "Person " + id, null, "Dhaka", level, null, null);
+	}
+
+	/**
+	 * The recursive mapping TreeMapper used before it became iterative
+	 */
+	private static PersonResponse recursiveToResponse(Person person) {
+		PersonResponse response = TreeMapper.toResponse(person);
+		if (person.getChildren() != null && !person.getChildren().isEmpty()) {
+			List<PersonResponse> childResponses = person.getChildren().stream()
+					.map(TreeMapperTest::recursiveToResponse)
+					.collect(Collectors.toList());
+			response.setChilds(childResponses);
+		}
+		return response;
+	}
+}
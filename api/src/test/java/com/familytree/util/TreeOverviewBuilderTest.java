@@ -0,0 +1,73 @@
+package com.familytree.util;
+
+import com.familytree.dto.OverviewNode;
+import com.familytree.dto.PersonTreeRow;
+import com.familytree.dto.TreeOverviewResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies small and deep branches are collapsed into summaries within the node budget
+ */
+class TreeOverviewBuilderTest {
+
+	@Test
+	void collapsesSmallBranchesIntoSummaries() {
+		// root -> big (10 children, each with 1 child), root -> small (1 child)
+		List<PersonTreeRow> rows = new ArrayList<>();
+		rows.add(row("root", null, 1));
+		rows.add(row("big", "root", 2));
+		rows.add(row("small", "root", 2));
+		rows.add(row("small-1", "small", 3));
+		for (int i = 0; i < 10; i++) {
+			rows.add(row("big-" + i, "big", 3));
+			rows.add(row("big-" + i + "-1", "big-" + i, 4));
+		}
+
+		TreeOverviewResponse overview = TreeOverviewBuilder.build(rows, 5, 10, 100);
+		OverviewNode root = overview.getRoot();
+
+		assertThat(overview.getTotalCount()).isEqualTo(24);
+		assertThat(root.getDescendantCount()).isEqualTo(23);
+		assertThat(root.getMaxLevel()).isEqualTo(4);
+		assertThat(root.getChilds()).extracting(OverviewNode::getId).containsExactly("big", "small");
+
+		OverviewNode small = root.getChilds().get(1);
+		assertThat(small.isCollapsed()).isTrue();
+		assertThat(small.getDescendantCount()).isEqualTo(1);
+		assertThat(small.getMaxLevel()).isEqualTo(3);
+		assertThat(small.getChilds()).isNull();
+
+		OverviewNode big = root.getChilds().get(0);
+		assertThat(big.getChilds()).hasSize(10).allMatch(OverviewNode::isCollapsed);
+		assertThat(overview.getNodeCount()).isEqualTo(13);
+	}
+
+	@Test
+	void staysWithinNodeBudget() {
+		List<PersonTreeRow> rows = new ArrayList<>();
+		rows.add(row("root", null, 1));
+		for (int i = 0; i < 20; i++) {
+			rows.add(row("c" + i, "root", 2));
+		}
+
+		TreeOverviewResponse overview = TreeOverviewBuilder.build(rows, 1, 10, 10);
+
+		assertThat(overview.getNodeCount()).isEqualTo(1);
+		assertThat(overview.getRoot().isCollapsed()).isTrue();
+		assertThat(overview.getRoot().getDescendantCount()).isEqualTo(20);
+	}
+
+	private static PersonTreeRow row(String id, String parentId, int level) {
+		return PersonTreeRow.builder()
+				.id(id)
+				.parentId(parentId)
+				.name("Person " + id)
+				.level(level)
+				.build();
+	}
+}
@@ -11,9 +11,19 @@ export const API_BASE_URL = '';
 export const API_ENDPOINTS = {
   FAMILY_TREE: '/api/family-tree',
   FAMILY_TREE_BY_ID: (id: string) => `/api/family-tree/${id}`,
+  FAMILY_TREE_BATCH: '/api/family-tree/batch',
   FAMILY_TREE_DESCENDANTS: (id: string) => `/api/family-tree/${id}/descendants`,
   FAMILY_TREE_SEARCH: '/api/family-tree/search',
+  FAMILY_TREE_SEARCH_FUZZY: '/api/family-tree/search/fuzzy',
+  FAMILY_TREE_SUGGEST: '/api/family-tree/suggest',
+  FAMILY_TREE_FACETS: '/api/family-tree/facets',
+  FAMILY_TREE_TIMELINE: '/api/family-tree/timeline',
   FAMILY_TREE_BY_LEVEL: (level: number) => `/api/family-tree/level/${level}`,
   FAMILY_TREE_COUNT: '/api/family-tree/count',
+  FAMILY_TREE_LAYOUT: '/api/family-tree/layout',
+  FAMILY_TREE_OVERVIEW: '/api/family-tree/overview',
+  FAMILY_TREE_VIEWPORT: '/api/family-tree/viewport',
+  FAMILY_TREE_CHANGES: '/api/family-tree/changes',
+  FAMILY_TREE_EVENTS: '/api/family-tree/events',
   FAMILY_TREE_RELOAD: '/api/family-tree/reload-data',
 };
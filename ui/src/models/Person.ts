@@ -13,6 +13,11 @@ export interface Person {
   mobile?: string;              // Mobile number (from PersonDetails.cell)
   positionX?: number;
   positionY?: number;
+  hasMoreChildren?: boolean;    // Set on nodes at a depth cutoff
+  childCount?: number;          // Direct children count at a depth cutoff
+  continuationToken?: string;   // Fetches the remaining children of a paged subtree
+  descendantCount?: number;     // Descendants below this person
+  subtreeDepth?: number;        // Generations below this person
   childs: Person[];
 }
 
@@ -48,6 +53,165 @@ export interface PersonPatchRequest {
   mobile?: string;
   positionX?: number;
   positionY?: number;
+  parentId?: string;
+}
+
+/**
+ * Dictionary-encoded string column: codes index into values, -1 for null
+ */
+export interface DictionaryColumn {
+  values: string[];
+  codes: number[];
+}
+
+/**
+ * Columnar tree from ?format=flat: parallel arrays in pre-order,
+ * so a parent always precedes its children
+ */
+export interface FlatTree {
+  size: number;
+  ids: string[];
+  parentIndex: number[];
+  names: string[];
+  levels: (number | null)[];
+  genders: DictionaryColumn;
+  positionX: (number | null)[];
+  positionY: (number | null)[];
+  positionLocked: (boolean | null)[];
+  addresses: DictionaryColumn;
+  avatars: DictionaryColumn;
+  signatures: DictionaryColumn;
+  signatureIds: (string | null)[];
+  spouses: (string | null)[];
+  contributorIds: DictionaryColumn;
+  childCounts?: (number | null)[];
+  continuationTokens?: (string | null)[];
+}
+
+/**
+ * Server-computed canvas positions, parallel arrays in pre-order
+ */
+export interface TreeLayout {
+  version: number;
+  size: number;
+  ids: string[];
+  parentIndex: number[];
+  x: number[];
+  y: number[];
+  manual: boolean[];
+  locked: boolean[];
+}
+
+/**
+ * A person in the overview tree, or a summary of a collapsed branch
+ */
+export interface OverviewNode {
+  id: string;
+  name: string;
+  level: number;
+  collapsed: boolean;
+  descendantCount: number;
+  maxLevel: number;
+  childs?: OverviewNode[];
+}
+
+export interface TreeOverview {
+  version: number;
+  totalCount: number;
+  nodeCount: number;
+  root?: OverviewNode;
+}
+
+/**
+ * Typed text with its last word completed, and how many names contain that word
+ */
+export interface NameSuggestion {
+  text: string;
+  count: number;
+}
+
+/**
+ * Persons matching facet filters, with the most frequent values of every facet among them
+ */
+export interface FacetCount {
+  value: string;
+  count: number;
+}
+
+export type FacetName = 'address' | 'placeOfBirth' | 'placeOfDeath' | 'profession' | 'institution';
+
+export interface FacetSearchResult {
+  total: number;
+  facets: Record<FacetName, FacetCount[]>;
+  persons: Person[];
+}
+
+/**
+ * Persons born or died within a date range, in date order
+ */
+export interface TimelineEntry {
+  dateOfBirth?: string;
+  dateOfDeath?: string;
+  person: Person;
+}
+
+export interface Timeline {
+  total: number;
+  entries: TimelineEntry[];
+}
+
+export interface TimelineQuery {
+  bornFrom?: string;
+  bornTo?: string;
+  diedFrom?: string;
+  diedTo?: string;
+  rootId?: string;
+  offset?: number;
+  limit?: number;
+}
+
+/**
+ * Persons inside a canvas rectangle and the edges reaching them
+ */
+export interface ViewportNode {
+  x: number;
+  y: number;
+  person: Person;
+}
+
+export interface ViewportEdge {
+  parentId: string;
+  childId: string;
+  parentX: number;
+  parentY: number;
+  childX: number;
+  childY: number;
+}
+
+export interface Viewport {
+  version: number;
+  nodes: ViewportNode[];
+  edges: ViewportEdge[];
+}
+
+/**
+ * A committed change to the family tree
+ */
+export interface PersonChange {
+  version: number;
+  type: 'CREATED' | 'UPDATED' | 'POSITION_CHANGED' | 'MOVED' | 'DELETED' | 'DETAILS_CHANGED' | 'POSITIONS_RESET';
+  personId?: string;
+  person?: Omit<Person, 'childs'> & { parentId?: string };
+}
+
+/**
+ * Changes to the family tree after a given version
+ */
+export interface ChangesResponse {
+  since: number;
+  version: number;
+  resyncRequired: boolean;
+  changes: PersonChange[];
 }
 
 /**
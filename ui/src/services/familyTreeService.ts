@@ -1,10 +1,21 @@
 import api from './api';
-import { API_ENDPOINTS } from '../constants/apiEndpoints';
+import { API_BASE_URL, API_ENDPOINTS } from '../constants/apiEndpoints';
 import type {
   Person,
   PersonRequest,
   PersonPatchRequest,
   ApiResponse,
+  ChangesResponse,
+  FacetName,
+  FacetSearchResult,
+  FlatTree,
+  Timeline,
+  TimelineQuery,
+  NameSuggestion,
+  TreeLayout,
+  TreeOverview,
+  Viewport,
+  PersonChange,
 } from '../models/Person';
 
 /**
@@ -21,6 +32,49 @@ export const familyTreeService = {
     return response.data;
   },
 
+  /**
+   * Get the complete family tree in the compact columnar format
+   * Rebuild the hierarchy with buildTreeFromFlat
+   */
+  getFullTreeFlat: async (): Promise<ApiResponse<FlatTree>> => {
+    const response = await api.get<ApiResponse<FlatTree>>(API_ENDPOINTS.FAMILY_TREE, {
+      params: { format: 'flat' },
+    });
+    return response.data;
+  },
+
+  /**
+   * Get canvas positions computed on the server for the current tree version
+   */
+  getTreeLayout: async (): Promise<ApiResponse<TreeLayout>> => {
+    const response = await api.get<ApiResponse<TreeLayout>>(API_ENDPOINTS.FAMILY_TREE_LAYOUT);
+    return response.data;
+  },
+
+  /**
+   * Get a collapsed overview of the whole tree for zoomed-out views
+   */
+  getTreeOverview: async (): Promise<ApiResponse<TreeOverview>> => {
+    const response = await api.get<ApiResponse<TreeOverview>>(API_ENDPOINTS.FAMILY_TREE_OVERVIEW);
+    return response.data;
+  },
+
+  /**
+   * Get the persons positioned inside a canvas rectangle
+   */
+  getViewport: async (
+    minX: number,
+    minY: number,
+    maxX: number,
+    maxY: number,
+    fields?: string
+  ): Promise<ApiResponse<Viewport>> => {
+    const response = await api.get<ApiResponse<Viewport>>(API_ENDPOINTS.FAMILY_TREE_VIEWPORT, {
+      params: { minX, minY, maxX, maxY, fields },
+    });
+    return response.data;
+  },
+
   /**
    * Get person by ID
    */
@@ -32,11 +86,23 @@ export const familyTreeService = {
   },
 
   /**
-   * Get person with all descendants
+   * Get several persons by ID in one request
+   * Unknown IDs are left out of the result
    */
-  getPersonWithDescendants: async (id: string): Promise<ApiResponse<Person>> => {
+  getPersonsByIds: async (ids: string[]): Promise<ApiResponse<Person[]>> => {
+    const response = await api.post<ApiResponse<Person[]>>(API_ENDPOINTS.FAMILY_TREE_BATCH, ids);
+    return response.data;
+  },
+
+  /**
+   * Get person with descendants
+   * Pass depth to load only that many generations; nodes at the cutoff
+   * carry hasMoreChildren/childCount so the next generations can be loaded later
+   */
+  getPersonWithDescendants: async (id: string, depth?: number): Promise<ApiResponse<Person>> => {
     const response = await api.get<ApiResponse<Person>>(
-      API_ENDPOINTS.FAMILY_TREE_DESCENDANTS(id)
+      API_ENDPOINTS.FAMILY_TREE_DESCENDANTS(id),
+      { params: depth !== undefined ? { depth } : undefined }
     );
     return response.data;
   },
@@ -80,10 +146,69 @@ export const familyTreeService = {
   /**
    * Search persons by name
    */
-  searchByName: async (name: string): Promise<ApiResponse<Person[]>> => {
+  searchByName: async (
+    name: string,
+    limit?: number,
+    offset?: number
+  ): Promise<ApiResponse<Person[]>> => {
     const response = await api.get<ApiResponse<Person[]>>(
       API_ENDPOINTS.FAMILY_TREE_SEARCH,
-      { params: { name } }
+      { params: { name, limit, offset } }
+    );
+    return response.data;
+  },
+
+  /**
+   * Search persons by name tolerating spelling variants, closest first
+   */
+  searchFuzzy: async (
+    name: string,
+    maxDistance?: number,
+    limit?: number
+  ): Promise<ApiResponse<Person[]>> => {
+    const response = await api.get<ApiResponse<Person[]>>(
+      API_ENDPOINTS.FAMILY_TREE_SEARCH_FUZZY,
+      { params: { name, maxDistance, limit } }
+    );
+    return response.data;
+  },
+
+  /**
+   * Complete the last word of a typed name, most frequent words first
+   */
+  suggest: async (
+    prefix: string,
+    limit?: number
+  ): Promise<ApiResponse<NameSuggestion[]>> => {
+    const response = await api.get<ApiResponse<NameSuggestion[]>>(
+      API_ENDPOINTS.FAMILY_TREE_SUGGEST,
+      { params: { prefix, limit } }
+    );
+    return response.data;
+  },
+
+  /**
+   * Filter persons by address and details attributes, with facet counts
+   */
+  searchFacets: async (
+    filters: Partial<Record<FacetName, string[]>>,
+    limit?: number,
+    offset?: number
+  ): Promise<ApiResponse<FacetSearchResult>> => {
+    const response = await api.get<ApiResponse<FacetSearchResult>>(
+      API_ENDPOINTS.FAMILY_TREE_FACETS,
+      { params: { ...filters, limit, offset }, paramsSerializer: { indexes: null } }
+    );
+    return response.data;
+  },
+
+  /**
+   * Get persons born or died within a date range (years or yyyy-MM-dd dates), in date order
+   */
+  getTimeline: async (query: TimelineQuery): Promise<ApiResponse<Timeline>> => {
+    const response = await api.get<ApiResponse<Timeline>>(
+      API_ENDPOINTS.FAMILY_TREE_TIMELINE,
+      { params: query }
     );
     return response.data;
   },
@@ -108,6 +233,34 @@ export const familyTreeService = {
     return response.data;
   },
 
+  /**
+   * Get changes committed after a tree version
+   * When resyncRequired is set, refetch the full tree instead
+   */
+  getChangesSince: async (since: number): Promise<ApiResponse<ChangesResponse>> => {
+    const response = await api.get<ApiResponse<ChangesResponse>>(
+      API_ENDPOINTS.FAMILY_TREE_CHANGES,
+      { params: { since } }
+    );
+    return response.data;
+  },
+
+  /**
+   * Subscribe to committed tree changes over Server-Sent Events
+   * The browser reconnects on its own and replays missed changes via Last-Event-ID
+   */
+  subscribeToChanges: (
+    onChanges: (changes: PersonChange[]) => void,
+    onResync: () => void
+  ): EventSource => {
+    const source = new EventSource(API_BASE_URL + API_ENDPOINTS.FAMILY_TREE_EVENTS);
+    source.addEventListener('changes', (event) => {
+      onChanges(JSON.parse((event as MessageEvent).data) as PersonChange[]);
+    });
+    source.addEventListener('resync', () => onResync());
+    return source;
+  },
+
   /**
    * Reload data from JSON file (admin operation)
    */
@@ -2,9 +2,10 @@ import { create } from 'zustand';
 import type { Person } from '../models/Person';
 import type { TreeNode } from '../models/TreeNode';
 import { familyTreeService } from '../services/familyTreeService';
-import { calculateTreeLayout, flattenTree } from '../utils/treeLayout';
+import { buildTreeFromFlat, calculateTreeLayout, flattenTree } from '../utils/treeLayout';
 import { toast } from 'react-toastify';
 import { usePositionCacheStore } from './positionCacheStore';
+import type { CachedPosition } from './positionCacheStore';
 
 /**
  * Helper function to update a person's data deep in the tree structure
@@ -53,11 +54,28 @@ export const useTreeStore = create<TreeState>((set, get) => ({
   loadTree: async () => {
     set({ isLoading: true, error: null });
     try {
-      const response = await familyTreeService.getFullTree();
-      const root = response.data;
+      const [response, layoutResponse] = await Promise.all([
+        familyTreeService.getFullTreeFlat(),
+        familyTreeService.getTreeLayout().catch(() => null),
+      ]);
+      const root = buildTreeFromFlat(response.data);
+
+      // Positions computed on the server fill in for nodes without a local one
+      const serverPositions = new Map<string, CachedPosition>();
+      const layout = layoutResponse?.data;
+      layout?.ids.forEach((id, i) => {
+        serverPositions.set(id, {
+          x: layout.x[i],
+          y: layout.y[i],
+          timestamp: Date.now(),
+          source: layout.manual[i] ? 'manual' : 'auto',
+          version: layout.version,
+        });
+      });
 
       // Get cache functions
-      const getCachedPosition = usePositionCacheStore.getState().getCachedPosition;
+      const getLocalPosition = usePositionCacheStore.getState().getCachedPosition;
+      const getCachedPosition = (id: string) => getLocalPosition(id) ?? serverPositions.get(id) ?? null;
       const setCachedPosition = usePositionCacheStore.getState().setCachedPosition;
 
       // Calculate layout with cache support
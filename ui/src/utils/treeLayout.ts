@@ -1,4 +1,4 @@
-import type { Person } from '../models/Person';
+import type { DictionaryColumn, FlatTree, Person } from '../models/Person';
 import type { TreeNode } from '../models/TreeNode';
 import { LAYOUT_CONSTANTS, NODE_DIMENSIONS } from '../constants/dimensions';
 import type { CachedPosition } from '../stores/positionCacheStore';
@@ -167,3 +167,47 @@ export function findParent(root: Person, childId: string): Person | null {
   }
   return null;
 }
+
+/**
+ * Rebuild the nested tree from the columnar ?format=flat payload
+ * Nodes arrive in pre-order, so every parent exists before its children
+ */
+export function buildTreeFromFlat(flat: FlatTree): Person {
+  const decode = (column: DictionaryColumn, index: number): string | undefined => {
+    const code = column.codes[index];
+    return code < 0 ? undefined : column.values[code];
+  };
+
+  const persons: Person[] = new Array(flat.size);
+  for (let i = 0; i < flat.size; i++) {
+    const person: Person = {
+      id: flat.ids[i],
+      name: flat.names[i],
+      avatar: decode(flat.avatars, i) as string,
+      address: decode(flat.addresses, i) as string,
+      level: flat.levels[i] as number,
+      signature: decode(flat.signatures, i) as string,
+      spouse: flat.spouses[i] ?? undefined,
+      gender: decode(flat.genders, i) as Person['gender'],
+      positionX: flat.positionX[i] ?? undefined,
+      positionY: flat.positionY[i] ?? undefined,
+      childs: [],
+    };
+    const childCount = flat.childCounts?.[i];
+    if (childCount != null) {
+      person.childCount = childCount;
+      person.hasMoreChildren = childCount > 0;
+    }
+    const continuationToken = flat.continuationTokens?.[i];
+    if (continuationToken != null) {
+      person.continuationToken = continuationToken;
+    }
+
+    persons[i] = person;
+    const parent = flat.parentIndex[i];
+    if (parent >= 0) {
+      persons[parent].childs.push(person);
+    }
+  }
+  return persons[0];
+}